@@ -0,0 +1,166 @@
+package com.nebula.userService.configs;
+
+import com.nebula.userService.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder que executa todo hash/verificação BCrypt em um pool dedicado,
+ * dimensionado pela quantidade de CPUs e com fila limitada.
+ *
+ * Uma rajada de logins ocupa apenas esse pool: a CPU gasta com BCrypt fica limitada e os
+ * demais endpoints continuam respondendo. Com a fila cheia a chamada falha imediatamente
+ * com {@link ServiceOverloadedException} (503 + Retry-After).
+ *
+ * A thread do Tomcat que pediu o hash fica bloqueada esperando o resultado — é intencional,
+ * o login precisa dele para responder — mas no máximo {@code password-hashing.timeout-ms}.
+ * O padrão (1s) cobre alguns hashes na fila à frente (~100ms cada com custo 10); acima disso
+ * o pool está saturado e responder 503 libera a thread mais cedo do que esperar.
+ */
+@Slf4j
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    private static final String METRIC_PREFIX = "password.hashing";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+
+    private volatile Timer waitTimer;
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+    private volatile Counter rejectedCounter;
+
+    @Autowired
+    public BoundedPasswordEncoder(@Value("${password-hashing.threads:0}") int threads,
+                                  @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${password-hashing.timeout-ms:1000}") long timeoutMs,
+                                  @Value("${password-hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        this(new BCryptPasswordEncoder(), threads, queueCapacity, timeoutMs, retryAfterSeconds);
+    }
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMs, long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Tarefas de hash de senha aguardando na fila")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+        waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("Tempo na fila antes do hash começar")
+                .register(registry);
+        encodeTimer = Timer.builder(METRIC_PREFIX + ".duration").tag("operation", "encode").register(registry);
+        matchesTimer = Timer.builder(METRIC_PREFIX + ".duration").tag("operation", "matches").register(registry);
+        rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Requisições recusadas com a fila de hash cheia")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> work, Timer durationTimer) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(waitTimer, startedAt - enqueuedAt);
+                try {
+                    return work.call();
+                } finally {
+                    record(durationTimer, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw overloaded("Fila de hashing de senha cheia");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw overloaded("Tempo de espera do hashing de senha excedido");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashing de senha interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Falha no hashing de senha", e.getCause());
+        }
+    }
+
+    private ServiceOverloadedException overloaded(String reason) {
+        Counter counter = rejectedCounter;
+        if (counter != null) {
+            counter.increment();
+        }
+        log.warn("{} (fila: {})", reason, executor.getQueue().size());
+        return new ServiceOverloadedException(
+                "Serviço temporariamente sobrecarregado. Tente novamente em instantes.", retryAfterSeconds);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
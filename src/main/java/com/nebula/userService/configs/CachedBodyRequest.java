@@ -0,0 +1,101 @@
+package com.nebula.userService.configs;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Requisição com o início do corpo lido antecipadamente, para que o {@link RateLimitFilter}
+ * extraia username/e-mail e o controller ainda consiga desserializar o mesmo corpo.
+ *
+ * Lê no máximo {@code maxBytes} (+1 para detectar o excesso) antes do rate limit: corpos
+ * maiores não são bufferizados por inteiro — {@link #isTruncated()} indica o excesso e o
+ * stream devolvido é o prefixo lido seguido do restante do stream original.
+ */
+class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] prefix;
+    private final boolean truncated;
+
+    CachedBodyRequest(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        this.prefix = request.getInputStream().readNBytes(maxBytes + 1);
+        this.truncated = prefix.length > maxBytes;
+    }
+
+    /** Corpo completo, ou vazio se passou do limite. */
+    byte[] getBody() {
+        return truncated ? new byte[0] : prefix;
+    }
+
+    /** {@code true} se o corpo passou de {@code maxBytes} e não pôde ser lido por inteiro. */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        ServletInputStream remaining = truncated ? super.getInputStream() : null;
+        ByteArrayInputStream buffered = new ByteArrayInputStream(prefix);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return buffered.available() == 0 && (remaining == null || remaining.isFinished());
+            }
+
+            @Override
+            public boolean isReady() {
+                return buffered.available() > 0 || remaining == null || remaining.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                if (remaining != null) {
+                    // O container avisa quando o restante chegar; o prefixo em memória nunca bloqueia
+                    remaining.setReadListener(readListener);
+                    return;
+                }
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() throws IOException {
+                int next = buffered.read();
+                return next >= 0 || remaining == null ? next : remaining.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                int read = buffered.read(buffer, offset, length);
+                if (read > 0 || remaining == null) {
+                    return read;
+                }
+                return remaining.read(buffer, offset, length);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        Charset charset = getCharacterEncoding() != null
+                ? Charset.forName(getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
@@ -1,26 +1,24 @@
 package com.nebula.userService.configs;
 
+import com.nebula.userService.service.AuthEpochService;
 import com.nebula.userService.service.TokenBlacklistService;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -29,16 +27,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final UserDetailsService userDetailsService;
     private final TokenBlacklistService tokenBlacklistService;
     private final com.nebula.userService.service.SessionService sessionService;
+    private final AuthEpochService authEpochService;
+
+    /**
+     * Quando true, o principal é montado apenas a partir das claims verificadas do token,
+     * sem consultar a tabela users a cada requisição.
+     */
+    private final boolean statelessPrincipal;
 
     @Autowired
     public JwtAuthenticationFilter(JwtConfig jwtConfig,
                                    @Lazy UserDetailsService userDetailsService,
                                    TokenBlacklistService tokenBlacklistService,
-                                   com.nebula.userService.service.SessionService sessionService) {
+                                   com.nebula.userService.service.SessionService sessionService,
+                                   AuthEpochService authEpochService,
+                                   @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal) {
         this.jwtConfig = jwtConfig;
         this.userDetailsService = userDetailsService;
         this.tokenBlacklistService = tokenBlacklistService;
         this.sessionService = sessionService;
+        this.authEpochService = authEpochService;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -56,25 +65,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
         try {
-            // Rejeita tokens que foram revogados via logout
-            if (tokenBlacklistService.isBlacklisted(token)) {
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revogado");
-                return;
-            }
-
-            Claims claims = jwtConfig.extractClaims(token);
-            String username = claims.getSubject();
+            // Verificação única: assinatura + parse das claims
+            VerifiedToken verified = jwtConfig.parseToken(token);
+            String username = verified.subject();
 
             // Rejeita refresh tokens tentando acessar endpoints protegidos
-            if (!jwtConfig.isTokenType(token, "access")) {
+            if (!verified.isAccessToken()) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Tipo de token inválido");
                 return;
             }
 
+            // Rejeita tokens que foram revogados via logout
+            if (tokenBlacklistService.isBlacklisted(token, verified)) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revogado");
+                return;
+            }
+
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Revogação em massa / troca de senha / permissões: uma comparação de inteiros
+                if (verified.authEpoch() < authEpochService.currentEpoch(username)) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revogado");
+                    return;
+                }
 
-                String sessionId = claims.get("sessionId", String.class);
+                String sessionId = verified.sessionId();
                 if (sessionId == null || !sessionService.isSessionActive(sessionId, username)) {
                     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Sessão inválida ou expirada");
                     return;
@@ -82,17 +96,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 sessionService.refreshSession(sessionId);
 
-                List<String> roles = claims.get("roles", List.class);
-                List<String> permissions = claims.get("permissions", List.class);
-                List<SimpleGrantedAuthority> authorities = Stream.concat(
-                                (roles != null ? roles : List.<String>of()).stream(),
-                                (permissions != null ? permissions : List.<String>of()).stream()
-                        )
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-
+                UserDetails userDetails = resolvePrincipal(verified);
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+                        new UsernamePasswordAuthenticationToken(userDetails, null, verified.authorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (ExpiredJwtException e) {
@@ -105,4 +111,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails resolvePrincipal(VerifiedToken verified) {
+        if (!statelessPrincipal) {
+            return userDetailsService.loadUserByUsername(verified.subject());
+        }
+        // Senha nunca é necessária após a autenticação por token
+        return User.withUsername(verified.subject())
+                .password("")
+                .authorities(verified.authorities())
+                .build();
+    }
+}
@@ -1,30 +1,76 @@
 package com.nebula.userService.configs;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
-public class JwtConfig {
+public class JwtConfig implements MeterBinder {
+
+    private static final long DEFAULT_CACHE_MAX_SIZE = 100_000;
+    private static final long DEFAULT_CACHE_MAX_TTL_MS = 900_000;
+    private static final int TOKEN_ID_BYTES = 16;
+    private static final SecureRandom TOKEN_ID_RANDOM = new SecureRandom();
 
     private final SecretKey secretKey;
+    private final JwtParser jwtParser;
     private final long expirationTime;
     private final long refreshExpirationTime;
 
+    /**
+     * Cache de tokens já verificados, indexado pelo SHA-256 do token.
+     * Um hit dispensa a verificação HMAC e o parse JSON das claims.
+     * Cada entrada expira no mínimo entre o TTL configurado e o {@code exp} do token.
+     */
+    private final Cache<String, VerifiedEntry> verifiedTokens;
+
+    public JwtConfig(String secret, long expirationTime, long refreshExpirationTime) {
+        this(secret, expirationTime, refreshExpirationTime, DEFAULT_CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_TTL_MS);
+    }
+
+    @Autowired
     public JwtConfig(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration-ms:86400000}") long expirationTime,
-            @Value("${jwt.refresh-expiration-ms:604800000}") long refreshExpirationTime) {
+            @Value("${jwt.refresh-expiration-ms:604800000}") long refreshExpirationTime,
+            @Value("${jwt.cache.max-size:100000}") long cacheMaxSize,
+            @Value("${jwt.cache.max-ttl-ms:900000}") long cacheMaxTtlMs) {
         this.secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
+        // O parser é imutável e thread-safe: construído uma vez em vez de a cada requisição
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
         this.expirationTime = expirationTime;
         this.refreshExpirationTime = refreshExpirationTime;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(cacheMaxTtlMs)))
+                .recordStats()
+                .build();
+    }
+
+    /** Expõe hits, misses e evictions do cache de tokens verificados via actuator. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
     }
 
     public SecretKey getSecretKey() {
@@ -51,11 +97,22 @@ public class JwtConfig {
     }
 
     public String generateToken(String username, List<String> roles, List<String> permissions, String sessionId) {
+        return generateToken(username, roles, permissions, sessionId, 0L);
+    }
+
+    /**
+     * Generates an access token bound to the user's current auth epoch.
+     * Tokens whose epoch is older than the user's current one are rejected.
+     */
+    public String generateToken(String username, List<String> roles, List<String> permissions,
+                                String sessionId, long authEpoch) {
         var builder = Jwts.builder()
+                .id(newTokenId())
                 .subject(username)
                 .claim("roles", roles)
                 .claim("permissions", permissions)
                 .claim("type", "access")
+                .claim("epoch", authEpoch)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationTime));
 
@@ -71,6 +128,7 @@ public class JwtConfig {
      */
     public String generateRefreshToken(String username, String sessionId) {
         var builder = Jwts.builder()
+                .id(newTokenId())
                 .subject(username)
                 .claim("type", "refresh")
                 .issuedAt(new Date())
@@ -85,20 +143,86 @@ public class JwtConfig {
 
     /**
      * Parses and returns the claims from any token.
+     * Repeated calls for the same token are served from the verified-token cache.
      */
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verify(token).claims();
+    }
+
+    /**
+     * Verifies the token once and returns an immutable, typed view of its claims.
+     */
+    public VerifiedToken parseToken(String token) {
+        return verify(token).token();
+    }
+
+    /**
+     * Verifies the token without reading or filling the verified-token cache.
+     * Used for tokens that should never be served from it, such as already revoked ones.
+     */
+    public VerifiedToken parseTokenUncached(String token) {
+        return VerifiedToken.from(jwtParser.parseSignedClaims(token).getPayload(), token);
+    }
+
+    /**
+     * Removes the token from the verified-token cache (called when it is blacklisted).
+     */
+    public void evictVerified(String token) {
+        verifiedTokens.invalidate(cacheKey(token));
     }
 
     /**
      * Checks if the token is of the expected type ("access" or "refresh").
      */
     public boolean isTokenType(String token, String expectedType) {
-        Claims claims = extractClaims(token);
-        return expectedType.equals(claims.get("type", String.class));
+        return parseToken(token).isType(expectedType);
+    }
+
+    private VerifiedEntry verify(String token) {
+        // Tokens inválidos ou expirados lançam exceção e não entram no cache
+        return verifiedTokens.get(cacheKey(token), key -> {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            return new VerifiedEntry(claims, VerifiedToken.from(claims, token));
+        });
+    }
+
+    /** jti aleatório de 128 bits (22 caracteres base64url), usado como chave de revogação. */
+    private static String newTokenId() {
+        byte[] bytes = new byte[TOKEN_ID_BYTES];
+        TOKEN_ID_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String cacheKey(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private record VerifiedEntry(Claims claims, VerifiedToken token) {
+    }
+
+    /** Expira cada entrada no menor valor entre o TTL máximo do cache e o exp do token. */
+    private record TokenExpiry(long maxTtlNanos) implements Expiry<String, VerifiedEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedEntry value, long currentTime) {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(value.token().remainingMillis());
+            return Math.min(maxTtlNanos, remainingNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
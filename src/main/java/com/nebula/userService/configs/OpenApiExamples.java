@@ -184,7 +184,7 @@ public final class OpenApiExamples {
             {
               "status": 429,
               "error": "Too Many Requests",
-              "message": "Limite de requisicoes excedido para criacao de usuario. Tente novamente em instantes.",
+              "message": "Limite de requisicoes excedido. Tente novamente em instantes.",
               "path": "/api/users/createUser",
               "timestamp": "2026-05-15T14:30:00"
             }
@@ -0,0 +1,181 @@
+package com.nebula.userService.configs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nebula.userService.dto.ErrorResponseDTO;
+import com.nebula.userService.service.RateLimitDecision;
+import com.nebula.userService.service.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rate limiting por rota, aplicado antes da cadeia do Spring Security e dos controllers.
+ *
+ * As políticas vêm de {@link RateLimitProperties}; uma requisição que excede qualquer
+ * política casada recebe 429 sem chegar ao BCrypt, SMTP ou banco. Toda resposta limitada
+ * leva os cabeçalhos {@code RateLimit-Limit}, {@code RateLimit-Remaining} e
+ * {@code RateLimit-Reset} da política mais restritiva; o 429 leva também {@code Retry-After}.
+ *
+ * Se alguma política casada usa chave do corpo (username/e-mail) e o corpo passa de
+ * {@code rate-limit.max-body-bytes}, a requisição recebe 413: sem a chave não há como limitar
+ * a conta, e aceitar o corpo deixaria qualquer um contornar o limite só aumentando o JSON.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitService rateLimitService,
+                           RateLimitProperties properties,
+                           ObjectMapper objectMapper) {
+        this.rateLimitService = rateLimitService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        List<RateLimitProperties.Policy> policies = matchingPolicies(request);
+        if (policies.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest effectiveRequest = request;
+        JsonNode body = null;
+        if (policies.stream().anyMatch(policy -> policy.getKey() != RateLimitProperties.KeyType.IP)) {
+            CachedBodyRequest cached = new CachedBodyRequest(request, properties.getMaxBodyBytes());
+            if (cached.isTruncated()) {
+                log.warn("Corpo acima de {} bytes recusado em {} (politica por username/e-mail)",
+                        properties.getMaxBodyBytes(), request.getRequestURI());
+                writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Corpo da requisicao excede o tamanho permitido.");
+                return;
+            }
+            effectiveRequest = cached;
+            body = readJson(cached.getBody());
+        }
+
+        RateLimitDecision mostRestrictive = null;
+        for (RateLimitProperties.Policy policy : policies) {
+            String key = resolveKey(policy, request, body);
+            if (key == null) {
+                continue;
+            }
+            RateLimitDecision decision = rateLimitService.tryConsume(policy, key);
+            if (!decision.allowed()) {
+                log.warn("Rate limit '{}' excedido para {} em {}", policy.getName(), key, request.getRequestURI());
+                writeRateLimitHeaders(response, decision);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+                writeError(request, response, HttpStatus.TOO_MANY_REQUESTS,
+                        "Limite de requisicoes excedido. Tente novamente em instantes.");
+                return;
+            }
+            if (mostRestrictive == null || decision.remaining() < mostRestrictive.remaining()) {
+                mostRestrictive = decision;
+            }
+        }
+
+        if (mostRestrictive != null) {
+            writeRateLimitHeaders(response, mostRestrictive);
+        }
+        filterChain.doFilter(effectiveRequest, response);
+    }
+
+    private List<RateLimitProperties.Policy> matchingPolicies(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return List.of();
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getPolicies().stream()
+                .filter(policy -> policy.getMethod() == null || policy.getMethod().equalsIgnoreCase(request.getMethod()))
+                .filter(policy -> pathMatcher.match(policy.getPath(), path))
+                .toList();
+    }
+
+    private String resolveKey(RateLimitProperties.Policy policy, HttpServletRequest request, JsonNode body) {
+        return switch (policy.getKey()) {
+            case IP -> getClientIp(request);
+            case USERNAME -> bodyField(body, "username");
+            case EMAIL -> bodyField(body, "email");
+        };
+    }
+
+    private JsonNode readJson(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            // Corpo inválido: a validação do controller responde; só o limite por IP se aplica
+            return null;
+        }
+    }
+
+    private static String bodyField(JsonNode body, String field) {
+        if (body == null || !body.hasNonNull(field)) {
+            return null;
+        }
+        String value = body.get(field).asText().trim().toLowerCase(Locale.ROOT);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * IP do cliente. O X-Forwarded-For não é lido aqui: com {@code server.forward-headers-strategy:
+     * framework} o ForwardedHeaderFilter (que roda antes) já resolveu o remoteAddr a partir dos
+     * proxies confiáveis — ler o cabeçalho cru deixaria o cliente escolher a própria chave.
+     */
+    private static String getClientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private static void writeRateLimitHeaders(HttpServletResponse response, RateLimitDecision decision) {
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(Math.max(0, decision.remaining())));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+    }
+
+    private void writeError(HttpServletRequest request,
+                            HttpServletResponse response,
+                            HttpStatus status,
+                            String message) throws IOException {
+        ErrorResponseDTO body = ErrorResponseDTO.builder()
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+}
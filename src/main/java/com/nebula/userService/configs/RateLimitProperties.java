@@ -0,0 +1,67 @@
+package com.nebula.userService.configs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Políticas de rate limiting por rota ({@code rate-limit.policies} no application.yml).
+ *
+ * Cada política casa método + padrão de caminho (Ant) e limita por uma chave:
+ * IP do cliente, username ou e-mail lidos do corpo JSON. Uma requisição pode
+ * casar várias políticas (ex.: login por IP e por username); todas precisam permitir.
+ * Valores inválidos (ex.: {@code refill-tokens: 0}) impedem a subida da aplicação.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    /** Bytes do corpo lidos para extrair username/e-mail; acima disso a requisição recebe 413. */
+    @Positive
+    private int maxBodyBytes = 16_384;
+    @Valid
+    private List<Policy> policies = new ArrayList<>();
+
+    public enum KeyType {
+        IP, USERNAME, EMAIL
+    }
+
+    /**
+     * BUCKET4J: bucket distribuído com lote local (padrão).
+     * GCRA: uma chamada Lua atômica por decisão — latência previsível sob disputa da mesma chave.
+     */
+    public enum Algorithm {
+        BUCKET4J, GCRA
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        @NotBlank
+        private String name;
+        private String method = "POST";
+        @NotBlank
+        private String path;
+        @NotNull
+        private KeyType key = KeyType.IP;
+        @NotNull
+        private Algorithm algorithm = Algorithm.BUCKET4J;
+        @Positive
+        private long capacity;
+        @Positive
+        private long refillTokens;
+        @Positive
+        private long refillSeconds;
+    }
+}
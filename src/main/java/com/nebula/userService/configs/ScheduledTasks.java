@@ -1,11 +1,22 @@
 package com.nebula.userService.configs;
 
+import com.nebula.userService.service.AuditPartitionService;
+import com.nebula.userService.service.AuthEpochService;
+import com.nebula.userService.service.EmailDispatcher;
+import com.nebula.userService.service.LoginFailureAggregator;
 import com.nebula.userService.service.PasswordResetService;
+import com.nebula.userService.service.SessionActivityBuffer;
+import com.nebula.userService.service.TokenBlacklistService;
+import com.nebula.userService.service.WebhookDispatcher;
+import com.nebula.userService.service.WebhookSubscriptionIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Tarefas agendadas de manutenção do sistema.
  */
@@ -15,6 +26,26 @@ import org.springframework.stereotype.Component;
 public class ScheduledTasks {
 
     private final PasswordResetService passwordResetService;
+    private final SessionActivityBuffer sessionActivityBuffer;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final AuthEpochService authEpochService;
+    private final WebhookDispatcher webhookDispatcher;
+    private final WebhookSubscriptionIndex webhookSubscriptionIndex;
+    private final EmailDispatcher emailDispatcher;
+    private final AuditPartitionService auditPartitionService;
+    private final LoginFailureAggregator loginFailureAggregator;
+
+    @Value("${webhooks.outbox.retention-days:7}")
+    private int webhookRetentionDays;
+
+    @Value("${email.outbox.retention-days:7}")
+    private int emailRetentionDays;
+
+    @Value("${webhooks.dispatcher.max-tick-ms:5000}")
+    private long webhookMaxTickMs;
+
+    @Value("${email.dispatcher.max-tick-ms:10000}")
+    private long emailMaxTickMs;
 
     /**
      * Remove tokens de reset de senha expirados.
@@ -25,4 +56,121 @@ public class ScheduledTasks {
         log.info("Executando limpeza de tokens de reset expirados...");
         passwordResetService.cleanupExpiredTokens();
     }
+
+    /**
+     * Grava em lote o last_seen_at coalescido das sessões.
+     * Executa a cada poucos segundos (sessions.last-seen.flush-interval-ms).
+     */
+    @Scheduled(fixedDelayString = "${sessions.last-seen.flush-interval-ms:5000}")
+    public void flushSessionActivity() {
+        sessionActivityBuffer.flush();
+    }
+
+    /**
+     * Reconstrói o filtro local de tokens revogados a partir do Redis, descartando ids expirados
+     * e recuperando revogações cujo aviso de pub/sub se perdeu.
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.filter.rebuild-interval-ms:300000}",
+            initialDelayString = "${jwt.blacklist.filter.rebuild-interval-ms:300000}")
+    public void rotateRevokedTokenFilter() {
+        tokenBlacklistService.rebuildFilter();
+    }
+
+    /**
+     * Migra chaves da blacklist gravadas no formato antigo por nós ainda não atualizados.
+     * Só age enquanto jwt.blacklist.legacy-lookup estiver ligado.
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist.legacy-migration-interval-ms:60000}",
+            initialDelayString = "${jwt.blacklist.legacy-migration-interval-ms:60000}")
+    public void migrateLegacyBlacklistKeys() {
+        tokenBlacklistService.migrateLegacyKeys();
+    }
+
+    /**
+     * Recarrega as épocas de autenticação do Redis, cobrindo avisos de pub/sub perdidos.
+     */
+    @Scheduled(fixedDelayString = "${jwt.epoch.resync-interval-ms:60000}",
+            initialDelayString = "${jwt.epoch.resync-interval-ms:60000}")
+    public void resyncAuthEpochs() {
+        authEpochService.resync();
+    }
+
+    /**
+     * Entrega os eventos de webhook pendentes do outbox.
+     * Enquanto houver eventos vencidos continua no mesmo ciclo, por no máximo
+     * webhooks.dispatcher.max-tick-ms — mesmo que os lotes não esvaziem (ex.: banco falhando ao
+     * registrar o resultado), o ciclo termina e a thread volta ao pool de agendamento.
+     */
+    @Scheduled(fixedDelayString = "${webhooks.dispatcher.poll-interval-ms:1000}")
+    public void dispatchWebhooks() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(webhookMaxTickMs);
+        while (webhookDispatcher.dispatchPending() > 0 && System.nanoTime() < deadline
+                && !Thread.currentThread().isInterrupted()) {
+            // drena o backlog acumulado
+        }
+    }
+
+    /**
+     * Remove do outbox os eventos de webhook já entregues.
+     * Executa todo dia à 01:00.
+     */
+    @Scheduled(cron = "0 0 1 * * *")
+    public void cleanupWebhookOutbox() {
+        webhookDispatcher.cleanupDelivered(webhookRetentionDays);
+    }
+
+    /**
+     * Recarrega o índice de assinaturas de webhook.
+     * Rede de segurança para avisos de pub/sub perdidos; alterações normais chegam na hora.
+     */
+    @Scheduled(fixedDelayString = "${webhooks.subscriptions.refresh-interval-ms:300000}",
+            initialDelayString = "${webhooks.subscriptions.refresh-interval-ms:300000}")
+    public void refreshWebhookSubscriptions() {
+        webhookSubscriptionIndex.refresh();
+    }
+
+    /**
+     * Envia os e-mails pendentes da fila, dentro do limite do provedor.
+     * Drena enquanto o throttle permitir, por no máximo email.dispatcher.max-tick-ms: um SMTP
+     * lento não segura a thread de agendamento além desse tempo.
+     */
+    @Scheduled(fixedDelayString = "${email.dispatcher.poll-interval-ms:1000}")
+    public void dispatchEmails() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(emailMaxTickMs);
+        while (emailDispatcher.dispatchPending() > 0 && System.nanoTime() < deadline
+                && !Thread.currentThread().isInterrupted()) {
+            // drena a fila enquanto o throttle permitir
+        }
+    }
+
+    /**
+     * Remove da fila os e-mails já enviados.
+     * Executa todo dia à 01:30.
+     */
+    @Scheduled(cron = "0 30 1 * * *")
+    public void cleanupEmailOutbox() {
+        emailDispatcher.cleanupSent(emailRetentionDays);
+    }
+
+    /**
+     * Cria as partições futuras do audit_log e remove as que saíram da retenção.
+     * Roda na subida e depois a cada audit.partitioning.check-interval-ms (padrão 6h).
+     */
+    @Scheduled(fixedDelayString = "${audit.partitioning.check-interval-ms:21600000}")
+    public void maintainAuditPartitions() {
+        try {
+            auditPartitionService.maintainPartitions();
+        } catch (Exception e) {
+            log.error("Falha na manutencao das particoes do audit_log: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fecha a janela de agregação das falhas de login e envia as linhas ao audit_log.
+     * Executa a cada audit.aggregation.window-ms (padrão 60s).
+     */
+    @Scheduled(fixedDelayString = "${audit.aggregation.window-ms:60000}")
+    public void flushLoginFailures() {
+        loginFailureAggregator.flush();
+    }
 }
@@ -0,0 +1,103 @@
+package com.nebula.userService.configs;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Visão imutável e tipada de um JWT já verificado.
+ * Produzida uma única vez por {@link JwtConfig#parseToken(String)}; todas as
+ * checagens do filtro (tipo, sessão, authorities) leem daqui sem re-parsear o token.
+ *
+ * {@code revocationId} é a chave compacta usada na blacklist: o {@code jti} do token
+ * ou, para tokens emitidos antes da claim existir, um digest de 16 bytes do token.
+ */
+public record VerifiedToken(
+        String subject,
+        String type,
+        String sessionId,
+        String revocationId,
+        List<String> roles,
+        List<String> permissions,
+        Instant expiresAt,
+        long authEpoch,
+        List<GrantedAuthority> authorities) {
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final int DIGEST_BYTES = 16;
+
+    public static VerifiedToken from(Claims claims, String rawToken) {
+        List<String> roles = toStringList(claims.get("roles", List.class));
+        List<String> permissions = toStringList(claims.get("permissions", List.class));
+        List<GrantedAuthority> authorities = Stream.concat(roles.stream(), permissions.stream())
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("type", String.class),
+                claims.get("sessionId", String.class),
+                claims.getId() != null ? claims.getId() : digestId(rawToken),
+                roles,
+                permissions,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                toLong(claims.get("epoch", Number.class)),
+                authorities
+        );
+    }
+
+    public boolean isType(String expectedType) {
+        return expectedType.equals(type);
+    }
+
+    public boolean isAccessToken() {
+        return isType(ACCESS);
+    }
+
+    /** Tempo de vida restante do token em milissegundos (0 se já expirou ou não tem exp). */
+    public long remainingMillis() {
+        if (expiresAt == null) {
+            return 0;
+        }
+        return Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis());
+    }
+
+    /**
+     * Identificador de revogação de tokens sem {@code jti}: os primeiros 16 bytes
+     * do SHA-256 do token, em base64url (22 caracteres).
+     */
+    public static String digestId(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, DIGEST_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static long toLong(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+
+    private static List<String> toStringList(List<?> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .map(String::valueOf)
+                .toList();
+    }
+}
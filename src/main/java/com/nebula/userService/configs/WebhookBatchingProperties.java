@@ -0,0 +1,66 @@
+package com.nebula.userService.configs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endpoints de webhook com entrega em lote ({@code webhooks.batching.endpoints} no application.yml).
+ *
+ * Eventos para esses endpoints ficam no outbox até o fim da janela corrente (janelas fixas de
+ * {@code window-ms}, alinhadas ao relógio) e saem como um único array JSON de até
+ * {@code max-events} itens, opcionalmente com gzip. URLs não listadas recebem um POST por evento.
+ * Valores inválidos (ex.: {@code window-ms: 0}) impedem a subida da aplicação.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "webhooks.batching")
+public class WebhookBatchingProperties {
+
+    @Valid
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    /** Configuração de lote da URL, ou null para entrega imediata. */
+    public Endpoint endpointFor(String url) {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.getUrl().equals(url)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        @NotBlank
+        private String url;
+        @Positive
+        private int maxEvents = 100;
+        @Positive
+        private long windowMs = 1000;
+        private boolean gzip;
+
+        /**
+         * Fim da janela que contém {@code now}: todos os eventos da janela vencem juntos.
+         * Também usado nos reenvios, para que eventos reagendados voltem a sair em lote.
+         */
+        public LocalDateTime windowEnd(LocalDateTime now) {
+            ZoneId zone = ZoneId.systemDefault();
+            long millis = now.atZone(zone).toInstant().toEpochMilli();
+            long end = (millis / windowMs + 1) * windowMs;
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(end), zone);
+        }
+    }
+}
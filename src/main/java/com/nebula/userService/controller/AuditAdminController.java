@@ -0,0 +1,163 @@
+package com.nebula.userService.controller;
+
+import com.nebula.userService.dto.AuditLogFilterDTO;
+import com.nebula.userService.dto.AuditLogPageDTO;
+import com.nebula.userService.dto.ErrorResponseDTO;
+import com.nebula.userService.dto.LoginStatsHourlyDTO;
+import com.nebula.userService.service.AuditLogQueryService;
+import com.nebula.userService.service.LoginStatsQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.nebula.userService.configs.OpenApiExamples.BAD_REQUEST_RESPONSE;
+import static com.nebula.userService.configs.OpenApiExamples.FORBIDDEN_RESPONSE;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(
+        name = "Auditoria (admin)",
+        description = """
+                Consulta do log de auditoria.
+
+                Regras gerais:
+                - todos os endpoints exigem role `ADMIN`
+                - resultados do mais recente para o mais antigo
+                - paginacao por cursor: envie o `nextCursor` recebido para obter a proxima pagina
+                - nao ha total de registros; `nextCursor` nulo indica a ultima pagina
+                - estatisticas de login vem de um rollup por hora, sem varrer o log
+                """
+)
+@RequestMapping("/api/admin/audit")
+public class AuditAdminController {
+
+    private final AuditLogQueryService auditLogQueryService;
+    private final LoginStatsQueryService loginStatsQueryService;
+
+    @Operation(
+            summary = "Consultar log de auditoria",
+            description = "Filtros opcionais combinados com AND. `from` e inclusivo e `to` exclusivo.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Pagina de registros"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor ou parametro invalido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "bad-request", value = BAD_REQUEST_RESPONSE)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Usuario autenticado sem permissao administrativa",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "forbidden", value = FORBIDDEN_RESPONSE)
+                    )
+            )
+    })
+    @GetMapping
+    public ResponseEntity<AuditLogPageDTO> searchAuditLog(
+            @Parameter(description = "ID do usuario que executou a acao", example = "7")
+            @RequestParam(required = false) Long userId,
+
+            @Parameter(description = "Acao registrada", example = "LOGIN_FAILED")
+            @RequestParam(required = false) String action,
+
+            @Parameter(description = "Entidade afetada", example = "User")
+            @RequestParam(required = false) String entity,
+
+            @Parameter(description = "ID da entidade afetada", example = "7")
+            @RequestParam(required = false) Long entityId,
+
+            @Parameter(description = "IP de origem", example = "192.168.0.21")
+            @RequestParam(required = false) String ip,
+
+            @Parameter(description = "Inicio do intervalo (inclusivo)", example = "2026-03-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Fim do intervalo (exclusivo)", example = "2026-04-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @Parameter(description = "Cursor devolvido pela pagina anterior (`nextCursor`)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Quantidade de itens por pagina. Intervalo permitido: 1 a 200.", example = "50")
+            @RequestParam(defaultValue = "" + AuditLogQueryService.DEFAULT_LIMIT) int limit) {
+
+        AuditLogFilterDTO filter = AuditLogFilterDTO.builder()
+                .userId(userId)
+                .action(action)
+                .entity(entity)
+                .entityId(entityId)
+                .ipAddress(ip)
+                .from(from)
+                .to(to)
+                .build();
+        return ResponseEntity.ok(auditLogQueryService.search(filter, cursor, limit));
+    }
+
+    @Operation(
+            summary = "Estatisticas de login por hora",
+            description = """
+                    Logins bem-sucedidos, falhos e contas bloqueadas por hora e por role.
+                    `from` e inclusivo e `to` exclusivo; sem parametros, as ultimas 24 horas.
+                    Intervalo maximo de 92 dias. A hora corrente e atualizada a cada ciclo do gravador de auditoria.
+                    """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Linhas do rollup em ordem cronologica"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Intervalo invalido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "bad-request", value = BAD_REQUEST_RESPONSE)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Usuario autenticado sem permissao administrativa",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "forbidden", value = FORBIDDEN_RESPONSE)
+                    )
+            )
+    })
+    @GetMapping("/login-stats")
+    public ResponseEntity<List<LoginStatsHourlyDTO>> loginStats(
+            @Parameter(description = "Inicio do intervalo (inclusivo, truncado para a hora)", example = "2026-03-15T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Fim do intervalo (exclusivo)", example = "2026-03-16T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @Parameter(description = "Role do usuario (USER, ADMIN, MODERATOR ou UNKNOWN)", example = "USER")
+            @RequestParam(required = false) String role) {
+
+        return ResponseEntity.ok(loginStatsQueryService.hourly(from, to, role));
+    }
+}
@@ -8,7 +8,6 @@ import com.nebula.userService.dto.UserPermissionUpdateDTO;
 import com.nebula.userService.dto.UserRequestDTO;
 import com.nebula.userService.dto.UserResponseDTO;
 import com.nebula.userService.dto.UserUpdateDTO;
-import com.nebula.userService.service.RateLimitService;
 import com.nebula.userService.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -42,7 +41,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.time.LocalDateTime;
 
 import static com.nebula.userService.configs.OpenApiExamples.BAD_REQUEST_RESPONSE;
 import static com.nebula.userService.configs.OpenApiExamples.CHANGE_PASSWORD_REQUEST;
@@ -77,7 +75,6 @@ import static com.nebula.userService.configs.OpenApiExamples.USER_RESPONSE;
 public class UserController {
 
     private final UserService userService;
-    private final RateLimitService rateLimitService;
 
     @Operation(
             summary = "Criar novo usuario",
@@ -137,7 +134,7 @@ public class UserController {
             ),
             @ApiResponse(
                     responseCode = "429",
-                    description = "Limite de requisicoes excedido para criacao de usuario",
+                    description = "Limite de requisicoes excedido (rate limiting por IP, aplicado antes do controller)",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponseDTO.class),
@@ -146,22 +143,7 @@ public class UserController {
             )
     })
     @PostMapping("/createUser")
-    public ResponseEntity<?> createUser(
-            @Valid @RequestBody UserRequestDTO userRequestDTO,
-            HttpServletRequest request) {
-
-        String clientIp = getClientIp(request);
-        if (!rateLimitService.tryConsume(clientIp)) {
-            ErrorResponseDTO error = ErrorResponseDTO.builder()
-                    .status(HttpStatus.TOO_MANY_REQUESTS.value())
-                    .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
-                    .message("Limite de requisicoes excedido para criacao de usuario. Tente novamente em instantes.")
-                    .path(request.getRequestURI())
-                    .timestamp(LocalDateTime.now())
-                    .build();
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
-        }
-
+    public ResponseEntity<?> createUser(@Valid @RequestBody UserRequestDTO userRequestDTO) {
         log.info("Recebendo requisicao para criar usuario: {}", userRequestDTO.getEmail());
         UserResponseDTO createdUser = userService.createUser(userRequestDTO);
         log.info("Usuario criado com sucesso: ID {}", createdUser.getId());
@@ -0,0 +1,161 @@
+package com.nebula.userService.controller;
+
+import com.nebula.userService.dto.ErrorResponseDTO;
+import com.nebula.userService.dto.WebhookSubscriptionRequestDTO;
+import com.nebula.userService.dto.WebhookSubscriptionResponseDTO;
+import com.nebula.userService.service.WebhookSubscriptionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.nebula.userService.configs.OpenApiExamples.BAD_REQUEST_RESPONSE;
+import static com.nebula.userService.configs.OpenApiExamples.FORBIDDEN_RESPONSE;
+import static com.nebula.userService.configs.OpenApiExamples.NOT_FOUND_RESPONSE;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(
+        name = "Webhooks (admin)",
+        description = """
+                Gerenciamento das assinaturas de webhook por tipo de evento.
+
+                Regras gerais:
+                - todos os endpoints exigem role `ADMIN`
+                - cada assinatura recebe apenas os tipos de evento listados (`*` recebe todos)
+                - com `secret`, cada entrega leva `X-Webhook-Timestamp` e
+                  `X-Webhook-Signature: sha256=<hex>` (HMAC-SHA256 de `<timestamp>.<corpo>`)
+                - alteracoes valem em todos os nos em instantes
+                """
+)
+@RequestMapping("/api/admin/webhooks")
+public class WebhookAdminController {
+
+    private final WebhookSubscriptionService webhookSubscriptionService;
+
+    @Operation(summary = "Listar assinaturas de webhook", security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Assinaturas cadastradas"),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Usuario autenticado sem permissao administrativa",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "forbidden", value = FORBIDDEN_RESPONSE)
+                    )
+            )
+    })
+    @GetMapping
+    public ResponseEntity<List<WebhookSubscriptionResponseDTO>> listSubscriptions() {
+        return ResponseEntity.ok(webhookSubscriptionService.listSubscriptions());
+    }
+
+    @Operation(summary = "Buscar assinatura de webhook por ID", security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Assinatura encontrada"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Assinatura nao encontrada",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "not-found", value = NOT_FOUND_RESPONSE)
+                    )
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<WebhookSubscriptionResponseDTO> getSubscription(
+            @Parameter(description = "ID da assinatura", example = "1", required = true)
+            @PathVariable Long id) {
+        return ResponseEntity.ok(webhookSubscriptionService.getSubscription(id));
+    }
+
+    @Operation(summary = "Criar assinatura de webhook", security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Assinatura criada"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Payload invalido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "bad-request", value = BAD_REQUEST_RESPONSE)
+                    )
+            )
+    })
+    @PostMapping
+    public ResponseEntity<WebhookSubscriptionResponseDTO> createSubscription(
+            @Valid @RequestBody WebhookSubscriptionRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(webhookSubscriptionService.createSubscription(request));
+    }
+
+    @Operation(
+            summary = "Atualizar assinatura de webhook",
+            description = "Substitui URL, tipos de evento e status. `secret` omitido mantem o segredo atual.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Assinatura atualizada"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Assinatura nao encontrada",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "not-found", value = NOT_FOUND_RESPONSE)
+                    )
+            )
+    })
+    @PutMapping("/{id}")
+    public ResponseEntity<WebhookSubscriptionResponseDTO> updateSubscription(
+            @Parameter(description = "ID da assinatura", example = "1", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody WebhookSubscriptionRequestDTO request) {
+        return ResponseEntity.ok(webhookSubscriptionService.updateSubscription(id, request));
+    }
+
+    @Operation(
+            summary = "Remover assinatura de webhook",
+            description = "Eventos ainda pendentes para a assinatura sao descartados.",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Assinatura removida"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Assinatura nao encontrada",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(name = "not-found", value = NOT_FOUND_RESPONSE)
+                    )
+            )
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSubscription(
+            @Parameter(description = "ID da assinatura", example = "1", required = true)
+            @PathVariable Long id) {
+        webhookSubscriptionService.deleteSubscription(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.nebula.userService.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais da consulta ao log de auditoria. Campos nulos não filtram;
+ * {@code from} é inclusivo e {@code to} exclusivo.
+ */
+@Getter
+@Builder
+public class AuditLogFilterDTO {
+
+    private Long userId;
+    private String action;
+    private String entity;
+    private Long entityId;
+    private String ipAddress;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
@@ -0,0 +1,22 @@
+package com.nebula.userService.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Pagina do log de auditoria, paginada por cursor (sem total de registros).")
+public class AuditLogPageDTO {
+
+    @Schema(description = "Registros da pagina, do mais recente para o mais antigo")
+    private List<AuditLogResponseDTO> items;
+
+    @Schema(description = "Cursor da proxima pagina; nulo quando nao ha mais registros",
+            example = "MjAyNi0wMy0xNVQxMDowMDowMC4xMjN8MTA0NTI")
+    private String nextCursor;
+}
@@ -0,0 +1,48 @@
+package com.nebula.userService.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Registro do log de auditoria.")
+public class AuditLogResponseDTO {
+
+    @Schema(description = "Identificador do registro", example = "10452")
+    private Long id;
+
+    @Schema(description = "ID do usuário que executou a ação (nulo = sistema ou usuário removido)", example = "7")
+    private Long userId;
+
+    @Schema(description = "Username do usuário que executou a ação", example = "joao.silva")
+    private String username;
+
+    @Schema(description = "Ação executada", example = "LOGIN_FAILED")
+    private String action;
+
+    @Schema(description = "Entidade afetada", example = "User")
+    private String entity;
+
+    @Schema(description = "ID da entidade afetada", example = "7")
+    private Long entityId;
+
+    @Schema(description = "Detalhe em texto livre", example = "Tentativa 1 de 5")
+    private String detail;
+
+    @Schema(description = "IP de origem", example = "192.168.0.21")
+    private String ipAddress;
+
+    @Schema(description = "Data/hora do registro (ultima ocorrencia, quando agregado)")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Quantidade de ocorrencias agregadas neste registro", example = "1")
+    private int occurrences;
+
+    @Schema(description = "Primeira ocorrencia agregada (nulo quando occurrences = 1)")
+    private LocalDateTime firstOccurredAt;
+}
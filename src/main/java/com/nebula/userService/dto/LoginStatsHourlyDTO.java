@@ -0,0 +1,30 @@
+package com.nebula.userService.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Contadores de login de uma hora para uma role.")
+public class LoginStatsHourlyDTO {
+
+    @Schema(description = "Inicio da hora", example = "2026-03-15T10:00:00")
+    private LocalDateTime hour;
+
+    @Schema(description = "Role do usuario (UNKNOWN = username inexistente)", example = "USER")
+    private String role;
+
+    @Schema(description = "Logins bem-sucedidos", example = "1280")
+    private long succeeded;
+
+    @Schema(description = "Logins com falha", example = "37")
+    private long failed;
+
+    @Schema(description = "Contas bloqueadas por excesso de falhas", example = "2")
+    private long locked;
+}
@@ -0,0 +1,29 @@
+package com.nebula.userService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado mínimo de uma sessão usado na checagem por requisição.
+ * Projeção direta da query (sem carregar UserEntity nem suas permissões).
+ */
+@Getter
+@AllArgsConstructor
+public class SessionStateDTO {
+
+    private boolean revoked;
+
+    private String username;
+
+    private LocalDateTime expiresAt;
+
+    /** Sessão não revogada, não expirada e pertencente ao usuário informado. */
+    public boolean isActiveFor(String expectedUsername) {
+        return !revoked
+                && expiresAt != null
+                && expiresAt.isAfter(LocalDateTime.now())
+                && username.equals(expectedUsername);
+    }
+}
@@ -36,12 +36,17 @@ public class UserSessionDTO {
     private boolean revoked;
 
     public static UserSessionDTO fromEntity(UserSessionEntity entity) {
+        return fromEntity(entity, entity.getLastSeenAt());
+    }
+
+    /** Variante que usa um lastSeenAt mais recente ainda não persistido. */
+    public static UserSessionDTO fromEntity(UserSessionEntity entity, LocalDateTime lastSeenAt) {
         return new UserSessionDTO(
                 entity.getSessionId(),
                 entity.getIpAddress(),
                 entity.getUserAgent(),
                 entity.getCreatedAt(),
-                entity.getLastSeenAt(),
+                lastSeenAt,
                 entity.getExpiresAt(),
                 entity.isRevoked()
         );
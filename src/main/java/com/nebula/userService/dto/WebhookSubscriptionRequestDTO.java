@@ -0,0 +1,38 @@
+package com.nebula.userService.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Payload para criar ou atualizar uma assinatura de webhook.")
+public class WebhookSubscriptionRequestDTO {
+
+    @NotBlank(message = "URL é obrigatória")
+    @Size(max = 2048, message = "URL deve ter no máximo 2048 caracteres")
+    @Pattern(regexp = "^https?://.+", message = "URL deve começar com http:// ou https://")
+    @Schema(description = "URL que recebe os eventos via POST", example = "https://hooks.empresa.com/usuarios")
+    private String url;
+
+    @NotEmpty(message = "Informe ao menos um tipo de evento")
+    @Schema(description = "Tipos de evento assinados; \"*\" recebe todos",
+            example = "[\"USER_CREATED\", \"USER_DELETED\"]")
+    private List<@Pattern(regexp = "^(\\*|[A-Z_]+)$", message = "Tipo de evento inválido") String> eventTypes;
+
+    @Size(min = 16, max = 255, message = "Segredo deve ter entre 16 e 255 caracteres")
+    @Schema(description = "Segredo para assinatura HMAC-SHA256 (cabeçalho X-Webhook-Signature). Opcional.",
+            example = "s3gr3d0-compartilhado-do-receptor")
+    private String secret;
+
+    @Schema(description = "Assinatura ativa", example = "true", defaultValue = "true")
+    private Boolean enabled;
+}
@@ -0,0 +1,49 @@
+package com.nebula.userService.dto;
+
+import com.nebula.userService.entities.WebhookSubscriptionEntity;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Assinatura de webhook (o segredo nunca é devolvido).")
+public class WebhookSubscriptionResponseDTO {
+
+    @Schema(description = "Identificador da assinatura", example = "1")
+    private Long id;
+
+    @Schema(description = "URL que recebe os eventos", example = "https://hooks.empresa.com/usuarios")
+    private String url;
+
+    @Schema(description = "Tipos de evento assinados", example = "[\"USER_CREATED\", \"USER_DELETED\"]")
+    private List<String> eventTypes;
+
+    @Schema(description = "Indica se as entregas são assinadas com HMAC", example = "true")
+    private boolean signed;
+
+    @Schema(description = "Assinatura ativa", example = "true")
+    private boolean enabled;
+
+    @Schema(description = "Data/hora de criação")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Data/hora da última alteração")
+    private LocalDateTime updatedAt;
+
+    public static WebhookSubscriptionResponseDTO fromEntity(WebhookSubscriptionEntity entity) {
+        return new WebhookSubscriptionResponseDTO(
+                entity.getId(),
+                entity.getUrl(),
+                entity.eventTypeList(),
+                entity.getSecret() != null && !entity.getSecret().isBlank(),
+                entity.isEnabled(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt());
+    }
+}
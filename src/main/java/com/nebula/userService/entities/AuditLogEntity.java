@@ -49,6 +49,16 @@ public class AuditLogEntity {
     @Column(name = "ip_address", length = 50)
     private String ipAddress;
 
+    /** Quantidade de ocorrências agregadas nesta linha (falhas de login repetidas). */
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer occurrences = 1;
+
+    /** Primeira ocorrência agregada; nulo quando {@code occurrences = 1}. */
+    @Column(name = "first_occurred_at")
+    private LocalDateTime firstOccurredAt;
+
+    /** Data/hora do registro (última ocorrência, quando agregado). */
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
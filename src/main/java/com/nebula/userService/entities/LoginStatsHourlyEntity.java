@@ -0,0 +1,51 @@
+package com.nebula.userService.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Rollup de logins por hora e por role. Escrito só por upsert (LoginStatsRollup) e lido por
+ * JdbcTemplate; a entidade existe para o schema gerado pelo Hibernate em dev/test.
+ */
+@Entity
+@Table(name = "login_stats_hourly")
+@IdClass(LoginStatsHourlyEntity.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Contadores de login de uma hora para uma role.")
+public class LoginStatsHourlyEntity {
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(nullable = false, length = 20)
+    private String role;
+
+    @Column(nullable = false)
+    private long succeeded;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(nullable = false)
+    private long locked;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDateTime bucketStart;
+        private String role;
+    }
+}
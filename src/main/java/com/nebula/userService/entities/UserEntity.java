@@ -110,6 +110,12 @@ public class UserEntity {
             accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime lockedUntil;
 
+    /** Tentativas falhas consecutivas que bloqueiam a conta. */
+    public static final int MAX_FAILED_ATTEMPTS = 5;
+
+    /** Duração do bloqueio após atingir {@link #MAX_FAILED_ATTEMPTS}. */
+    public static final int LOCK_MINUTES = 15;
+
     /** Verifica se a conta está bloqueada no momento. */
     public boolean isLocked() {
         return lockedUntil != null && lockedUntil.isAfter(LocalDateTime.now());
@@ -118,8 +124,8 @@ public class UserEntity {
     /** Registra uma tentativa falha e bloqueia após 5 tentativas (15 min). */
     public void registerFailedAttempt() {
         this.failedAttempts = (this.failedAttempts == null ? 0 : this.failedAttempts) + 1;
-        if (this.failedAttempts >= 5) {
-            this.lockedUntil = LocalDateTime.now().plusMinutes(15);
+        if (this.failedAttempts >= MAX_FAILED_ATTEMPTS) {
+            this.lockedUntil = LocalDateTime.now().plusMinutes(LOCK_MINUTES);
         }
     }
 
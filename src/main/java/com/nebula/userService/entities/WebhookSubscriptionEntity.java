@@ -0,0 +1,68 @@
+package com.nebula.userService.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@Entity
+@Table(name = "webhook_subscriptions")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Assinatura de webhook: URL que recebe os tipos de evento listados.")
+public class WebhookSubscriptionEntity {
+
+    /** Tipo de evento curinga: a assinatura recebe todos os eventos. */
+    public static final String ALL_EVENTS = "*";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    /** Tipos de evento separados por vírgula (ex.: "USER_CREATED,USER_DELETED") ou "*". */
+    @Column(name = "event_types", nullable = false, length = 1000)
+    private String eventTypes;
+
+    @Column(length = 255)
+    private String secret;
+
+    @Column(nullable = false)
+    private boolean enabled;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public List<String> eventTypeList() {
+        return Arrays.stream(eventTypes.split(","))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .toList();
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
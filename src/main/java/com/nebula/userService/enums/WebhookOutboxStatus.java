@@ -0,0 +1,7 @@
+package com.nebula.userService.enums;
+
+public enum WebhookOutboxStatus {
+    PENDING,
+    DELIVERED,
+    DEAD
+}
@@ -0,0 +1,22 @@
+package com.nebula.userService.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Recurso interno saturado (ex.: fila de hashing de senha cheia).
+ * Respondida com 503 e cabeçalho Retry-After.
+ */
+@Getter
+public class ServiceOverloadedException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(
+                message,
+                "SERVICE_OVERLOADED",
+                HttpStatus.SERVICE_UNAVAILABLE
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
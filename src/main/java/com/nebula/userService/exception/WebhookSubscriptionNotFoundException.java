@@ -0,0 +1,14 @@
+package com.nebula.userService.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class WebhookSubscriptionNotFoundException extends BusinessException {
+
+    public WebhookSubscriptionNotFoundException(Long id) {
+        super(
+                String.format("Assinatura de webhook não encontrada com ID: %d", id),
+                "WEBHOOK_SUBSCRIPTION_NOT_FOUND",
+                HttpStatus.NOT_FOUND
+        );
+    }
+}
@@ -2,10 +2,12 @@ package com.nebula.userService.handler;
 
 import com.nebula.userService.dto.ErrorResponseDTO;
 import com.nebula.userService.exception.BusinessException;
+import com.nebula.userService.exception.ServiceOverloadedException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationServiceException;
@@ -34,6 +36,21 @@ public class GlobalExceptionHandler {
         return buildResponse(ex.getStatus(), ex.getStatus().getReasonPhrase(), ex.getMessage(), request);
     }
 
+    /**
+     * Sobrecarga interna (fila de hashing de senha cheia): 503 com Retry-After
+     * para que clientes e balanceadores recuem em vez de insistir.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleServiceOverloadedException(
+            ServiceOverloadedException ex, HttpServletRequest request) {
+        log.warn("Service overloaded at {}: {}", request.getRequestURI(), ex.getMessage());
+        ResponseEntity<ErrorResponseDTO> response = buildResponse(
+                ex.getStatus(), ex.getStatus().getReasonPhrase(), ex.getMessage(), request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponseDTO> handleEntityNotFoundException(
             EntityNotFoundException ex, HttpServletRequest request) {
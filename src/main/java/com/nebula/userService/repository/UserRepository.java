@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
@@ -38,4 +39,28 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     // Busca por email (retorna Optional)
     Optional<UserEntity> findByEmail(String email);
 
+    // Login: usuário + permissões em um único SELECT (evita o select extra da coleção EAGER)
+    @Query("SELECT u FROM UserEntity u LEFT JOIN FETCH u.permissions WHERE u.username = :username")
+    Optional<UserEntity> findForLogin(@Param("username") String username);
+
+    // Login bem-sucedido: zera falhas, remove bloqueio e registra o horário em um único UPDATE
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.failedAttempts = 0, u.lockedUntil = NULL, u.lastLoginAt = :now " +
+            "WHERE u.id = :id")
+    int registerSuccessfulLogin(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Transição para bloqueado (contagem de falhas fica no Redis)
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.lockedUntil = :lockedUntil WHERE u.id = :id")
+    int lockUntil(@Param("id") Long id, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Falha de login sem Redis: incremento atômico no banco; bloqueia ao atingir o limite
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.failedAttempts = u.failedAttempts + 1, " +
+            "u.lockedUntil = CASE WHEN u.failedAttempts + 1 >= :maxAttempts THEN :lockUntil ELSE u.lockedUntil END " +
+            "WHERE u.id = :id")
+    int registerFailedAttempt(@Param("id") Long id,
+                              @Param("maxAttempts") int maxAttempts,
+                              @Param("lockUntil") LocalDateTime lockUntil);
+
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nebula.userService.repository;
 
+import com.nebula.userService.dto.SessionStateDTO;
 import com.nebula.userService.entities.UserSessionEntity;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,6 +19,11 @@ public interface UserSessionRepository extends JpaRepository<UserSessionEntity,
 
     Optional<UserSessionEntity> findBySessionId(String sessionId);
 
+    /** Carrega só o estado da sessão, sem materializar o usuário (e suas permissões EAGER). */
+    @Query("SELECT new com.nebula.userService.dto.SessionStateDTO(s.revoked, u.username, s.expiresAt) " +
+           "FROM UserSessionEntity s JOIN s.user u WHERE s.sessionId = :sessionId")
+    Optional<SessionStateDTO> findStateBySessionId(@Param("sessionId") String sessionId);
+
     @Modifying
     @Transactional
     @Query("UPDATE UserSessionEntity s SET s.revoked = TRUE WHERE s.user.id = :userId AND s.revoked = FALSE")
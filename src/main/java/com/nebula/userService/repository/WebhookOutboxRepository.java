@@ -0,0 +1,64 @@
+package com.nebula.userService.repository;
+
+import com.nebula.userService.entities.WebhookOutboxEntity;
+import com.nebula.userService.enums.WebhookOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxEntity, Long> {
+
+    /**
+     * Eventos pendentes vencidos, travados com FOR UPDATE SKIP LOCKED (lock timeout -2):
+     * várias instâncias do dispatcher reivindicam lotes disjuntos sem se bloquear.
+     * Deve ser chamado dentro de uma transação.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM WebhookOutboxEntity o " +
+           "WHERE o.status = com.nebula.userService.enums.WebhookOutboxStatus.PENDING AND o.nextAttemptAt <= :now " +
+           "ORDER BY o.nextAttemptAt")
+    List<WebhookOutboxEntity> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEntity o SET o.status = com.nebula.userService.enums.WebhookOutboxStatus.DELIVERED, " +
+           "o.attempts = o.attempts + 1, o.deliveredAt = :now, o.lastError = NULL WHERE o.id = :id")
+    int markDelivered(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEntity o SET o.status = com.nebula.userService.enums.WebhookOutboxStatus.DELIVERED, " +
+           "o.attempts = o.attempts + 1, o.deliveredAt = :now, o.lastError = NULL WHERE o.id IN :ids")
+    int markAllDelivered(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookOutboxEntity o SET o.status = :status, o.attempts = :attempts, " +
+           "o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") WebhookOutboxStatus status,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WebhookOutboxEntity o WHERE o.status = :status AND o.createdAt < :before")
+    int deleteByStatusAndCreatedAtBefore(@Param("status") WebhookOutboxStatus status,
+                                         @Param("before") LocalDateTime before);
+
+    long countByStatus(WebhookOutboxStatus status);
+}
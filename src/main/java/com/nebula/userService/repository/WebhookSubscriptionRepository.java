@@ -0,0 +1,13 @@
+package com.nebula.userService.repository;
+
+import com.nebula.userService.entities.WebhookSubscriptionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscriptionEntity, Long> {
+
+    List<WebhookSubscriptionEntity> findByEnabledTrue();
+}
@@ -0,0 +1,21 @@
+package com.nebula.userService.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de auditoria imutável, capturado no momento da ação e gravado depois pelo
+ * {@link AuditLogWriter}. Guarda só o id e a role do usuário, nunca a entidade JPA;
+ * a role não vai para o {@code audit_log}, só alimenta o {@link LoginStatsRollup}.
+ *
+ * Eventos agregados ({@link LoginFailureAggregator}) têm {@code occurrences > 1},
+ * {@code firstOccurredAt} na primeira ocorrência e {@code createdAt} na última.
+ */
+record AuditEvent(String action, Long userId, String role, String entity, Long entityId,
+                  String detail, String ipAddress, LocalDateTime createdAt,
+                  int occurrences, LocalDateTime firstOccurredAt) {
+
+    AuditEvent(String action, Long userId, String role, String entity, Long entityId,
+               String detail, String ipAddress, LocalDateTime createdAt) {
+        this(action, userId, role, entity, entityId, detail, ipAddress, createdAt, 1, null);
+    }
+}
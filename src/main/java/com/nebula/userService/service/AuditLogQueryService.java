@@ -0,0 +1,132 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.dto.AuditLogFilterDTO;
+import com.nebula.userService.dto.AuditLogPageDTO;
+import com.nebula.userService.dto.AuditLogResponseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Consulta do log de auditoria com paginação por cursor (keyset) em {@code (created_at, id)}.
+ *
+ * Cada página continua a partir do último registro da anterior com
+ * {@code (created_at, id) < (?, ?)}, sempre na ordem dos índices compostos da V8 —
+ * páginas profundas custam o mesmo que a primeira e não há COUNT(*).
+ * O cursor é opaco para o cliente (Base64 URL de {@code created_at|id}).
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditLogQueryService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private static final String SELECT = """
+            SELECT a.id, a.user_id, u.username, a.action, a.entity, a.entity_id,
+                   a.detail, a.ip_address, a.created_at, a.occurrences, a.first_occurred_at
+              FROM audit_log a
+              LEFT JOIN users u ON u.id = a.user_id
+             WHERE 1 = 1
+            """;
+
+    private static final RowMapper<AuditLogResponseDTO> ROW_MAPPER = (rs, rowNum) -> new AuditLogResponseDTO(
+            rs.getLong("id"),
+            rs.getObject("user_id", Long.class),
+            rs.getString("username"),
+            rs.getString("action"),
+            rs.getString("entity"),
+            rs.getObject("entity_id", Long.class),
+            rs.getString("detail"),
+            rs.getString("ip_address"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getInt("occurrences"),
+            toLocalDateTime(rs.getTimestamp("first_occurred_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Busca uma página do log, do registro mais recente para o mais antigo.
+     *
+     * @param filter filtros opcionais
+     * @param cursor {@code nextCursor} da página anterior, ou nulo para a primeira
+     * @param limit  tamanho da página (1 a {@value #MAX_LIMIT})
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    public AuditLogPageDTO search(AuditLogFilterDTO filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+
+        appendFilter(sql, args, "a.user_id = ?", filter.getUserId());
+        appendFilter(sql, args, "a.action = ?", filter.getAction());
+        appendFilter(sql, args, "a.entity = ?", filter.getEntity());
+        appendFilter(sql, args, "a.entity_id = ?", filter.getEntityId());
+        appendFilter(sql, args, "a.ip_address = ?", filter.getIpAddress());
+        appendFilter(sql, args, "a.created_at >= ?", toTimestamp(filter.getFrom()));
+        appendFilter(sql, args, "a.created_at < ?", toTimestamp(filter.getTo()));
+
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = decodeCursor(cursor);
+            sql.append("   AND (a.created_at, a.id) < (?, ?)\n");
+            args.add(Timestamp.valueOf(position.createdAt()));
+            args.add(position.id());
+        }
+
+        // Um registro a mais indica se existe próxima página
+        sql.append(" ORDER BY a.created_at DESC, a.id DESC\n LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<AuditLogResponseDTO> rows = jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+        if (rows.size() <= pageSize) {
+            return new AuditLogPageDTO(rows, null);
+        }
+        List<AuditLogResponseDTO> page = rows.subList(0, pageSize);
+        AuditLogResponseDTO last = page.get(pageSize - 1);
+        return new AuditLogPageDTO(List.copyOf(page), encodeCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+    }
+
+    private static void appendFilter(StringBuilder sql, List<Object> args, String condition, Object value) {
+        if (value == null || (value instanceof String text && text.isBlank())) {
+            return;
+        }
+        sql.append("   AND ").append(condition).append('\n');
+        args.add(value);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp value) {
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    record Cursor(LocalDateTime createdAt, long id) {
+    }
+}
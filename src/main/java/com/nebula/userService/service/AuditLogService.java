@@ -1,23 +1,26 @@
 package com.nebula.userService.service;
 
-import com.nebula.userService.entities.AuditLogEntity;
 import com.nebula.userService.entities.UserEntity;
-import com.nebula.userService.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 /**
- * Serviço de auditoria — registra ações sensíveis de forma assíncrona
- * para não impactar a latência das requisições principais.
+ * Serviço de auditoria — registra ações sensíveis fora do caminho da requisição.
+ *
+ * {@code log} apenas captura o evento (horário incluído) e o entrega ao
+ * {@link AuditLogWriter}, que grava em lote numa thread própria. Falhas de login
+ * passam antes pelo {@link LoginFailureAggregator}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuditLogService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final LoginFailureAggregator loginFailureAggregator;
 
     // ─── Constantes de ação ───────────────────────────────────────────────────
 
@@ -34,19 +37,11 @@ public class AuditLogService {
 
     // ─── Métodos de registro ──────────────────────────────────────────────────
 
-    @Async
     public void log(String action, UserEntity actor, String entity, Long entityId,
                     String detail, String ipAddress) {
         try {
-            AuditLogEntity entry = AuditLogEntity.builder()
-                    .action(action)
-                    .user(actor)
-                    .entity(entity)
-                    .entityId(entityId)
-                    .detail(detail)
-                    .ipAddress(ipAddress)
-                    .build();
-            auditLogRepository.save(entry);
+            auditLogWriter.enqueue(new AuditEvent(action, actor != null ? actor.getId() : null, roleOf(actor),
+                    entity, entityId, detail, ipAddress, LocalDateTime.now()));
         } catch (Exception e) {
             // Auditoria nunca deve quebrar o fluxo principal
             log.error("Falha ao registrar audit log. action={}, error={}", action, e.getMessage());
@@ -54,14 +49,31 @@ public class AuditLogService {
     }
 
     /** Atalho para ações sem entidade específica (ex: login, logout). */
-    @Async
     public void log(String action, UserEntity actor, String detail, String ipAddress) {
         log(action, actor, null, null, detail, ipAddress);
     }
 
     /** Atalho para ações de sistema sem usuário (ex: tentativa com username inexistente). */
-    @Async
     public void log(String action, String detail, String ipAddress) {
         log(action, null, null, null, detail, ipAddress);
     }
+
+    /**
+     * Registra um {@link #LOGIN_FAILED}. Tentativas repetidas do mesmo username e IP
+     * viram uma única linha por janela, com a contagem em {@code occurrences}.
+     *
+     * @param actor usuário da tentativa, ou {@code null} se o username não existe
+     */
+    public void logLoginFailure(String username, UserEntity actor, String detail, String ipAddress) {
+        try {
+            loginFailureAggregator.record(LOGIN_FAILED, username, actor != null ? actor.getId() : null,
+                    roleOf(actor), detail, ipAddress);
+        } catch (Exception e) {
+            log.error("Falha ao registrar audit log. action={}, error={}", LOGIN_FAILED, e.getMessage());
+        }
+    }
+
+    private static String roleOf(UserEntity actor) {
+        return actor != null && actor.getRole() != null ? actor.getRole().name() : null;
+    }
 }
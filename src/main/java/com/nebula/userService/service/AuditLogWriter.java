@@ -0,0 +1,369 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gravação em lote do {@code audit_log}.
+ *
+ * Os eventos entram num {@link AuditRingBuffer} de capacidade fixa
+ * ({@code audit.buffer.capacity}); uma única thread esvazia a fila a cada
+ * {@code audit.writer.flush-interval-ms} ou assim que houver {@code audit.writer.batch-size}
+ * eventos, com um INSERT de várias linhas por lote. Memória e threads ficam limitadas
+ * independentemente do volume de requisições.
+ *
+ * Fila cheia segue {@code audit.buffer.overflow}: {@code BLOCK} espera até
+ * {@code audit.buffer.block-timeout-ms} pela thread gravadora e só então descarta;
+ * {@code DROP} descarta na hora; {@code SPILL} (padrão) passa o evento para uma segunda fila
+ * do mesmo tamanho, que a thread gravadora anexa ao {@link AuditSpillLog} — quem chama nunca
+ * toca no disco nem disputa o lock do spill com o {@code force()}. Descartes (as duas filas
+ * cheias ou spill sem espaço) são contados em {@code audit.events.dropped}.
+ *
+ * Se o INSERT falhar, o lote vai para o spill em disco e o banco só é tentado de novo após
+ * {@code audit.writer.db-retry-interval-ms}; com o banco de volta, a mesma thread regrava os
+ * segmentos pendentes, depois dos eventos novos de cada ciclo. Sem spill, o lote tem uma
+ * única nova tentativa no ciclo seguinte.
+ *
+ * Cada lote gravado também alimenta o {@link LoginStatsRollup}, aplicado no fim de cada ciclo.
+ */
+@Slf4j
+@Component
+class AuditLogWriter implements MeterBinder {
+
+    enum OverflowPolicy { BLOCK, DROP, SPILL }
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_log (user_id, action, entity, entity_id, detail, ip_address, created_at, "
+                    + "occurrences, first_occurred_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /** O PostgreSQL aceita até 32767 parâmetros por comando; 9 por linha. */
+    private static final int MAX_ROWS_PER_INSERT = 3600;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    /** Lotes do spill regravados por ciclo, para não atrasar os eventos novos. */
+    private static final int REPLAY_BATCHES_PER_CYCLE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditSpillLog spillLog;
+    private final LoginStatsRollup loginStatsRollup;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    /** Só com {@code SPILL}: excedente da fila, levado ao spill pela thread gravadora. */
+    private final AuditRingBuffer<AuditEvent> overflow;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long databaseRetryIntervalNanos;
+    private final String fullBatchSql;
+
+    /** Sem espaço no spill: lotes que falharam, gravados uma única vez mais no próximo ciclo. */
+    private final List<AuditEvent> retries = new ArrayList<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong droppedOnOverflow = new AtomicLong();
+    private final AtomicLong droppedOnError = new AtomicLong();
+
+    /** Instante (nanoTime) a partir do qual o banco volta a ser tentado; 0 = disponível. */
+    private volatile long databaseRetryAt;
+    private volatile Thread drainer;
+    private volatile boolean running;
+    private volatile Timer flushTimer;
+
+    AuditLogWriter(JdbcTemplate jdbcTemplate,
+                   AuditSpillLog spillLog,
+                   LoginStatsRollup loginStatsRollup,
+                   @Value("${audit.buffer.capacity:8192}") int capacity,
+                   @Value("${audit.buffer.overflow:SPILL}") OverflowPolicy overflowPolicy,
+                   @Value("${audit.buffer.block-timeout-ms:50}") long blockTimeoutMs,
+                   @Value("${audit.writer.batch-size:500}") int batchSize,
+                   @Value("${audit.writer.flush-interval-ms:200}") long flushIntervalMs,
+                   @Value("${audit.writer.db-retry-interval-ms:5000}") long databaseRetryIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.spillLog = spillLog;
+        this.loginStatsRollup = loginStatsRollup;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.overflow = overflowPolicy == OverflowPolicy.SPILL ? new AuditRingBuffer<>(capacity) : null;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_ROWS_PER_INSERT));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.databaseRetryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(databaseRetryIntervalMs);
+        this.fullBatchSql = insertSql(this.batchSize);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Eventos de auditoria aguardando gravação")
+                .register(registry);
+        if (overflow != null) {
+            Gauge.builder("audit.buffer.overflow.size", overflow, AuditRingBuffer::size)
+                    .description("Eventos excedentes aguardando a thread gravadora levar ao spill")
+                    .register(registry);
+        }
+        FunctionCounter.builder("audit.events.written", written, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("audit.events.dropped", droppedOnOverflow, AtomicLong::get)
+                .tag("reason", "overflow")
+                .register(registry);
+        FunctionCounter.builder("audit.events.dropped", droppedOnError, AtomicLong::get)
+                .tag("reason", "error")
+                .register(registry);
+        flushTimer = Timer.builder("audit.writer.batch")
+                .description("Duração de um INSERT em lote no audit_log")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "audit-writer");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /** Para a thread gravadora e grava o que ainda estiver na fila. */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        Thread thread = drainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5000);
+        }
+        flush();
+    }
+
+    /** Enfileira o evento sem I/O; nunca lança exceção para quem chama. */
+    void enqueue(AuditEvent event) {
+        if (buffer.offer(event) || (overflowPolicy == OverflowPolicy.BLOCK && offerBlocking(event))) {
+            if (buffer.size() >= batchSize) {
+                wakeDrainer();
+            }
+            return;
+        }
+        if (overflow != null && overflow.offer(event)) {
+            wakeDrainer();
+            return;
+        }
+        long dropped = droppedOnOverflow.incrementAndGet();
+        if (dropped % 1000 == 1) {
+            log.warn("Fila de auditoria cheia; {} eventos descartados ate agora (action={})", dropped, event.action());
+        }
+    }
+
+    /**
+     * Grava tudo o que estiver na fila, em lotes de até {@code batch-size} linhas, leva o
+     * excedente ao spill e então regrava parte do spill em disco, se o banco estiver disponível.
+     *
+     * @return quantidade de eventos gravados
+     */
+    synchronized int flush() {
+        int count = 0;
+        if (!retries.isEmpty()) {
+            List<AuditEvent> pending = new ArrayList<>(retries);
+            retries.clear();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                count += write(pending.subList(from, Math.min(from + batchSize, pending.size())), true);
+            }
+        }
+
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            count += write(batch, false);
+            batch.clear();
+        }
+        if (overflow != null) {
+            while (overflow.drainTo(batch, batchSize) > 0) {
+                spillOverflow(batch);
+                batch.clear();
+            }
+        }
+
+        if (spillLog.isEnabled()) {
+            spillLog.sync();
+            if (databaseAvailable()) {
+                count += spillLog.replay(batchSize, REPLAY_BATCHES_PER_CYCLE, this::replayBatch);
+            }
+        }
+        if (databaseAvailable()) {
+            loginStatsRollup.flush();
+        }
+        written.addAndGet(count);
+        return count;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            boolean replayPending = spillLog.hasPending() && databaseAvailable();
+            if (buffer.size() < batchSize && !replayPending) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Falha inesperada ao gravar audit log: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean offerBlocking(AuditEvent event) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            wakeDrainer();
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void spillOverflow(List<AuditEvent> events) {
+        if (spillLog.append(events)) {
+            return;
+        }
+        long dropped = droppedOnOverflow.addAndGet(events.size());
+        log.warn("Spill de auditoria sem espaco; {} eventos excedentes descartados ({} ate agora)",
+                events.size(), dropped);
+    }
+
+    private void wakeDrainer() {
+        Thread thread = drainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private int write(List<AuditEvent> events, boolean isRetry) {
+        if (!databaseAvailable()) {
+            defer(events, isRetry, "banco indisponivel");
+            return 0;
+        }
+        try {
+            insertRows(events);
+            databaseRetryAt = 0;
+            return events.size();
+        } catch (DataIntegrityViolationException e) {
+            // Uma linha inválida (ex.: usuário ainda não commitado) não derruba o lote inteiro
+            int count = 0;
+            for (AuditEvent event : events) {
+                try {
+                    insertRows(List.of(event));
+                    count++;
+                } catch (DataAccessException rowError) {
+                    defer(List.of(event), isRetry, rowError.getMessage());
+                }
+            }
+            return count;
+        } catch (DataAccessException e) {
+            markDatabaseDown();
+            defer(events, isRetry, e.getMessage());
+            return 0;
+        }
+    }
+
+    /** Regrava um lote do spill; {@code false} mantém o lote no disco para o próximo ciclo. */
+    private boolean replayBatch(List<AuditEvent> events) {
+        try {
+            insertRows(events);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            for (AuditEvent event : events) {
+                try {
+                    insertRows(List.of(event));
+                } catch (DataIntegrityViolationException rowError) {
+                    droppedOnError.incrementAndGet();
+                    log.error("Evento de auditoria do spill descartado. action={}, error={}",
+                            event.action(), rowError.getMessage());
+                } catch (DataAccessException rowError) {
+                    markDatabaseDown();
+                    return false;
+                }
+            }
+            return true;
+        } catch (DataAccessException e) {
+            markDatabaseDown();
+            log.warn("Banco indisponivel ao regravar spill de auditoria: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void defer(List<AuditEvent> events, boolean isRetry, String error) {
+        if (spillLog.append(events)) {
+            log.warn("Falha ao gravar {} eventos de auditoria; enviados ao spill em disco: {}", events.size(), error);
+            return;
+        }
+        if (!isRetry && retries.size() + events.size() <= buffer.capacity()) {
+            retries.addAll(events);
+            log.warn("Falha ao gravar {} eventos de auditoria; nova tentativa no proximo ciclo: {}",
+                    events.size(), error);
+            return;
+        }
+        droppedOnError.addAndGet(events.size());
+        log.error("{} eventos de auditoria descartados apos falha na gravacao: {}", events.size(), error);
+    }
+
+    private boolean databaseAvailable() {
+        return databaseRetryAt == 0 || System.nanoTime() - databaseRetryAt >= 0;
+    }
+
+    private void markDatabaseDown() {
+        databaseRetryAt = System.nanoTime() + databaseRetryIntervalNanos;
+    }
+
+    private void insertRows(List<AuditEvent> events) {
+        String sql = events.size() == batchSize ? fullBatchSql : insertSql(events.size());
+        long start = System.nanoTime();
+        jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (AuditEvent event : events) {
+                ps.setObject(index++, event.userId(), Types.BIGINT);
+                ps.setString(index++, event.action());
+                ps.setString(index++, event.entity());
+                ps.setObject(index++, event.entityId(), Types.BIGINT);
+                ps.setString(index++, event.detail());
+                ps.setString(index++, event.ipAddress());
+                ps.setTimestamp(index++, Timestamp.valueOf(event.createdAt()));
+                ps.setInt(index++, event.occurrences());
+                ps.setTimestamp(index++, event.firstOccurredAt() != null
+                        ? Timestamp.valueOf(event.firstOccurredAt()) : null);
+            }
+        });
+        loginStatsRollup.add(events);
+        Timer timer = flushTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2))
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.nebula.userService.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manutenção das partições mensais do {@code audit_log} (ver migration V7).
+ *
+ * Garante partições do mês corrente até {@code audit.partitioning.months-ahead} meses à
+ * frente — um INSERT sem partição falharia — e remove as que ficaram inteiras antes da
+ * janela de {@code audit.partitioning.retention-months}. Com {@code retention-mode: DETACH}
+ * a partição só é desanexada e fica disponível para arquivamento; com {@code DROP} é apagada.
+ * A partição com o histórico anterior à V7 leva o nome do mês anterior à migração e sai junto
+ * com ele.
+ * Desligado ({@code audit.partitioning.enabled: false}) quando o banco não é PostgreSQL.
+ */
+@Slf4j
+@Service
+public class AuditPartitionService {
+
+    public enum RetentionMode { DETACH, DROP }
+
+    private static final String PARTITION_PREFIX = "audit_log_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^audit_log_p(\\d{4})(\\d{2})$");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String LIST_PARTITIONS = """
+            SELECT child.relname
+              FROM pg_inherits i
+              JOIN pg_class parent ON parent.oid = i.inhparent
+              JOIN pg_class child  ON child.oid  = i.inhrelid
+             WHERE parent.relname = 'audit_log'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetentionMode retentionMode;
+
+    @Autowired
+    public AuditPartitionService(JdbcTemplate jdbcTemplate,
+                                 @Value("${audit.partitioning.enabled:true}") boolean enabled,
+                                 @Value("${audit.partitioning.months-ahead:3}") int monthsAhead,
+                                 @Value("${audit.partitioning.retention-months:12}") int retentionMonths,
+                                 @Value("${audit.partitioning.retention-mode:DROP}") RetentionMode retentionMode) {
+        this(jdbcTemplate, Clock.systemDefaultZone(), enabled, monthsAhead, retentionMonths, retentionMode);
+    }
+
+    AuditPartitionService(JdbcTemplate jdbcTemplate, Clock clock, boolean enabled, int monthsAhead,
+                          int retentionMonths, RetentionMode retentionMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionMode = retentionMode;
+    }
+
+    /** Cria as partições futuras e aplica a retenção. */
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        removeExpiredPartitions(current.minusMonths(retentionMonths));
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = PARTITION_PREFIX + month.format(SUFFIX);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name
+                + " PARTITION OF audit_log FOR VALUES FROM ('" + month.atDay(1)
+                + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    /** Remove partições cujo mês inteiro é anterior a {@code oldestKept}. */
+    private void removeExpiredPartitions(YearMonth oldestKept) {
+        List<String> expired = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()
+                    && YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)))
+                    .isBefore(oldestKept)) {
+                expired.add(name);
+            }
+        }
+
+        for (String name : expired.stream().sorted().toList()) {
+            jdbcTemplate.execute("ALTER TABLE audit_log DETACH PARTITION " + name);
+            if (retentionMode == RetentionMode.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+            }
+            log.info("Particao {} do audit_log removida ({})", name, retentionMode);
+        }
+    }
+}
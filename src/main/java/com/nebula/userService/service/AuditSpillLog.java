@@ -0,0 +1,462 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo local de contingência (write-ahead) para eventos de auditoria.
+ *
+ * Quando o banco falha ou o {@link AuditLogWriter} não acompanha o volume, os eventos
+ * são anexados a segmentos de tamanho fixo ({@code audit.spill.segment-size-bytes})
+ * mapeados em memória em {@code audit.spill.dir} — fora do heap. Cada registro é
+ * {@code [tamanho][crc32][evento]}; um tamanho zero ou CRC inválido marca o fim do segmento
+ * (registro incompleto após queda do processo).
+ *
+ * Os segmentos são reprocessados do mais antigo para o mais novo, em lotes, assim que o
+ * banco volta. O cabeçalho de cada segmento guarda até onde já foi gravado no banco; o
+ * segmento é apagado ao terminar. A entrega é "ao menos uma vez": uma queda entre o INSERT
+ * e a atualização do cabeçalho pode repetir um lote. O disco usado é limitado a
+ * {@code max-segments} segmentos; além disso {@link #append} recusa e o evento é descartado.
+ */
+@Slf4j
+@Component
+class AuditSpillLog implements MeterBinder {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^segment-(\\d{20})\\.log$");
+    /** Cabeçalho: posição do próximo registro ainda não gravado no banco. */
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final Deque<Segment> sealed = new ConcurrentLinkedDeque<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private Segment active;
+    private long nextSequence;
+    private boolean dirty;
+
+    AuditSpillLog(@Value("${audit.spill.enabled:true}") boolean enabled,
+                  @Value("${audit.spill.dir:./data/audit-spill}") String directory,
+                  @Value("${audit.spill.segment-size-bytes:16777216}") int segmentSize,
+                  @Value("${audit.spill.max-segments:64}") int maxSegments) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = Math.max(segmentSize, MIN_SEGMENT_SIZE);
+        this.maxSegments = Math.max(1, maxSegments);
+        if (enabled) {
+            recover();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("audit.spill.segments", this, AuditSpillLog::segmentCount)
+                .description("Segmentos de auditoria em disco aguardando o banco")
+                .register(registry);
+        FunctionCounter.builder("audit.spill.events", appended, AtomicLong::get)
+                .tag("direction", "in")
+                .register(registry);
+        FunctionCounter.builder("audit.spill.events", replayed, AtomicLong::get)
+                .tag("direction", "out")
+                .register(registry);
+        FunctionCounter.builder("audit.spill.rejected", rejected, AtomicLong::get)
+                .description("Eventos recusados pelo spill (limite de disco ou erro de E/S)")
+                .register(registry);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    boolean hasPending() {
+        if (!sealed.isEmpty()) {
+            return true;
+        }
+        synchronized (this) {
+            return active != null && active.hasUnread();
+        }
+    }
+
+    int segmentCount() {
+        synchronized (this) {
+            return sealed.size() + (active != null ? 1 : 0);
+        }
+    }
+
+    /**
+     * Anexa os eventos ao segmento ativo, abrindo um novo quando ele enche.
+     *
+     * @return {@code false} se desligado ou sem espaço; nesse caso nenhum evento é gravado
+     */
+    synchronized boolean append(List<AuditEvent> events) {
+        if (!enabled) {
+            return false;
+        }
+        List<byte[]> records = new ArrayList<>(events.size());
+        long required = 0;
+        int largest = 0;
+        for (AuditEvent event : events) {
+            byte[] record = encode(event);
+            if (RECORD_HEADER_SIZE + record.length > segmentSize - HEADER_SIZE) {
+                log.error("Evento de auditoria grande demais para o spill. action={}", event.action());
+                rejected.addAndGet(events.size());
+                return false;
+            }
+            records.add(record);
+            required += RECORD_HEADER_SIZE + record.length;
+            largest = Math.max(largest, RECORD_HEADER_SIZE + record.length);
+        }
+        // Tudo ou nada: o lote não pode ficar pela metade no disco
+        if (required > availableBytes(largest)) {
+            rejected.addAndGet(events.size());
+            log.error("Spill de auditoria cheio ({} segmentos); {} eventos descartados", maxSegments, events.size());
+            return false;
+        }
+
+        try {
+            for (byte[] record : records) {
+                if (active == null || !active.fits(record)) {
+                    roll();
+                }
+                active.write(record);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            rejected.addAndGet(events.size());
+            log.error("Falha ao gravar spill de auditoria: {}", e.getMessage());
+            return false;
+        }
+        dirty = true;
+        appended.addAndGet(events.size());
+        return true;
+    }
+
+    /** Força para o disco o que foi anexado desde a última chamada. */
+    synchronized void sync() {
+        if (dirty && active != null) {
+            active.buffer.force();
+        }
+        dirty = false;
+    }
+
+    /**
+     * Regrava no banco até {@code maxBatches} lotes, a partir do segmento mais antigo.
+     * Para no primeiro lote que {@code sink} não conseguir gravar; ele será repetido.
+     *
+     * @param sink grava o lote e retorna {@code true} em caso de sucesso
+     * @return quantidade de eventos regravados
+     */
+    int replay(int batchSize, int maxBatches, Predicate<List<AuditEvent>> sink) {
+        if (!enabled) {
+            return 0;
+        }
+        int count = 0;
+        int batches = 0;
+        while (batches < maxBatches) {
+            Segment segment = sealed.peekFirst();
+            if (segment == null) {
+                if (!sealActive()) {
+                    break;
+                }
+                continue;
+            }
+
+            List<AuditEvent> batch = new ArrayList<>(batchSize);
+            int next = segment.read(batchSize, batch);
+            if (batch.isEmpty()) {
+                sealed.pollFirst();
+                segment.delete();
+                continue;
+            }
+            if (!sink.test(batch)) {
+                break;
+            }
+            segment.commit(next);
+            replayed.addAndGet(batch.size());
+            count += batch.size();
+            batches++;
+        }
+        return count;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        sync();
+    }
+
+    /** O segmento ativo com registros pendentes passa a ser reprocessável. */
+    private synchronized boolean sealActive() {
+        if (active == null || !active.hasUnread()) {
+            return false;
+        }
+        active.buffer.force();
+        sealed.addLast(active);
+        active = null;
+        dirty = false;
+        return true;
+    }
+
+    /** Espaço garantido para novos registros, descontando a sobra no fim de cada segmento. */
+    private long availableBytes(int largestRecord) {
+        long free = active != null ? active.remaining() : 0;
+        long newSegments = maxSegments - (long) sealed.size() - (active != null ? 1 : 0);
+        return free + Math.max(0, newSegments) * (segmentSize - HEADER_SIZE - largestRecord + 1);
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.buffer.force();
+            sealed.addLast(active);
+        }
+        Files.createDirectories(directory);
+        Path path = directory.resolve(String.format("segment-%020d.log", nextSequence++));
+        active = Segment.create(path, segmentSize);
+    }
+
+    private void recover() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.error("Falha ao listar spill de auditoria em {}: {}", directory, e.getMessage());
+            return;
+        }
+
+        for (Path path : paths) {
+            Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+            matcher.matches();
+            nextSequence = Math.max(nextSequence, Long.parseLong(matcher.group(1)) + 1);
+            try {
+                sealed.addLast(Segment.open(path));
+            } catch (IOException | RuntimeException e) {
+                log.error("Segmento de spill ilegivel ignorado: {} ({})", path, e.getMessage());
+            }
+        }
+        if (!sealed.isEmpty()) {
+            log.warn("{} segmentos de auditoria pendentes encontrados em {}", sealed.size(), directory);
+        }
+    }
+
+    // ─── Formato do registro ──────────────────────────────────────────────────
+
+    static byte[] encode(AuditEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeLong(out, event.userId());
+            writeString(out, event.role());
+            writeString(out, event.action());
+            writeString(out, event.entity());
+            writeLong(out, event.entityId());
+            writeString(out, event.detail());
+            writeString(out, event.ipAddress());
+            writeDateTime(out, event.createdAt());
+            out.writeInt(event.occurrences());
+            out.writeBoolean(event.firstOccurredAt() != null);
+            if (event.firstOccurredAt() != null) {
+                writeDateTime(out, event.firstOccurredAt());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static AuditEvent decode(ByteBuffer in) {
+        Long userId = readLong(in);
+        String role = readString(in);
+        String action = readString(in);
+        String entity = readString(in);
+        Long entityId = readLong(in);
+        String detail = readString(in);
+        String ipAddress = readString(in);
+        LocalDateTime createdAt = readDateTime(in);
+        int occurrences = in.getInt();
+        LocalDateTime firstOccurredAt = in.get() != 0 ? readDateTime(in) : null;
+        return new AuditEvent(action, userId, role, entity, entityId, detail, ipAddress, createdAt,
+                occurrences, firstOccurredAt);
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /** Um arquivo de segmento mapeado em memória. */
+    private static final class Segment {
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(Path path, MappedByteBuffer buffer, int writePosition) {
+            this.path = path;
+            this.buffer = buffer;
+            this.writePosition = writePosition;
+        }
+
+        static Segment create(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putLong(0, HEADER_SIZE);
+                return new Segment(path, buffer, HEADER_SIZE);
+            }
+        }
+
+        static Segment open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                // Segmentos recuperados não recebem novos registros
+                return new Segment(path, buffer, buffer.capacity());
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        boolean fits(byte[] record) {
+            return writePosition + RECORD_HEADER_SIZE + record.length <= buffer.capacity();
+        }
+
+        /** Grava corpo e CRC antes do tamanho: um registro incompleto nunca parece válido. */
+        void write(byte[] record) {
+            buffer.put(writePosition + RECORD_HEADER_SIZE, record);
+            buffer.putInt(writePosition + Integer.BYTES, crc(record, 0, record.length));
+            buffer.putInt(writePosition, record.length);
+            writePosition += RECORD_HEADER_SIZE + record.length;
+        }
+
+        boolean hasUnread() {
+            int position = (int) buffer.getLong(0);
+            return position + RECORD_HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) > 0;
+        }
+
+        /**
+         * Lê até {@code max} eventos a partir da posição confirmada.
+         *
+         * @return posição logo após o último evento lido
+         */
+        int read(int max, List<AuditEvent> sink) {
+            int position = (int) buffer.getLong(0);
+            while (sink.size() < max && position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                int body = position + RECORD_HEADER_SIZE;
+                if (length <= 0 || body + length > buffer.capacity()) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(body, record);
+                if (crc(record, 0, length) != buffer.getInt(position + Integer.BYTES)) {
+                    log.warn("Registro corrompido no spill {}; restante do segmento ignorado", path.getFileName());
+                    break;
+                }
+                try {
+                    sink.add(decode(ByteBuffer.wrap(record)));
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    log.warn("Registro invalido no spill {}; restante do segmento ignorado", path.getFileName());
+                    break;
+                }
+                position = body + length;
+            }
+            return position;
+        }
+
+        /** Confirma que tudo antes de {@code position} já está no banco. */
+        void commit(int position) {
+            buffer.putLong(0, position);
+            buffer.force(0, HEADER_SIZE);
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Falha ao apagar segmento de spill {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * "Época" de autenticação por usuário.
+ *
+ * Cada access token carrega a época vigente no momento da emissão (claim {@code epoch}).
+ * Revogar todas as sessões, trocar/redefinir a senha ou alterar permissões incrementa
+ * a época, invalidando de uma vez todos os access tokens anteriores do usuário.
+ *
+ * O valor oficial fica no hash Redis {@value #EPOCH_KEY}; cada nó mantém uma cópia em
+ * memória sincronizada via pub/sub, então a checagem por requisição é uma comparação O(1).
+ * Como o pub/sub não garante entrega, a cópia local é recarregada do hash periodicamente
+ * ({@code jwt.epoch.resync-interval-ms}, ver {@code ScheduledTasks}) e sempre que o canal
+ * é (re)assinado após uma queda da conexão.
+ *
+ * Se o Redis não responder antes da primeira carga, a consulta sob demanda assume época 0
+ * (a checagem de época fica aberta até o Redis voltar) em vez de derrubar todas as sessões
+ * com 401; cada falha conta em {@code auth.epoch.lookup.failures}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthEpochService implements MessageListener, SubscriptionListener, MeterBinder {
+
+    static final String EPOCH_KEY = "auth:epoch";
+    static final String CHANNEL = "auth:epoch:changed";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+    private final AtomicLong lookupFailures = new AtomicLong();
+
+    /** true depois que o hash completo foi carregado; antes disso, misses consultam o Redis. */
+    private volatile boolean loaded;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.epoch.lookup.failures", lookupFailures, AtomicLong::get)
+                .description("Consultas de epoca sem resposta do Redis antes da primeira carga")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        if (resync()) {
+            log.info("Epocas de autenticacao carregadas: {} usuarios", epochs.size());
+        }
+    }
+
+    /**
+     * Recarrega todas as épocas do Redis. Só avança valores locais, então incrementos
+     * cuja mensagem de pub/sub se perdeu passam a valer aqui.
+     *
+     * @return {@code false} se o Redis não respondeu (a cópia local é mantida)
+     */
+    public boolean resync() {
+        try {
+            redisTemplate.opsForHash().entries(EPOCH_KEY)
+                    .forEach((user, epoch) -> advance(user.toString(), Long.parseLong(epoch.toString())));
+            loaded = true;
+            return true;
+        } catch (Exception e) {
+            log.warn("Falha ao carregar epocas de autenticacao do Redis; consultando sob demanda: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Canal (re)assinado, inclusive após reconexão: mensagens do intervalo podem ter se perdido. */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        if (loaded) {
+            resync();
+        }
+    }
+
+    /** Época vigente do usuário (0 se nunca foi incrementada). */
+    public long currentEpoch(String username) {
+        Long epoch = epochs.get(username);
+        if (epoch != null) {
+            return epoch;
+        }
+        if (loaded) {
+            return 0L;
+        }
+        Object stored;
+        try {
+            stored = redisTemplate.opsForHash().get(EPOCH_KEY, username);
+        } catch (Exception e) {
+            // Nada é gravado localmente: a próxima requisição tenta o Redis de novo
+            long failures = lookupFailures.incrementAndGet();
+            if (failures % 1000 == 1) {
+                log.warn("Redis indisponivel ao consultar epoca de {}; assumindo 0 ({} falhas ate agora): {}",
+                        username, failures, e.getMessage());
+            }
+            return 0L;
+        }
+        long value = stored != null ? Long.parseLong(stored.toString()) : 0L;
+        advance(username, value);
+        return value;
+    }
+
+    /**
+     * Incrementa a época do usuário após o commit da transação corrente,
+     * invalidando todos os access tokens emitidos antes disso.
+     */
+    public void bump(String username) {
+        TransactionHooks.afterCommit(() -> {
+            try {
+                Long epoch = redisTemplate.opsForHash().increment(EPOCH_KEY, username, 1);
+                advance(username, epoch);
+                redisTemplate.convertAndSend(CHANNEL, username + ":" + epoch);
+                log.debug("Epoca de autenticacao de {} incrementada para {}", username, epoch);
+            } catch (Exception e) {
+                log.error("Falha ao incrementar epoca de autenticacao de {}: {}", username, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        advance(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+    }
+
+    /** A época só avança: mensagens atrasadas ou fora de ordem não a fazem regredir. */
+    private void advance(String username, long epoch) {
+        epochs.merge(username, epoch, Math::max);
+    }
+}
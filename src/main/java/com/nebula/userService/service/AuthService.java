@@ -1,96 +1,111 @@
 package com.nebula.userService.service;
 
 import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.VerifiedToken;
 import com.nebula.userService.dto.JwtResponse;
 import com.nebula.userService.dto.LoginRequest;
 import com.nebula.userService.dto.UserSessionDTO;
 import com.nebula.userService.entities.UserEntity;
 import com.nebula.userService.repository.UserRepository;
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationServiceException;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
-    private final AuthenticationManager authenticationManager;
     private final JwtConfig jwtConfig;
     private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
     private final TokenBlacklistService tokenBlacklistService;
     private final AuditLogService auditLogService;
     private final SessionService sessionService;
+    private final AuthEpochService authEpochService;
+    private final LoginAttemptService loginAttemptService;
 
-    /** Autentica o usuário e retorna access + refresh token. */
-    @Transactional
+    private volatile String dummyHash;
+
+    /**
+     * Autentica o usuário e retorna access + refresh token.
+     *
+     * O usuário (com permissões) é carregado uma única vez e a senha é conferida contra
+     * o hash já carregado. Sucesso é gravado em um único UPDATE; falhas são contadas no
+     * Redis ({@link LoginAttemptService}) e só tocam o banco quando bloqueiam a conta.
+     * A falha não desfaz a transação: o bloqueio precisa ser persistido.
+     */
+    @Transactional(noRollbackFor = AuthenticationServiceException.class)
     public JwtResponse authenticateUser(LoginRequest loginRequest, String ipAddress, String userAgent) {
-        UserEntity user = userRepository.findByUsername(loginRequest.getUsername())
+        UserEntity user = userRepository.findForLogin(loginRequest.getUsername())
                 .orElse(null);
 
         // Conta bloqueada por tentativas falhas?
         if (user != null && user.isLocked()) {
-            auditLogService.log(AuditLogService.LOGIN_FAILED, user,
+            auditLogService.logLoginFailure(loginRequest.getUsername(), user,
                     "Conta bloqueada", ipAddress);
             throw new AuthenticationServiceException("Conta temporariamente bloqueada. Tente novamente mais tarde.");
         }
 
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getUsername(),
-                            loginRequest.getPassword()
-                    )
-            );
+        // Usuário inexistente também paga um BCrypt, para não revelar usernames pelo tempo de resposta
+        String hash = user != null ? user.getPassword() : dummyHash();
+        if (!passwordEncoder.matches(loginRequest.getPassword(), hash) || user == null) {
+            registerFailedLogin(user, loginRequest.getUsername(), ipAddress);
+            throw new AuthenticationServiceException("Invalid credentials");
+        }
 
-            user = userRepository.findByUsername(authentication.getName())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-            // Reseta tentativas falhas e registra last_login_at
-            user.registerSuccessfulLogin();
-            userRepository.save(user);
-
-            String role = user.getRole() != null ? user.getRole().name() : "USER";
-            String sessionId = sessionService.createSession(user, ipAddress, userAgent).getSessionId();
-            List<String> permissions = user.getPermissions() != null ? user.getPermissions().stream()
-                    .map(Enum::name)
-                    .toList() : List.of();
-
-            String accessToken  = jwtConfig.generateToken(user.getUsername(), List.of("ROLE_" + role), permissions, sessionId);
-            String refreshToken = jwtConfig.generateRefreshToken(user.getUsername(), sessionId);
-
-            auditLogService.log(AuditLogService.LOGIN_SUCCESS, user,
-                    "Login bem-sucedido", ipAddress);
-
-            return new JwtResponse(accessToken, refreshToken);
-
-        } catch (BadCredentialsException e) {
-            // Incrementa contador de falhas
-            if (user != null) {
-                user.registerFailedAttempt();
-                userRepository.save(user);
-                if (user.isLocked()) {
-                    auditLogService.log(AuditLogService.ACCOUNT_LOCKED, user,
-                            "Conta bloqueada apos 5 tentativas falhas", ipAddress);
-                } else {
-                    auditLogService.log(AuditLogService.LOGIN_FAILED, user,
-                            "Tentativa " + user.getFailedAttempts() + " de 5", ipAddress);
-                }
-            } else {
-                auditLogService.log(AuditLogService.LOGIN_FAILED,
-                        "Username nao encontrado: " + loginRequest.getUsername(), ipAddress);
-            }
-            throw new AuthenticationServiceException("Invalid credentials", e);
+        // Reseta tentativas falhas e registra last_login_at
+        userRepository.registerSuccessfulLogin(user.getId(), LocalDateTime.now());
+        loginAttemptService.recordSuccess(user.getUsername());
+
+        String role = user.getRole() != null ? user.getRole().name() : "USER";
+        String sessionId = sessionService.createSession(user, ipAddress, userAgent).getSessionId();
+        List<String> permissions = user.getPermissions() != null ? user.getPermissions().stream()
+                .map(Enum::name)
+                .toList() : List.of();
+
+        String accessToken  = jwtConfig.generateToken(user.getUsername(), List.of("ROLE_" + role), permissions,
+                sessionId, authEpochService.currentEpoch(user.getUsername()));
+        String refreshToken = jwtConfig.generateRefreshToken(user.getUsername(), sessionId);
+
+        auditLogService.log(AuditLogService.LOGIN_SUCCESS, user,
+                "Login bem-sucedido", ipAddress);
+
+        return new JwtResponse(accessToken, refreshToken);
+    }
+
+    private void registerFailedLogin(UserEntity user, String username, String ipAddress) {
+        if (user == null) {
+            auditLogService.logLoginFailure(username, null,
+                    "Username nao encontrado: " + username, ipAddress);
+            return;
+        }
+
+        // Contador atômico no Redis; o banco só é escrito na transição para bloqueado
+        LoginAttemptService.FailedLogin failure = loginAttemptService.recordFailure(user);
+        if (failure.lockedNow()) {
+            auditLogService.log(AuditLogService.ACCOUNT_LOCKED, user,
+                    "Conta bloqueada apos " + UserEntity.MAX_FAILED_ATTEMPTS + " tentativas falhas", ipAddress);
+        } else {
+            auditLogService.logLoginFailure(username, user,
+                    "Tentativa " + failure.attempts() + " de " + UserEntity.MAX_FAILED_ATTEMPTS, ipAddress);
+        }
+    }
+
+    /** Hash BCrypt descartável, calculado uma vez, usado para igualar o tempo de resposta. */
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyHash = hash;
         }
+        return hash;
     }
 
     /** Sobrecarga sem IP para manter compatibilidade com testes. */
@@ -102,18 +117,18 @@ public class AuthService {
      * Usa um refresh token válido para emitir um novo access token.
      */
     public JwtResponse refreshToken(String refreshToken) {
-        if (tokenBlacklistService.isBlacklisted(refreshToken)) {
+        VerifiedToken verified = jwtConfig.parseToken(refreshToken);
+
+        if (tokenBlacklistService.isBlacklisted(refreshToken, verified)) {
             throw new AuthenticationServiceException("Refresh token revogado");
         }
 
-        Claims claims = jwtConfig.extractClaims(refreshToken);
-
-        if (!jwtConfig.isTokenType(refreshToken, "refresh")) {
+        if (!verified.isType(VerifiedToken.REFRESH)) {
             throw new AuthenticationServiceException("Token inválido para refresh");
         }
 
-        String username = claims.getSubject();
-        String sessionId = claims.get("sessionId", String.class);
+        String username = verified.subject();
+        String sessionId = verified.sessionId();
 
         if (sessionId == null || !sessionService.isSessionActive(sessionId, username)) {
             throw new AuthenticationServiceException("Sessão expirada ou revogada");
@@ -127,7 +142,8 @@ public class AuthService {
                 .toList() : List.of();
 
         String role = user.getRole() != null ? user.getRole().name() : "USER";
-        String newAccessToken = jwtConfig.generateToken(username, List.of("ROLE_" + role), permissions, sessionId);
+        String newAccessToken = jwtConfig.generateToken(username, List.of("ROLE_" + role), permissions,
+                sessionId, authEpochService.currentEpoch(username));
 
         sessionService.refreshSession(sessionId);
         return new JwtResponse(newAccessToken, refreshToken);
@@ -145,9 +161,9 @@ public class AuthService {
         }
 
         try {
-            Claims claims = jwtConfig.extractClaims(accessToken);
-            String username = claims.getSubject();
-            String sessionId = claims.get("sessionId", String.class);
+            VerifiedToken verified = jwtConfig.parseToken(accessToken);
+            String username = verified.subject();
+            String sessionId = verified.sessionId();
             if (sessionId != null) {
                 sessionService.revokeSession(sessionId, username, ipAddress);
             }
@@ -179,9 +195,9 @@ public class AuthService {
             return;
         }
         try {
-            Claims claims = jwtConfig.extractClaims(token);
-            long ttlMillis = claims.getExpiration().getTime() - new Date().getTime();
-            tokenBlacklistService.blacklist(token, ttlMillis);
+            VerifiedToken verified = jwtConfig.parseToken(token);
+            tokenBlacklistService.blacklist(verified);
+            jwtConfig.evictVerified(token);
         } catch (Exception ignored) { }
     }
 }
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.entities.EmailOutboxEntity;
+import com.nebula.userService.enums.EmailOutboxStatus;
+import com.nebula.userService.repository.EmailOutboxRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio em segundo plano dos e-mails do {@code email_outbox}.
+ *
+ * A cada ciclo reivindica um lote vencido (FOR UPDATE SKIP LOCKED, com lease) e o divide em
+ * blocos de até {@code email.dispatcher.messages-per-connection}; cada bloco vai para um dos
+ * {@code email.dispatcher.threads} workers e é enviado numa única conexão SMTP. A vazão total
+ * do nó respeita {@code email.throttle.per-minute} (limite do provedor), via bucket local.
+ * Falhas são reagendadas com backoff exponencial; após {@code max-attempts}, DEAD.
+ */
+@Slf4j
+@Service
+public class EmailDispatcher implements MeterBinder {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final Bucket throttle;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final long leaseMs;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    private volatile Counter sentCounter;
+    private volatile Counter retriedCounter;
+    private volatile Counter deadCounter;
+
+    public EmailDispatcher(EmailOutboxRepository emailOutboxRepository,
+                           EmailService emailService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${email.dispatcher.threads:2}") int threads,
+                           @Value("${email.dispatcher.batch-size:50}") int batchSize,
+                           @Value("${email.dispatcher.messages-per-connection:25}") int messagesPerConnection,
+                           @Value("${email.dispatcher.max-attempts:6}") int maxAttempts,
+                           @Value("${email.dispatcher.lease-ms:300000}") long leaseMs,
+                           @Value("${email.dispatcher.backoff-base-ms:5000}") long backoffBaseMs,
+                           @Value("${email.dispatcher.backoff-max-ms:3600000}") long backoffMaxMs,
+                           @Value("${email.throttle.per-minute:120}") long perMinute) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "email-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.throttle = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(perMinute)
+                        .refillGreedy(perMinute, Duration.ofMinutes(1))
+                        .build())
+                .build();
+        this.batchSize = batchSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.maxAttempts = maxAttempts;
+        this.leaseMs = leaseMs;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("email.outbox.pending", emailOutboxRepository,
+                        repository -> repository.countByStatus(EmailOutboxStatus.PENDING))
+                .description("E-mails aguardando envio")
+                .register(registry);
+        sentCounter = Counter.builder("email.deliveries").tag("result", "sent").register(registry);
+        retriedCounter = Counter.builder("email.deliveries").tag("result", "retry").register(registry);
+        deadCounter = Counter.builder("email.deliveries").tag("result", "dead").register(registry);
+    }
+
+    /**
+     * Reivindica e envia um lote de e-mails vencidos, limitado ao que o throttle permite agora.
+     *
+     * @return quantidade de e-mails processados no ciclo
+     */
+    public int dispatchPending() {
+        int allowed = (int) Math.min(batchSize, throttle.getAvailableTokens());
+        if (allowed <= 0) {
+            return 0;
+        }
+        List<EmailOutboxEntity> batch = claimBatch(allowed);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        throttle.tryConsume(batch.size());
+
+        List<Future<?>> chunks = new ArrayList<>();
+        int chunkSize = Math.max(1, messagesPerConnection);
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<EmailOutboxEntity> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            chunks.add(workers.submit(() -> sendChunk(chunk)));
+        }
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Falha inesperada no envio de e-mails: {}", e.getCause().getMessage());
+            }
+        }
+        return batch.size();
+    }
+
+    /** Remove e-mails enviados mais antigos que a retenção; DEAD fica para inspeção. */
+    public int cleanupSent(int retentionDays) {
+        return emailOutboxRepository.deleteByStatusAndCreatedAtBefore(
+                EmailOutboxStatus.SENT, LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private List<EmailOutboxEntity> claimBatch(int limit) {
+        List<EmailOutboxEntity> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxEntity> due = emailOutboxRepository.lockDue(now, PageRequest.of(0, limit));
+            due.forEach(email -> email.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000)));
+            return due;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    void sendChunk(List<EmailOutboxEntity> chunk) {
+        Map<Long, Exception> failures;
+        try {
+            failures = emailService.sendBatch(chunk);
+        } catch (Exception e) {
+            // Conexão/autenticação SMTP: nenhum e-mail do bloco saiu
+            chunk.forEach(email -> handleFailure(email, e));
+            return;
+        }
+
+        List<Long> sent = chunk.stream()
+                .map(EmailOutboxEntity::getId)
+                .filter(id -> !failures.containsKey(id))
+                .toList();
+        if (!sent.isEmpty()) {
+            emailOutboxRepository.markSent(sent, LocalDateTime.now());
+            increment(sentCounter, sent.size());
+        }
+        chunk.stream()
+                .filter(email -> failures.containsKey(email.getId()))
+                .forEach(email -> handleFailure(email, failures.get(email.getId())));
+    }
+
+    private void handleFailure(EmailOutboxEntity email, Exception error) {
+        int attempts = email.getAttempts() + 1;
+        String message = truncate(error.getClass().getSimpleName() + ": " + error.getMessage());
+
+        if (attempts >= maxAttempts) {
+            emailOutboxRepository.markFailed(email.getId(), EmailOutboxStatus.DEAD, attempts,
+                    email.getNextAttemptAt(), message);
+            increment(deadCounter, 1);
+            log.error("E-mail {} para {} descartado apos {} tentativas: {}",
+                    email.getId(), email.getRecipient(), attempts, message);
+            return;
+        }
+
+        long backoff = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        emailOutboxRepository.markFailed(email.getId(), EmailOutboxStatus.PENDING, attempts,
+                LocalDateTime.now().plusNanos(backoff * 1_000_000), message);
+        increment(retriedCounter, 1);
+        log.warn("Falha ao enviar e-mail {} (tentativa {}): {}", email.getId(), attempts, message);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.nebula.userService.service;
 
+import com.nebula.userService.entities.EmailOutboxEntity;
+import com.nebula.userService.enums.EmailOutboxStatus;
+import com.nebula.userService.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailService {
 
@@ -16,11 +31,32 @@ public class EmailService {
 
     private final JavaMailSender mailSender;
     private final String defaultFromEmail;
+    private final EmailOutboxRepository emailOutboxRepository;
 
     public EmailService(JavaMailSender mailSender,
-                        @Value("${spring.mail.username}") String defaultFromEmail) {
+                        @Value("${spring.mail.username}") String defaultFromEmail,
+                        EmailOutboxRepository emailOutboxRepository) {
         this.mailSender = mailSender;
         this.defaultFromEmail = defaultFromEmail;
+        this.emailOutboxRepository = emailOutboxRepository;
+    }
+
+    /**
+     * Enfileira um e-mail em {@code email_outbox}, na transação do chamador.
+     * Não abre conexão SMTP: o envio é feito pelo {@link EmailDispatcher}.
+     *
+     * @throws IllegalArgumentException Se algum parâmetro for inválido
+     */
+    @Transactional
+    public void queueEmail(String to, String subject, String body) {
+        validateEmailParameters(to, subject, body);
+        EmailOutboxEntity saved = emailOutboxRepository.save(EmailOutboxEntity.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .status(EmailOutboxStatus.PENDING)
+                .build());
+        logger.debug("E-mail {} enfileirado para: {}", saved.getId(), to);
     }
 
     /**
@@ -45,6 +81,54 @@ public class EmailService {
         }
     }
 
+    /**
+     * Envia vários e-mails numa única chamada ao {@link JavaMailSender}, que abre uma conexão
+     * SMTP e a reaproveita para todas as mensagens.
+     *
+     * @param emails e-mails do outbox a enviar
+     * @return falhas por id do outbox (vazio se todos foram aceitos pelo servidor)
+     * @throws MailException Se a conexão/autenticação SMTP falhar (nenhum e-mail foi enviado)
+     */
+    public Map<Long, Exception> sendBatch(List<EmailOutboxEntity> emails) {
+        Map<Long, Exception> failures = new LinkedHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(emails.size());
+        Map<MimeMessage, Long> idsByMessage = new IdentityHashMap<>();
+
+        for (EmailOutboxEntity email : emails) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+                helper.setFrom(defaultFromEmail);
+                helper.setTo(email.getRecipient());
+                helper.setSubject(email.getSubject());
+                helper.setText(email.getBody());
+                messages.add(message);
+                idsByMessage.put(message, email.getId());
+            } catch (MessagingException ex) {
+                failures.put(email.getId(), ex);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException ex) {
+            if (ex.getFailedMessages().isEmpty()) {
+                throw ex;
+            }
+            // Falhas por mensagem: as demais foram aceitas na mesma conexão
+            ex.getFailedMessages().forEach((message, error) -> {
+                Long id = idsByMessage.get(message);
+                if (id != null) {
+                    failures.put(id, error);
+                }
+            });
+        }
+        return failures;
+    }
+
     /**
      * Cria a mensagem de e-mail com os parâmetros fornecidos.
      */
@@ -0,0 +1,70 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.RateLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador GCRA (Generic Cell Rate Algorithm) em um único script Lua.
+ *
+ * O estado por chave é um só número — o TAT ("theoretical arrival time") em microssegundos —
+ * e cada decisão é uma única chamada EVALSHA, sem o laço de CAS do Bucket4j: a latência fica
+ * em um round-trip mesmo com milhares de clientes disputando a mesma chave (ex.: IP de NAT).
+ * O relógio é o {@code TIME} do Redis, então nós com relógios diferentes concordam.
+ *
+ * Semântica equivalente ao bucket da política: rajada de até {@code capacity} requisições,
+ * reposição contínua de {@code refillTokens} a cada {@code refillSeconds}.
+ */
+@Component
+@RequiredArgsConstructor
+class GcraRateLimiter {
+
+    /** Retorna {permitido, restantes, µs até poder tentar de novo, µs até o bucket encher}. */
+    private static final RedisScript<List<Long>> GCRA = longListScript("""
+            local emission = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat < now then
+              tat = now
+            end
+            local new_tat = tat + emission
+            if new_tat - now > tolerance then
+              return {0, 0, new_tat - tolerance - now, tat - now}
+            end
+            redis.call('SET', KEYS[1], new_tat, 'PX', math.ceil((new_tat - now) / 1000) + 1)
+            return {1, math.floor((tolerance - (new_tat - now)) / emission), 0, new_tat - now}
+            """);
+
+    private final StringRedisTemplate redisTemplate;
+
+    RateLimitDecision tryConsume(RateLimitProperties.Policy policy, String bucketKey) {
+        long emissionMicros = Math.max(1, TimeUnit.SECONDS.toMicros(policy.getRefillSeconds()) / policy.getRefillTokens());
+        long toleranceMicros = emissionMicros * policy.getCapacity();
+
+        List<Long> result = redisTemplate.execute(GCRA, List.of(bucketKey),
+                String.valueOf(emissionMicros), String.valueOf(toleranceMicros));
+        if (result == null || result.size() < 4) {
+            throw new IllegalStateException("Resposta inesperada do script GCRA para " + bucketKey);
+        }
+        return new RateLimitDecision(
+                result.get(0) == 1,
+                policy.getCapacity(),
+                result.get(1),
+                TimeUnit.MICROSECONDS.toNanos(result.get(3)),
+                TimeUnit.MICROSECONDS.toNanos(result.get(2)));
+    }
+
+    /** Inteiros Lua voltam como Long; DefaultRedisScript só aceita o tipo bruto List.class. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static RedisScript<List<Long>> longListScript(String source) {
+        return (RedisScript) new DefaultRedisScript<>(source, List.class);
+    }
+}
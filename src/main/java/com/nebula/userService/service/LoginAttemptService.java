@@ -0,0 +1,106 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.entities.UserEntity;
+import com.nebula.userService.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contagem de tentativas de login falhas e bloqueio de conta no Redis.
+ *
+ * Cada falha é um único script Lua atômico (INCR + PEXPIRE); o contador expira sozinho
+ * após {@link UserEntity#LOCK_MINUTES}. A tabela {@code users} só é escrita na transição
+ * para bloqueado (espelhando {@code locked_until}, lido no próprio SELECT do login).
+ * Se o Redis estiver indisponível, a contagem cai para o UPDATE atômico no banco.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptService {
+
+    private static final String FAILURES_PREFIX = "login:failures:";
+    private static final String LOCK_PREFIX = "login:lock:";
+
+    /** -1 = já bloqueado; caso contrário, o número de falhas (o limite dispara o bloqueio). */
+    private static final RedisScript<Long> RECORD_FAILURE = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+              return -1
+            end
+            local attempts = redis.call('INCR', KEYS[1])
+            if attempts == 1 then
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            if attempts >= tonumber(ARGV[1]) then
+              redis.call('SET', KEYS[2], '1', 'PX', ARGV[2])
+              redis.call('DEL', KEYS[1])
+            end
+            return attempts
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserRepository userRepository;
+
+    /** Resultado de uma falha registrada. */
+    public record FailedLogin(int attempts, boolean lockedNow) {
+    }
+
+    /**
+     * Registra uma falha de login do usuário.
+     * Só escreve no banco quando esta falha bloqueia a conta (ou se o Redis falhar).
+     */
+    public FailedLogin recordFailure(UserEntity user) {
+        Duration lockDuration = Duration.ofMinutes(UserEntity.LOCK_MINUTES);
+        Long attempts;
+        try {
+            attempts = redisTemplate.execute(RECORD_FAILURE,
+                    List.of(FAILURES_PREFIX + user.getUsername(), LOCK_PREFIX + user.getUsername()),
+                    String.valueOf(UserEntity.MAX_FAILED_ATTEMPTS),
+                    String.valueOf(lockDuration.toMillis()));
+        } catch (Exception e) {
+            log.warn("Redis indisponivel para contar falhas de login; usando o banco: {}", e.getMessage());
+            return recordFailureInDatabase(user, lockDuration);
+        }
+
+        if (attempts == null || attempts < 0) {
+            return new FailedLogin(UserEntity.MAX_FAILED_ATTEMPTS, false);
+        }
+        boolean lockedNow = attempts >= UserEntity.MAX_FAILED_ATTEMPTS;
+        if (lockedNow) {
+            userRepository.lockUntil(user.getId(), LocalDateTime.now().plus(lockDuration));
+        }
+        return new FailedLogin(attempts.intValue(), lockedNow);
+    }
+
+    /** Login bem-sucedido: descarta o contador de falhas. */
+    public void recordSuccess(String username) {
+        try {
+            redisTemplate.delete(FAILURES_PREFIX + username);
+        } catch (Exception e) {
+            log.warn("Falha ao limpar contador de login de {}: {}", username, e.getMessage());
+        }
+    }
+
+    /** Troca/redefinição de senha: remove contador e bloqueio no Redis. */
+    public void reset(String username) {
+        try {
+            redisTemplate.delete(List.of(FAILURES_PREFIX + username, LOCK_PREFIX + username));
+        } catch (Exception e) {
+            log.warn("Falha ao limpar bloqueio de login de {}: {}", username, e.getMessage());
+        }
+    }
+
+    private FailedLogin recordFailureInDatabase(UserEntity user, Duration lockDuration) {
+        int attempts = (user.getFailedAttempts() == null ? 0 : user.getFailedAttempts()) + 1;
+        userRepository.registerFailedAttempt(user.getId(), UserEntity.MAX_FAILED_ATTEMPTS,
+                LocalDateTime.now().plus(lockDuration));
+        return new FailedLogin(attempts, attempts >= UserEntity.MAX_FAILED_ATTEMPTS);
+    }
+}
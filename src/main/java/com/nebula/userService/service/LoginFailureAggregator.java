@@ -0,0 +1,144 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Agregação em janela das falhas de login.
+ *
+ * Em ataques de credential stuffing cada tentativa viraria uma linha no {@code audit_log}.
+ * Aqui as falhas são coalescidas em memória por (ação, username, IP); a cada
+ * {@code audit.aggregation.window-ms} (ver {@code ScheduledTasks}) e no shutdown, cada chave
+ * vira um único evento com {@code occurrences}, primeira e última ocorrência e o detalhe
+ * mais recente.
+ *
+ * Acima de {@code audit.aggregation.max-keys} chaves abertas, as chaves novas vão direto
+ * para o {@link AuditLogWriter} — a memória fica limitada mesmo com milhões de IPs.
+ */
+@Slf4j
+@Component
+public class LoginFailureAggregator implements MeterBinder {
+
+    private final AuditLogWriter auditLogWriter;
+    private final boolean enabled;
+    private final int maxKeys;
+
+    private final Map<Key, Window> pending = new ConcurrentHashMap<>();
+    /** Eventos absorvidos por uma linha já existente (o que deixou de ser gravado). */
+    private final AtomicLong collapsed = new AtomicLong();
+
+    LoginFailureAggregator(AuditLogWriter auditLogWriter,
+                           @Value("${audit.aggregation.enabled:true}") boolean enabled,
+                           @Value("${audit.aggregation.max-keys:100000}") int maxKeys) {
+        this.auditLogWriter = auditLogWriter;
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("audit.aggregation.keys", pending, Map::size)
+                .description("Chaves (acao, username, IP) abertas na janela atual")
+                .register(registry);
+        FunctionCounter.builder("audit.aggregation.collapsed", collapsed, AtomicLong::get)
+                .description("Falhas de login absorvidas por uma linha agregada")
+                .register(registry);
+    }
+
+    /** Registra a falha na janela atual (somente memória). */
+    void record(String action, String username, Long userId, String role, String detail, String ipAddress) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!enabled) {
+            auditLogWriter.enqueue(new AuditEvent(action, userId, role, null, null, detail, ipAddress, now));
+            return;
+        }
+
+        Key key = new Key(action, username, ipAddress);
+        if (pending.size() >= maxKeys && !pending.containsKey(key)) {
+            auditLogWriter.enqueue(new AuditEvent(action, userId, role, null, null, detail, ipAddress, now));
+            return;
+        }
+        pending.compute(key, (k, window) -> {
+            if (window == null) {
+                return new Window(userId, role, detail, now);
+            }
+            window.add(userId, role, detail, now);
+            collapsed.incrementAndGet();
+            return window;
+        });
+    }
+
+    /**
+     * Fecha a janela: entrega ao writer um evento por chave pendente.
+     * Falhas que chegam durante o flush abrem uma janela nova.
+     */
+    public int flush() {
+        int emitted = 0;
+        for (Key key : pending.keySet()) {
+            Window window = pending.remove(key);
+            if (window != null) {
+                auditLogWriter.enqueue(window.toEvent(key));
+                emitted++;
+            }
+        }
+        if (emitted > 0) {
+            log.debug("{} linhas de falha de login agregadas enviadas ao audit_log", emitted);
+        }
+        return emitted;
+    }
+
+    /** Roda antes do shutdown do {@link AuditLogWriter}, que depende desta ordem para gravar tudo. */
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private record Key(String action, String username, String ipAddress) {
+    }
+
+    /** Estado de uma chave; alterado somente dentro do {@code compute} do mapa. */
+    private static final class Window {
+
+        private Long userId;
+        private String role;
+        private String detail;
+        private final LocalDateTime first;
+        private LocalDateTime last;
+        private int count;
+
+        Window(Long userId, String role, String detail, LocalDateTime at) {
+            this.userId = userId;
+            this.role = role;
+            this.detail = detail;
+            this.first = at;
+            this.last = at;
+            this.count = 1;
+        }
+
+        void add(Long userId, String role, String detail, LocalDateTime at) {
+            if (userId != null) {
+                this.userId = userId;
+                this.role = role;
+            }
+            this.detail = detail;
+            this.last = at;
+            this.count++;
+        }
+
+        AuditEvent toEvent(Key key) {
+            return new AuditEvent(key.action(), userId, role, null, null, detail, key.ipAddress(), last,
+                    count, count > 1 ? first : null);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.dto.LoginStatsHourlyDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura do rollup {@code login_stats_hourly} mantido pelo {@link LoginStatsRollup}.
+ *
+ * O intervalo é limitado a {@value #MAX_RANGE_DAYS} dias: no máximo algumas milhares de linhas
+ * (horas x roles), lidas direto pela chave primária.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoginStatsQueryService {
+
+    public static final int DEFAULT_RANGE_HOURS = 24;
+    public static final int MAX_RANGE_DAYS = 92;
+
+    private static final RowMapper<LoginStatsHourlyDTO> ROW_MAPPER = (rs, rowNum) -> new LoginStatsHourlyDTO(
+            rs.getTimestamp("bucket_start").toLocalDateTime(),
+            rs.getString("role"),
+            rs.getLong("succeeded"),
+            rs.getLong("failed"),
+            rs.getLong("locked"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Contadores por hora e role, em ordem cronológica.
+     *
+     * @param from início (inclusivo), truncado para a hora; padrão {@code to} menos
+     *             {@value #DEFAULT_RANGE_HOURS} horas
+     * @param to   fim (exclusivo); padrão a hora seguinte à atual
+     * @param role filtro opcional de role
+     * @throws IllegalArgumentException se o intervalo for vazio ou maior que o permitido
+     */
+    public List<LoginStatsHourlyDTO> hourly(LocalDateTime from, LocalDateTime to, String role) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime start = (from != null ? from : end.minusHours(DEFAULT_RANGE_HOURS)).truncatedTo(ChronoUnit.HOURS);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Intervalo invalido: 'from' deve ser anterior a 'to'");
+        }
+        if (Duration.between(start, end).compareTo(Duration.ofDays(MAX_RANGE_DAYS)) > 0) {
+            throw new IllegalArgumentException("Intervalo maximo de " + MAX_RANGE_DAYS + " dias");
+        }
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT bucket_start, role, succeeded, failed, locked
+                  FROM login_stats_hourly
+                 WHERE bucket_start >= ? AND bucket_start < ?
+                """);
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(start), Timestamp.valueOf(end)));
+        if (role != null && !role.isBlank()) {
+            sql.append("   AND role = ?\n");
+            args.add(role);
+        }
+        sql.append(" ORDER BY bucket_start, role");
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+}
@@ -0,0 +1,134 @@
+package com.nebula.userService.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manutenção incremental do {@code login_stats_hourly} (logins por hora e por role).
+ *
+ * O {@link AuditLogWriter} entrega aqui cada lote já gravado no {@code audit_log}; os eventos de
+ * login são somados em memória por (hora, role) e aplicados uma vez por ciclo do writer com
+ * upserts que somam os contadores. Os dashboards leem algumas centenas de linhas em vez de varrer
+ * o {@code audit_log}.
+ *
+ * Usado só pela thread do writer (dentro de {@code AuditLogWriter.flush}), sem sincronização.
+ * Se o upsert falhar, os deltas ficam em memória e entram no ciclo seguinte. Falhas agregadas
+ * contam na hora da última ocorrência. Sem role (username inexistente) usa {@value #NO_ROLE}.
+ */
+@Slf4j
+@Component
+class LoginStatsRollup {
+
+    static final String NO_ROLE = "UNKNOWN";
+
+    private static final String UPSERT_PREFIX =
+            "INSERT INTO login_stats_hourly (bucket_start, role, succeeded, failed, locked) VALUES ";
+    private static final String UPSERT_SUFFIX = """
+             ON CONFLICT (bucket_start, role) DO UPDATE
+               SET succeeded = login_stats_hourly.succeeded + EXCLUDED.succeeded,
+                   failed    = login_stats_hourly.failed + EXCLUDED.failed,
+                   locked    = login_stats_hourly.locked + EXCLUDED.locked
+            """;
+    /** Linhas por comando; cada comando é atômico, então um delta nunca é aplicado duas vezes. */
+    private static final int MAX_ROWS_PER_UPSERT = 1000;
+
+    private static final int SUCCEEDED = 0;
+    private static final int FAILED = 1;
+    private static final int LOCKED = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    /** Deltas ainda não aplicados: [succeeded, failed, locked] por (hora, role). */
+    private final Map<Bucket, long[]> pending = new HashMap<>();
+
+    LoginStatsRollup(JdbcTemplate jdbcTemplate,
+                     @Value("${audit.rollup.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /** Soma os eventos de login de um lote já gravado no audit_log (somente memória). */
+    void add(List<AuditEvent> written) {
+        if (!enabled) {
+            return;
+        }
+        for (AuditEvent event : written) {
+            int column = column(event.action());
+            if (column < 0) {
+                continue;
+            }
+            Bucket bucket = new Bucket(event.createdAt().truncatedTo(ChronoUnit.HOURS),
+                    event.role() != null ? event.role() : NO_ROLE);
+            pending.computeIfAbsent(bucket, b -> new long[3])[column] += event.occurrences();
+        }
+    }
+
+    /**
+     * Aplica os deltas pendentes com upserts de várias linhas.
+     *
+     * @return quantidade de linhas (hora, role) atualizadas
+     */
+    int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Bucket, long[]>> rows = new ArrayList<>(pending.entrySet());
+        int applied = 0;
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_UPSERT) {
+            List<Map.Entry<Bucket, long[]>> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_UPSERT, rows.size()));
+            try {
+                upsert(chunk);
+            } catch (DataAccessException e) {
+                log.warn("Falha ao atualizar login_stats_hourly ({} linhas pendentes): {}",
+                        rows.size() - applied, e.getMessage());
+                break;
+            }
+            chunk.forEach(entry -> pending.remove(entry.getKey()));
+            applied += chunk.size();
+        }
+        return applied;
+    }
+
+    private void upsert(List<Map.Entry<Bucket, long[]>> rows) {
+        StringBuilder sql = new StringBuilder(UPSERT_PREFIX);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i > 0 ? ", (?, ?, ?, ?, ?)" : "(?, ?, ?, ?, ?)");
+        }
+        sql.append(UPSERT_SUFFIX);
+        jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (Map.Entry<Bucket, long[]> row : rows) {
+                long[] counts = row.getValue();
+                ps.setTimestamp(index++, Timestamp.valueOf(row.getKey().hour()));
+                ps.setString(index++, row.getKey().role());
+                ps.setLong(index++, counts[SUCCEEDED]);
+                ps.setLong(index++, counts[FAILED]);
+                ps.setLong(index++, counts[LOCKED]);
+            }
+        });
+    }
+
+    private static int column(String action) {
+        return switch (action) {
+            case AuditLogService.LOGIN_SUCCESS -> SUCCEEDED;
+            case AuditLogService.LOGIN_FAILED -> FAILED;
+            case AuditLogService.ACCOUNT_LOCKED -> LOCKED;
+            default -> -1;
+        };
+    }
+
+    private record Bucket(LocalDateTime hour, String role) {
+    }
+}
@@ -33,6 +33,8 @@ public class PasswordResetService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final AuditLogService auditLogService;
+    private final AuthEpochService authEpochService;
+    private final LoginAttemptService loginAttemptService;
 
     /**
      * Solicita a recuperação de senha.
@@ -85,6 +87,8 @@ public class PasswordResetService {
         user.setFailedAttempts(0);
         user.setLockedUntil(null);
         userRepository.save(user);
+        authEpochService.bump(user.getUsername());
+        loginAttemptService.reset(user.getUsername());
 
         resetToken.setUsed(true);
         tokenRepository.save(resetToken);
@@ -111,9 +115,9 @@ public class PasswordResetService {
                 user.getFullName(), TOKEN_EXPIRATION_MINUTES, token
         );
         try {
-            emailService.sendEmail(user.getEmail(), "Recuperacao de senha", body);
-        } catch (EmailService.EmailServiceException ex) {
-            log.error("Falha ao enviar e-mail de reset para usuario ID {}", user.getId(), ex);
+            emailService.queueEmail(user.getEmail(), "Recuperacao de senha", body);
+        } catch (IllegalArgumentException ex) {
+            log.error("E-mail de reset nao enfileirado para usuario ID {}: {}", user.getId(), ex.getMessage());
         }
     }
 }
@@ -0,0 +1,22 @@
+package com.nebula.userService.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resultado de uma checagem de rate limit, com os dados para os cabeçalhos
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining}, {@code RateLimit-Reset} e {@code Retry-After}.
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long resetNanos, long retryAfterNanos) {
+
+    public long resetSeconds() {
+        return toSeconds(resetNanos);
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, toSeconds(retryAfterNanos));
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
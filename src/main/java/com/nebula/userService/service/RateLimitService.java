@@ -1,61 +1,152 @@
 package com.nebula.userService.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.nebula.userService.configs.RateLimitProperties;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.BucketProxy;
 import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
 import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.function.Supplier;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Serviço de rate limiting por IP usando Bucket4j + Redis.
- * Cada IP recebe um bucket independente, persistido no Redis.
+ * Serviço de rate limiting usando Bucket4j + Redis.
+ * Cada combinação política + chave (IP, username, e-mail) recebe um bucket
+ * independente, persistido no Redis. As políticas vêm de {@link RateLimitProperties}.
+ *
+ * Camada local: o proxy de cada chave fica em cache (Caffeine, com eviction) e usa a
+ * otimização "delaying" do Bucket4j — consumos são decididos em memória e sincronizados
+ * com o Redis em lote, a cada {@code rate-limit.local.max-unsynchronized-tokens} tokens ou
+ * {@code rate-limit.local.max-unsynchronized-ms}. Por nó, o limite global pode ser
+ * excedido em no máximo esse número de tokens dentro dessa janela. Um proxy descartado pelo
+ * cache leva junto os tokens ainda não sincronizados (no máximo o mesmo limite).
+ *
+ * Políticas com {@code algorithm: GCRA} usam {@link GcraRateLimiter} (um script Lua por
+ * decisão, sem lote local). A latência de cada decisão é publicada em
+ * {@code rate-limit.decision{algorithm}} para comparar os dois caminhos em produção.
  */
 @Slf4j
 @Service
-public class RateLimitService {
+public class RateLimitService implements MeterBinder {
 
     private final ProxyManager<String> proxyManager;
-    private final Supplier<BucketConfiguration> bucketConfiguration;
+    private final Map<String, BucketConfiguration> configurations = new ConcurrentHashMap<>();
+    private final Optimization optimization;
+    private final Cache<String, BucketProxy> buckets;
+    private final GcraRateLimiter gcraRateLimiter;
+    private volatile Map<RateLimitProperties.Algorithm, Timer> decisionTimers = Map.of();
 
+    @Autowired
     public RateLimitService(
             RedisClient redisClient,
-            @Value("${rate-limit.create-user.capacity:10}") long capacity,
-            @Value("${rate-limit.create-user.refill-tokens:10}") long refillTokens,
-            @Value("${rate-limit.create-user.refill-seconds:60}") long refillSeconds) {
-
-        StatefulRedisConnection<String, byte[]> connection =
-                redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+            GcraRateLimiter gcraRateLimiter,
+            @Value("${rate-limit.local.max-unsynchronized-tokens:5}") long maxUnsynchronizedTokens,
+            @Value("${rate-limit.local.max-unsynchronized-ms:500}") long maxUnsynchronizedMs,
+            @Value("${rate-limit.local.cache-max-size:100000}") long cacheMaxSize,
+            @Value("${rate-limit.local.cache-expire-after-access-ms:600000}") long cacheExpireAfterAccessMs) {
+        this(LettuceBasedProxyManager.builderFor(
+                        redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE))).build(),
+                gcraRateLimiter,
+                Optimizations.delaying(new DelayParameters(maxUnsynchronizedTokens, Duration.ofMillis(maxUnsynchronizedMs))),
+                cacheMaxSize, cacheExpireAfterAccessMs, Ticker.systemTicker());
+    }
 
-        this.proxyManager = LettuceBasedProxyManager.builderFor(connection).build();
+    RateLimitService(ProxyManager<String> proxyManager,
+                     GcraRateLimiter gcraRateLimiter,
+                     Optimization optimization,
+                     long cacheMaxSize,
+                     long cacheExpireAfterAccessMs,
+                     Ticker ticker) {
+        this.proxyManager = proxyManager;
+        this.gcraRateLimiter = gcraRateLimiter;
+        this.optimization = optimization;
 
-        this.bucketConfiguration = () -> BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(capacity)
-                        .refillGreedy(refillTokens, Duration.ofSeconds(refillSeconds))
-                        .build())
+        // Proxies ociosos são descartados; o estado autoritativo continua no Redis
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterAccess(Duration.ofMillis(cacheExpireAfterAccessMs))
+                .ticker(ticker)
+                .recordStats()
                 .build();
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, buckets, "rate-limit.buckets");
+        Map<RateLimitProperties.Algorithm, Timer> timers = new EnumMap<>(RateLimitProperties.Algorithm.class);
+        for (RateLimitProperties.Algorithm algorithm : RateLimitProperties.Algorithm.values()) {
+            timers.put(algorithm, Timer.builder("rate-limit.decision")
+                    .description("Latência de uma decisão de rate limit")
+                    .tag("algorithm", algorithm.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        decisionTimers = timers;
+    }
+
     /**
-     * Tenta consumir 1 token do bucket do IP informado.
+     * Tenta consumir 1 token do bucket da política para a chave informada.
      *
-     * @param clientIp endereço IP do cliente
-     * @return true se a requisição é permitida, false se o limite foi atingido
+     * @param policy política que casou com a requisição
+     * @param key    valor da chave (IP, username ou e-mail, já normalizado)
+     * @return decisão com os dados para os cabeçalhos RateLimit-*
      */
-    public boolean tryConsume(String clientIp) {
-        String key = "rate_limit:create_user:" + clientIp;
+    public RateLimitDecision tryConsume(RateLimitProperties.Policy policy, String key) {
+        long start = System.nanoTime();
+        try {
+            return switch (policy.getAlgorithm()) {
+                case GCRA -> gcraRateLimiter.tryConsume(policy, "rate_limit:gcra:" + policy.getName() + ":" + key);
+                case BUCKET4J -> tryConsumeBucket(policy, "rate_limit:" + policy.getName() + ":" + key);
+            };
+        } finally {
+            Timer timer = decisionTimers.get(policy.getAlgorithm());
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private RateLimitDecision tryConsumeBucket(RateLimitProperties.Policy policy, String bucketKey) {
+        ConsumptionProbe probe = buckets.get(bucketKey, k -> newBucket(k, policy)).tryConsumeAndReturnRemaining(1);
+        return new RateLimitDecision(probe.isConsumed(), policy.getCapacity(), probe.getRemainingTokens(),
+                probe.getNanosToWaitForReset(), probe.getNanosToWaitForRefill());
+    }
+
+    private BucketProxy newBucket(String key, RateLimitProperties.Policy policy) {
         return proxyManager.builder()
-                .build(key, bucketConfiguration)
-                .tryConsume(1);
+                .withOptimization(optimization)
+                .build(key, () -> configurations.computeIfAbsent(policy.getName(), name -> configurationOf(policy)));
+    }
+
+    private static BucketConfiguration configurationOf(RateLimitProperties.Policy policy) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(policy.getCapacity())
+                        .refillGreedy(policy.getRefillTokens(), Duration.ofSeconds(policy.getRefillSeconds()))
+                        .build())
+                .build();
     }
 }
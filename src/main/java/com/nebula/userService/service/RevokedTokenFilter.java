@@ -0,0 +1,162 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Filtro local (por nó) na frente da blacklist do Redis.
+ *
+ * Mantém um {@link RevocationBloomFilter} com os ids revogados: carregado do Redis
+ * na inicialização, alimentado pelo canal {@value #CHANNEL} a cada {@code blacklist()}
+ * e reconstruído a cada {@code jwt.blacklist.filter.rebuild-interval-ms}, descartando ids
+ * já expirados. Como o pub/sub não garante entrega, o filtro também é reconstruído sempre
+ * que o canal é reassinado após uma queda da conexão — é quando mensagens podem se perder.
+ * Enquanto não estiver carregado, {@link #mightBeRevoked(String)} responde sempre true
+ * e a consulta segue para o Redis.
+ */
+@Slf4j
+@Component
+public class RevokedTokenFilter implements MessageListener, SubscriptionListener, MeterBinder {
+
+    static final String CHANNEL = "blacklist:revoked";
+    private static final long SCAN_BATCH = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Executor rebuildExecutor;
+
+    private volatile RevocationBloomFilter current;
+
+    /** Prefixo da última reconstrução; nulo até a carga inicial. */
+    private volatile String keyPrefix;
+
+    /** Filtro em reconstrução; recebe também as revogações que chegam durante o SCAN. */
+    private volatile RevocationBloomFilter rebuilding;
+
+    @Autowired
+    public RevokedTokenFilter(StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${jwt.blacklist.filter.expected-insertions:1000000}") long expectedInsertions,
+                              @Value("${jwt.blacklist.filter.false-positive-rate:0.001}") double falsePositiveRate) {
+        this(redisTemplate, listenerContainer, expectedInsertions, falsePositiveRate, ForkJoinPool.commonPool());
+    }
+
+    RevokedTokenFilter(StringRedisTemplate redisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       long expectedInsertions,
+                       double falsePositiveRate,
+                       Executor rebuildExecutor) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildExecutor = rebuildExecutor;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        // Assina antes da carga inicial para não perder revogações feitas durante o SCAN
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jwt.blacklist.filter.fill", this, filter -> {
+                    RevocationBloomFilter bloom = filter.current;
+                    return bloom != null ? bloom.fillRatio() : 0;
+                })
+                .description("Fração de bits ligados no filtro de tokens revogados")
+                .register(registry);
+    }
+
+    /** false significa "certamente não revogado"; true exige confirmação no Redis. */
+    public boolean mightBeRevoked(String revocationId) {
+        RevocationBloomFilter bloom = current;
+        return bloom == null || bloom.mightContain(revocationId);
+    }
+
+    /** Registra a revogação localmente e a propaga para os demais nós. */
+    public void publish(String revocationId) {
+        add(revocationId);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, revocationId);
+        } catch (Exception e) {
+            log.warn("Falha ao publicar revogacao {}: {}", revocationId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Canal (re)assinado. Após uma reconexão, revogações publicadas no intervalo se perderam:
+     * reconstrói o filtro fora da thread do listener.
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        String prefix = keyPrefix;
+        if (prefix != null) {
+            rebuildExecutor.execute(() -> rebuild(prefix));
+        }
+    }
+
+    /**
+     * Reconstrói o filtro a partir das chaves vivas no Redis e o troca atomicamente.
+     * Reconstruções concorrentes (agendada e por reconexão) são serializadas.
+     * Em caso de falha, mantém o filtro atual (ou continua consultando o Redis, se não houver).
+     */
+    public synchronized void rebuild(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+        RevocationBloomFilter fresh = new RevocationBloomFilter(expectedInsertions, falsePositiveRate);
+        rebuilding = fresh;
+        long loaded = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(SCAN_BATCH).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                fresh.put(keys.next().substring(keyPrefix.length()));
+                loaded++;
+            }
+            current = fresh;
+            log.info("Filtro de tokens revogados reconstruido com {} ids", loaded);
+        } catch (Exception e) {
+            log.warn("Falha ao reconstruir filtro de tokens revogados: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void add(String revocationId) {
+        // Lê o filtro em reconstrução antes do atual: se a troca acontecer no meio,
+        // o id cai no filtro novo (ou já estava no Redis antes do SCAN começar)
+        RevocationBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(revocationId);
+        }
+        RevocationBloomFilter bloom = current;
+        if (bloom != null) {
+            bloom.put(revocationId);
+        }
+    }
+}
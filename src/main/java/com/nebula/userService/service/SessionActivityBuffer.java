@@ -0,0 +1,93 @@
+package com.nebula.userService.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffer write-behind do {@code last_seen_at} das sessões.
+ *
+ * O filtro JWT registra cada uso da sessão apenas em memória; o último horário
+ * visto por sessionId é coalescido e gravado periodicamente em um único lote
+ * de UPDATEs (ver {@code ScheduledTasks}) e também no shutdown.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionActivityBuffer {
+
+    private static final String UPDATE_LAST_SEEN = """
+            UPDATE user_sessions SET last_seen_at = ?
+             WHERE session_id = ? AND (last_seen_at IS NULL OR last_seen_at < ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    /** Registra que a sessão foi usada agora (somente memória). */
+    public void touch(String sessionId) {
+        record(sessionId, LocalDateTime.now());
+    }
+
+    /** Retorna o horário mais recente entre o persistido e o ainda pendente em memória. */
+    public LocalDateTime lastSeen(String sessionId, LocalDateTime persisted) {
+        LocalDateTime buffered = pending.get(sessionId);
+        if (buffered == null) {
+            return persisted;
+        }
+        return persisted == null || buffered.isAfter(persisted) ? buffered : persisted;
+    }
+
+    /**
+     * Grava todos os horários pendentes em um único lote JDBC.
+     * Em caso de falha, as entradas voltam para o buffer e serão regravadas no próximo ciclo.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (String sessionId : pending.keySet()) {
+            LocalDateTime seenAt = pending.remove(sessionId);
+            if (seenAt != null) {
+                batch.add(Map.entry(sessionId, seenAt));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN, batch, batch.size(), (ps, entry) -> {
+                Timestamp seenAt = Timestamp.valueOf(entry.getValue());
+                ps.setTimestamp(1, seenAt);
+                ps.setString(2, entry.getKey());
+                ps.setTimestamp(3, seenAt);
+            });
+            log.debug("last_seen_at atualizado para {} sessoes", batch.size());
+        } catch (Exception e) {
+            batch.forEach(entry -> record(entry.getKey(), entry.getValue()));
+            log.warn("Falha ao gravar last_seen_at de {} sessoes: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void record(String sessionId, LocalDateTime seenAt) {
+        pending.merge(sessionId, seenAt, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,6 +26,9 @@ public class SessionService {
     private final JwtConfig jwtConfig;
     private final WebhookService webhookService;
     private final AuditLogService auditLogService;
+    private final SessionActivityBuffer sessionActivityBuffer;
+    private final SessionStateCache sessionStateCache;
+    private final AuthEpochService authEpochService;
 
     public UserSessionEntity createSession(UserEntity user, String ipAddress, String userAgent) {
         String sessionId = UUID.randomUUID().toString();
@@ -53,7 +55,8 @@ public class SessionService {
 
     public List<UserSessionDTO> listSessions(String username) {
         return userSessionRepository.findByUserUsername(username).stream()
-                .map(UserSessionDTO::fromEntity)
+                .map(session -> UserSessionDTO.fromEntity(session,
+                        sessionActivityBuffer.lastSeen(session.getSessionId(), session.getLastSeenAt())))
                 .collect(Collectors.toList());
     }
 
@@ -67,6 +70,7 @@ public class SessionService {
         if (!session.isRevoked()) {
             session.setRevoked(true);
             userSessionRepository.save(session);
+            sessionStateCache.invalidateSession(sessionId);
             auditLogService.log(AuditLogService.LOGOUT, session.getUser(), "Session", null,
                     "Sessão revogada: " + sessionId, ipAddress);
             webhookService.publishEvent("SESSION_REVOKED", createPayload(username, sessionId, ipAddress, session.getUserAgent()));
@@ -79,24 +83,23 @@ public class SessionService {
                 .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
 
         int revokedCount = userSessionRepository.revokeAllByUserId(user.getId());
+        sessionStateCache.invalidateUser(username);
+        authEpochService.bump(username);
         auditLogService.log(AuditLogService.LOGOUT, user, "Session", null,
                 "Todas as sessões revogadas: " + revokedCount, ipAddress);
         webhookService.publishEvent("ALL_SESSIONS_REVOKED", createPayload(username, null, ipAddress, null));
     }
 
     public boolean isSessionActive(String sessionId, String username) {
-        Optional<UserSessionEntity> session = userSessionRepository.findBySessionId(sessionId);
-        return session.filter(UserSessionEntity::isActive)
-                .filter(s -> s.getUser().getUsername().equals(username))
-                .isPresent();
+        return sessionStateCache.isActive(sessionId, username);
     }
 
-    @Transactional
+    /**
+     * Marca a sessão como usada agora. A gravação de last_seen_at é coalescida
+     * em memória e persistida em lote pelo {@link SessionActivityBuffer}.
+     */
     public void refreshSession(String sessionId) {
-        userSessionRepository.findBySessionId(sessionId).ifPresent(session -> {
-            session.setLastSeenAt(LocalDateTime.now());
-            userSessionRepository.save(session);
-        });
+        sessionActivityBuffer.touch(sessionId);
     }
 
     private WebhookService.EventPayload createPayload(String username, String sessionId, String ipAddress, String userAgent) {
@@ -0,0 +1,151 @@
+package com.nebula.userService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.nebula.userService.dto.SessionStateDTO;
+import com.nebula.userService.repository.UserSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache local (por nó) do estado das sessões consultado a cada requisição autenticada.
+ *
+ * Revogações publicam uma mensagem no canal Redis {@value #CHANNEL} após o commit;
+ * todos os nós removem as entradas afetadas, então a revogação vale no cluster
+ * em milissegundos enquanto as checagens de sessão ativa ficam em memória.
+ *
+ * Sessões inexistentes também ficam em cache (entrada negativa), para que tokens de sessões
+ * apagadas não consultem o banco a cada requisição. Um índice por username permite invalidar
+ * as sessões de um usuário sem percorrer o cache inteiro.
+ */
+@Slf4j
+@Component
+public class SessionStateCache implements MessageListener, MeterBinder {
+
+    static final String CHANNEL = "sessions:invalidate";
+    private static final String SESSION_PREFIX = "s:";
+    private static final String USER_PREFIX = "u:";
+    /** Marcador de sessão inexistente; nunca ativa. */
+    private static final SessionStateDTO MISSING = new SessionStateDTO(true, "", null);
+
+    private final UserSessionRepository userSessionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<String, SessionStateDTO> states;
+    /** sessionIds em cache por username; mantido pelo loader e pelo removal listener. */
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    public SessionStateCache(UserSessionRepository userSessionRepository,
+                             StringRedisTemplate redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             @Value("${sessions.cache.max-size:100000}") long maxSize,
+                             @Value("${sessions.cache.ttl-ms:30000}") long ttlMs) {
+        this.userSessionRepository = userSessionRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        // O TTL curto limita a janela de inconsistência caso uma mensagem de invalidação se perca
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .executor(Runnable::run)
+                .<String, SessionStateDTO>removalListener(this::unindex)
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, states, "sessions.state");
+    }
+
+    /** Verifica a sessão em memória; só consulta o banco em caso de miss. */
+    public boolean isActive(String sessionId, String username) {
+        SessionStateDTO state = states.get(sessionId, this::load);
+        return state != MISSING && state.isActiveFor(username);
+    }
+
+    /** Invalida uma sessão em todos os nós (após o commit da transação corrente). */
+    public void invalidateSession(String sessionId) {
+        publishAfterCommit(SESSION_PREFIX + sessionId);
+    }
+
+    /** Invalida todas as sessões de um usuário em todos os nós. */
+    public void invalidateUser(String username) {
+        publishAfterCommit(USER_PREFIX + username);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        apply(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void publishAfterCommit(String invalidation) {
+        TransactionHooks.afterCommit(() -> publish(invalidation));
+    }
+
+    private void publish(String invalidation) {
+        apply(invalidation);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, invalidation);
+        } catch (Exception e) {
+            log.warn("Falha ao publicar invalidacao de sessao {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    private void apply(String invalidation) {
+        if (invalidation.startsWith(SESSION_PREFIX)) {
+            states.invalidate(invalidation.substring(SESSION_PREFIX.length()));
+        } else if (invalidation.startsWith(USER_PREFIX)) {
+            Set<String> sessionIds = sessionsByUser.remove(invalidation.substring(USER_PREFIX.length()));
+            if (sessionIds != null) {
+                states.invalidateAll(sessionIds);
+            }
+        }
+    }
+
+    private SessionStateDTO load(String sessionId) {
+        SessionStateDTO state = userSessionRepository.findStateBySessionId(sessionId).orElse(null);
+        if (state == null) {
+            return MISSING;
+        }
+        // compute, não computeIfAbsent + add: o unindex pode remover o conjunto vazio entre os dois
+        sessionsByUser.compute(state.getUsername(), (username, sessionIds) -> {
+            Set<String> ids = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+            ids.add(sessionId);
+            return ids;
+        });
+        return state;
+    }
+
+    private void unindex(String sessionId, SessionStateDTO state, RemovalCause cause) {
+        if (sessionId == null || state == null || state == MISSING) {
+            return;
+        }
+        sessionsByUser.computeIfPresent(state.getUsername(), (username, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+}
@@ -1,47 +1,169 @@
 package com.nebula.userService.service;
 
-import lombok.RequiredArgsConstructor;
+import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.VerifiedToken;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Gerencia a blacklist de tokens JWT via Redis.
  * Tokens adicionados à blacklist são considerados inválidos mesmo que ainda não tenham expirado.
+ *
+ * As chaves usam o identificador compacto do token ({@link VerifiedToken#revocationId()}:
+ * jti ou digest de 16 bytes), não o JWT inteiro.
+ *
+ * {@code jwt.blacklist.legacy-lookup} vem desligado. Só é ligado durante o rolling deploy a
+ * partir da versão que gravava {@code blacklist:token:<jwt>}: enquanto ativo, a chave antiga
+ * também é consultada e as chaves antigas são migradas periodicamente (ver
+ * {@code ScheduledTasks}) para o id correto. Deve voltar a {@code false} assim que nenhum nó
+ * antigo restar e o maior TTL de token ({@code jwt.refresh-expiration-ms}) tiver passado.
+ * A migração roda em um nó por intervalo (lock no Redis) e publica os ids migrados nos filtros.
+ *
+ * Checagens de access tokens passam antes pelo {@link RevokedTokenFilter} local:
+ * "certamente não revogado" dispensa o Redis, inclusive com a consulta legada ligada. Uma
+ * revogação feita por nó antigo passa a valer aqui após a próxima migração
+ * ({@code jwt.blacklist.legacy-migration-interval-ms}).
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TokenBlacklistService {
 
-    private static final String BLACKLIST_PREFIX = "blacklist:token:";
+    private static final String BLACKLIST_PREFIX = "blacklist:jti:";
+    private static final String LEGACY_PREFIX = "blacklist:token:";
+    private static final String MIGRATION_LOCK = "blacklist:migration:lock";
+    private static final String REVOKED = "1";
+    private static final long SCAN_BATCH = 1000;
 
     private final StringRedisTemplate redisTemplate;
+    private final RevokedTokenFilter revokedTokenFilter;
+    private final JwtConfig jwtConfig;
+    private final boolean legacyLookup;
+    private final Duration migrationInterval;
+
+    public TokenBlacklistService(StringRedisTemplate redisTemplate,
+                                 RevokedTokenFilter revokedTokenFilter,
+                                 JwtConfig jwtConfig,
+                                 @Value("${jwt.blacklist.legacy-lookup:false}") boolean legacyLookup,
+                                 @Value("${jwt.blacklist.legacy-migration-interval-ms:60000}") long migrationIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.revokedTokenFilter = revokedTokenFilter;
+        this.jwtConfig = jwtConfig;
+        this.legacyLookup = legacyLookup;
+        this.migrationInterval = Duration.ofMillis(migrationIntervalMs);
+    }
 
     /**
      * Adiciona um token à blacklist pelo tempo restante até expiração.
      *
-     * @param token         o token JWT a ser invalidado
-     * @param ttlMillis     tempo de vida restante do token em milissegundos
+     * @param token o token já verificado a ser invalidado
      */
-    public void blacklist(String token, long ttlMillis) {
+    public void blacklist(VerifiedToken token) {
+        long ttlMillis = token.remainingMillis();
         if (ttlMillis <= 0) {
             return;
         }
-        String key = BLACKLIST_PREFIX + token;
-        redisTemplate.opsForValue().set(key, "revoked", Duration.ofMillis(ttlMillis));
+        redisTemplate.opsForValue().set(BLACKLIST_PREFIX + token.revocationId(), REVOKED, Duration.ofMillis(ttlMillis));
+        revokedTokenFilter.publish(token.revocationId());
         log.debug("Token adicionado à blacklist. TTL: {}ms", ttlMillis);
     }
 
     /**
      * Verifica se um token está na blacklist.
      *
-     * @param token o token JWT a verificar
+     * @param rawToken o JWT original (usado apenas na consulta da chave legada)
+     * @param token    a visão verificada do mesmo token
      * @return true se o token foi revogado
      */
-    public boolean isBlacklisted(String token) {
-        return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + token));
+    public boolean isBlacklisted(String rawToken, VerifiedToken token) {
+        // Refresh tokens (raros e de vida longa) sempre confirmam no Redis
+        if (token.isAccessToken() && !revokedTokenFilter.mightBeRevoked(token.revocationId())) {
+            return false;
+        }
+        String key = BLACKLIST_PREFIX + token.revocationId();
+        if (legacyLookup) {
+            // A chave antiga pode ter sido gravada por um nó ainda na versão anterior: um único EXISTS
+            Long found = redisTemplate.countExistingKeys(List.of(key, LEGACY_PREFIX + rawToken));
+            return found != null && found > 0;
+        }
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+    }
+
+    /** Migra as chaves legadas e só então carrega o filtro local com as revogações vivas. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        migrateLegacyKeys();
+        rebuildFilter();
+    }
+
+    /**
+     * Reconstrói o filtro local a partir do Redis, descartando ids já expirados.
+     * Executado a cada {@code jwt.blacklist.filter.rebuild-interval-ms} (ver {@code ScheduledTasks}).
+     */
+    public void rebuildFilter() {
+        revokedTokenFilter.rebuild(BLACKLIST_PREFIX);
+    }
+
+    /**
+     * Reescreve as chaves no formato antigo para o formato compacto, preservando o TTL restante,
+     * e propaga os ids migrados para os filtros locais. Idempotente; o lock no Redis evita que
+     * todos os nós varram o keyspace no mesmo intervalo. Não faz nada com
+     * {@code jwt.blacklist.legacy-lookup} desligado.
+     */
+    public void migrateLegacyKeys() {
+        if (!legacyLookup) {
+            return;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(MIGRATION_LOCK, REVOKED, migrationInterval))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao obter o lock de migracao da blacklist: {}", e.getMessage());
+            return;
+        }
+        int migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_PREFIX + "*").count(SCAN_BATCH).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String legacyKey = keys.next();
+                Long ttlMillis = redisTemplate.getExpire(legacyKey, TimeUnit.MILLISECONDS);
+                if (ttlMillis != null && ttlMillis > 0) {
+                    String revocationId = revocationId(legacyKey.substring(LEGACY_PREFIX.length()));
+                    redisTemplate.opsForValue().set(BLACKLIST_PREFIX + revocationId,
+                            REVOKED, Duration.ofMillis(ttlMillis));
+                    revokedTokenFilter.publish(revocationId);
+                    migrated++;
+                }
+                redisTemplate.delete(legacyKey);
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao migrar chaves legadas da blacklist: {}", e.getMessage());
+        }
+        if (migrated > 0) {
+            log.info("Blacklist: {} chaves legadas migradas para o formato compacto", migrated);
+        }
+    }
+
+    /**
+     * Mesmo id que o filtro JWT verá para o token: o jti, ou o digest se não houver.
+     * Não passa pelo cache de tokens verificados — o token já está revogado.
+     */
+    private String revocationId(String rawToken) {
+        try {
+            return jwtConfig.parseTokenUncached(rawToken).revocationId();
+        } catch (Exception e) {
+            // Assinatura antiga ou token malformado: não será aceito mesmo, o digest basta
+            return VerifiedToken.digestId(rawToken);
+        }
     }
 }
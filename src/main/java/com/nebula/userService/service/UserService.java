@@ -43,6 +43,8 @@ public class UserService {
     private final EmailService emailService;
     private final AuditLogService auditLogService;
     private final WebhookService webhookService;
+    private final AuthEpochService authEpochService;
+    private final LoginAttemptService loginAttemptService;
 
     @Transactional
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) {
@@ -94,6 +96,8 @@ public class UserService {
 
         existingUser.setPermissions(dto.getPermissions());
         UserEntity saved = userRepository.save(existingUser);
+        // Access tokens antigos carregam as permissões anteriores
+        authEpochService.bump(saved.getUsername());
         auditLogService.log(AuditLogService.USER_UPDATED, saved,
                 "User", saved.getId(), "Permissões atualizadas: " + dto.getPermissions(), null);
         return UserResponseDTO.fromEntity(saved);
@@ -130,6 +134,8 @@ public class UserService {
         user.setFailedAttempts(0);
         user.setLockedUntil(null);
         userRepository.save(user);
+        authEpochService.bump(user.getUsername());
+        loginAttemptService.reset(user.getUsername());
 
         auditLogService.log(AuditLogService.PASSWORD_CHANGED, user,
                 "Troca de senha realizada pelo proprio usuario", ipAddress);
@@ -243,15 +249,16 @@ public class UserService {
                 .orElseThrow(() -> new EntityNotFoundException("Usuario autenticado nao encontrado"));
     }
 
+    /** Enfileira o e-mail de confirmação; o envio SMTP acontece fora da requisição. */
     public void sendConfirmationEmail(UserEntity user) {
         try {
-            emailService.sendEmail(
+            emailService.queueEmail(
                     user.getEmail(),
                     "Cadastro realizado com sucesso",
                     "Olá " + user.getFullName() + ",\n\nSeu cadastro foi realizado com sucesso!"
             );
-        } catch (EmailService.EmailServiceException ex) {
-            log.error("Falha no envio de e-mail de confirmação", ex);
+        } catch (IllegalArgumentException ex) {
+            log.error("E-mail de confirmação não enfileirado: {}", ex.getMessage());
         }
     }
 }
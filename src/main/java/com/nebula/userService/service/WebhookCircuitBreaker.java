@@ -0,0 +1,66 @@
+package com.nebula.userService.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker de um endpoint de webhook.
+ *
+ * Fechado: tudo passa. Após {@code failureThreshold} falhas consecutivas abre por
+ * {@code openMillis}; vencido esse prazo, deixa passar uma única requisição de teste
+ * (meio-aberto) — sucesso fecha o circuito, falha reabre.
+ */
+class WebhookCircuitBreaker {
+
+    /** Resultado de {@link #tryAcquire()}: {@code TRIAL} é a única chamada do meio-aberto. */
+    enum Permit { DENIED, CLOSED, TRIAL }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntil;
+
+    WebhookCircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Decide se a chamada pode seguir; no estado meio-aberto, só a primeira passa, como
+     * {@code TRIAL}. Quem recebe {@code TRIAL} precisa registrar o resultado
+     * ({@link #onSuccess()}/{@link #onFailure()}), senão o circuito não sai do meio-aberto.
+     */
+    Permit tryAcquire() {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return Permit.CLOSED;
+        }
+        return clock.getAsLong() >= openUntil && trialInFlight.compareAndSet(false, true)
+                ? Permit.TRIAL : Permit.DENIED;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        trialInFlight.set(false);
+    }
+
+    void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil = clock.getAsLong() + openMillis;
+        }
+        trialInFlight.set(false);
+    }
+
+    boolean isOpen() {
+        return consecutiveFailures.get() >= failureThreshold;
+    }
+
+    /** Instante (ms) a partir do qual vale tentar de novo. */
+    long retryAt() {
+        return isOpen() ? Math.max(openUntil, clock.getAsLong()) : clock.getAsLong();
+    }
+}
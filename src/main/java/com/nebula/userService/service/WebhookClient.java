@@ -0,0 +1,288 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Envio HTTP dos eventos de webhook.
+ *
+ * Um único {@link HttpClient} (HTTP/2 com fallback para HTTP/1.1) mantém as conexões abertas
+ * e reaproveitadas entre entregas. Cada endpoint (esquema + host + porta) tem seu próprio
+ * limite de requisições simultâneas e um {@link WebhookCircuitBreaker}: um receptor fora do ar
+ * deixa de receber tráfego até o circuito permitir uma nova tentativa.
+ *
+ * Com segredo, cada requisição leva {@code X-Webhook-Timestamp} e
+ * {@code X-Webhook-Signature: sha256=<hex>}, o HMAC-SHA256 de {@code <timestamp>.<corpo JSON>}
+ * (antes do gzip), para o receptor validar a origem e recusar reenvios antigos.
+ * Endpoints em modo lote recebem um array JSON por requisição ({@link #sendBatch}).
+ *
+ * Acima do limite de concorrência, os envios esperam numa fila em memória do endpoint e saem
+ * conforme as respostas chegam — sem voltar ao banco. Envios recusados com o circuito aberto
+ * falham com {@link EndpointUnavailableException}, que o dispatcher reagenda para quando o
+ * circuito permitir, sem contar tentativa.
+ */
+@Component
+public class WebhookClient implements MeterBinder {
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxConcurrencyPerEndpoint;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public WebhookClient(@Value("${webhooks.timeout-ms:2000}") int timeoutMs,
+                         @Value("${webhooks.client.max-concurrency-per-endpoint:8}") int maxConcurrencyPerEndpoint,
+                         @Value("${webhooks.client.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                         @Value("${webhooks.client.circuit-breaker.open-ms:30000}") long openMillis) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+        this.maxConcurrencyPerEndpoint = maxConcurrencyPerEndpoint;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("webhooks.circuit.open", endpoints,
+                        map -> map.values().stream().filter(endpoint -> endpoint.breaker.isOpen()).count())
+                .description("Endpoints de webhook com o circuito aberto")
+                .register(registry);
+        Gauge.builder("webhooks.endpoint.queued", endpoints,
+                        map -> map.values().stream().mapToInt(endpoint -> endpoint.waiting.size()).sum())
+                .description("Envios de webhook aguardando vaga no limite de concorrência do endpoint")
+                .register(registry);
+    }
+
+    /**
+     * Envia um evento já serializado, sem bloquear a thread chamadora.
+     *
+     * @param deliveryId id da linha do outbox, enviado em {@code X-Webhook-Id} para o receptor
+     *                   descartar duplicatas (a entrega é "at least once")
+     * @param secret     segredo HMAC da assinatura, ou null para não assinar
+     * @return future concluído com sucesso só para respostas 2xx
+     */
+    public CompletableFuture<Void> send(String url, String eventType, Long deliveryId, String body, String secret) {
+        byte[] json = body.getBytes(StandardCharsets.UTF_8);
+        return post(url, builder -> {
+            builder.header("X-Webhook-Event", eventType)
+                    .header("X-Webhook-Id", String.valueOf(deliveryId))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json));
+            sign(builder, json, secret);
+        });
+    }
+
+    /**
+     * Envia vários eventos já serializados como um único array JSON.
+     *
+     * @param deliveryIds ids das linhas do outbox, na ordem do array, em {@code X-Webhook-Ids}
+     * @param gzip        comprime o corpo ({@code Content-Encoding: gzip})
+     * @param secret      segredo HMAC da assinatura, ou null para não assinar
+     */
+    public CompletableFuture<Void> sendBatch(String url, List<Long> deliveryIds, List<String> payloads,
+                                             boolean gzip, String secret) {
+        byte[] json = ("[" + String.join(",", payloads) + "]").getBytes(StandardCharsets.UTF_8);
+        byte[] body = json;
+        if (gzip) {
+            try {
+                body = gzip(json);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        String ids = deliveryIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        byte[] requestBody = body;
+        return post(url, builder -> {
+            builder.header("X-Webhook-Batch-Size", String.valueOf(payloads.size()))
+                    .header("X-Webhook-Ids", ids)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody));
+            if (gzip) {
+                builder.header("Content-Encoding", "gzip");
+            }
+            sign(builder, json, secret);
+        });
+    }
+
+    static void sign(HttpRequest.Builder builder, byte[] json, String secret) {
+        if (secret == null) {
+            return;
+        }
+        String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        builder.header("X-Webhook-Timestamp", timestamp)
+                .header("X-Webhook-Signature", "sha256=" + hmacSha256Hex(secret, timestamp, json));
+    }
+
+    static String hmacSha256Hex(String secret, String timestamp, byte[] json) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update((timestamp + ".").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(mac.doFinal(json));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponivel", e);
+        }
+    }
+
+    private CompletableFuture<Void> post(String url, Consumer<HttpRequest.Builder> customizer) {
+        // Monta a requisição antes de ocupar vaga ou teste do circuito: uma falha aqui não vaza nada
+        URI uri;
+        HttpRequest request;
+        try {
+            uri = URI.create(url);
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json");
+            customizer.accept(builder);
+            request = builder.build();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Endpoint endpoint = endpoints.computeIfAbsent(endpointKey(uri), key -> new Endpoint());
+        // O tipo da vaga vem do próprio breaker: decidir antes abriria corrida com a abertura do circuito
+        WebhookCircuitBreaker.Permit permit = endpoint.breaker.tryAcquire();
+        if (permit == WebhookCircuitBreaker.Permit.DENIED) {
+            return CompletableFuture.failedFuture(
+                    new EndpointUnavailableException("Circuito aberto para " + uri.getHost(), endpoint.breaker.retryAt()));
+        }
+        boolean trial = permit == WebhookCircuitBreaker.Permit.TRIAL;
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        endpoint.waiting.add(() -> start(endpoint, uri, request, trial, result));
+        endpoint.drain();
+        return result;
+    }
+
+    /**
+     * Roda com uma vaga do endpoint já reservada; a vaga é devolvida quando a resposta chega.
+     * O envio de teste sempre chega ao receptor, e o resultado libera o meio-aberto.
+     */
+    private void start(Endpoint endpoint, URI uri, HttpRequest request, boolean trial, CompletableFuture<Void> result) {
+        if (!trial && endpoint.breaker.isOpen()) {
+            // O circuito abriu enquanto o envio esperava na fila
+            endpoint.release();
+            result.completeExceptionally(
+                    new EndpointUnavailableException("Circuito aberto para " + uri.getHost(), endpoint.breaker.retryAt()));
+            return;
+        }
+
+        CompletableFuture<HttpResponse<Void>> sent;
+        try {
+            sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((response, error) -> {
+            Throwable failure = error != null ? unwrap(error) : null;
+            if (failure == null && response.statusCode() / 100 != 2) {
+                failure = new WebhookDeliveryException("HTTP " + response.statusCode() + " de " + uri.getHost());
+            }
+            if (failure == null) {
+                endpoint.breaker.onSuccess();
+            } else {
+                endpoint.breaker.onFailure();
+            }
+            // Resultado registrado antes de liberar a vaga: o próximo da fila já vê o circuito atualizado
+            endpoint.release();
+            if (failure == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static String endpointKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+    }
+
+    private final class Endpoint {
+        private final Semaphore permits = new Semaphore(maxConcurrencyPerEndpoint);
+        /** Envios aguardando vaga, em ordem de chegada. */
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        private final WebhookCircuitBreaker breaker =
+                new WebhookCircuitBreaker(failureThreshold, openMillis, System::currentTimeMillis);
+
+        /**
+         * Inicia os envios da fila enquanto houver vaga. Quem enfileira e quem libera vaga chamam
+         * depois de publicar sua mudança, então nenhum envio fica parado com vaga livre.
+         */
+        void drain() {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    permits.release();
+                } else {
+                    next.run();
+                }
+            }
+        }
+
+        void release() {
+            permits.release();
+            drain();
+        }
+    }
+
+    /** Resposta fora de 2xx do receptor. */
+    public static class WebhookDeliveryException extends RuntimeException {
+        public WebhookDeliveryException(String message) {
+            super(message);
+        }
+    }
+
+    /** Envio não tentado: circuito aberto para o endpoint. */
+    @Getter
+    public static class EndpointUnavailableException extends RuntimeException {
+        private final long retryAtMillis;
+
+        public EndpointUnavailableException(String message, long retryAtMillis) {
+            super(message);
+            this.retryAtMillis = retryAtMillis;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.WebhookBatchingProperties;
+import com.nebula.userService.entities.WebhookOutboxEntity;
+import com.nebula.userService.enums.WebhookOutboxStatus;
+import com.nebula.userService.repository.WebhookOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Entrega em segundo plano dos eventos do {@code webhook_outbox}.
+ *
+ * A cada ciclo reivindica um lote vencido (FOR UPDATE SKIP LOCKED) e empurra o
+ * {@code next_attempt_at} para frente por {@code webhooks.dispatcher.lease-ms}, numa transação
+ * curta; o HTTP acontece fora dela, sem segurar conexão do banco. Falhas são reagendadas com
+ * backoff exponencial (com jitter) e, após {@code max-attempts}, a linha vai para DEAD.
+ * Se o nó cair no meio da entrega, o lease vence e outro nó reenvia o evento.
+ *
+ * As entregas do lote saem em paralelo pelo {@link WebhookClient}, que segura em memória o que
+ * passar do limite de concorrência de cada endpoint; eventos recusados com o circuito aberto
+ * voltam para a fila sem gastar tentativa.
+ * Eventos de endpoints configurados em {@link WebhookBatchingProperties} são agrupados por URL
+ * e enviados como arrays de até {@code max-events}; o lote inteiro tem sucesso ou falha junto.
+ * Um lote que falha é reagendado inteiro para o fim de uma mesma janela (sem jitter por linha),
+ * então os eventos voltam juntos — e com os novos da janela — no próximo envio.
+ */
+@Slf4j
+@Service
+public class WebhookDispatcher implements MeterBinder {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final WebhookOutboxRepository webhookOutboxRepository;
+    private final WebhookClient webhookClient;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookBatchingProperties batchingProperties;
+    private final WebhookSubscriptionIndex subscriptionIndex;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseMs;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    private volatile Counter deliveredCounter;
+    private volatile Counter retriedCounter;
+    private volatile Counter deadCounter;
+    private volatile Counter deferredCounter;
+
+    public WebhookDispatcher(WebhookOutboxRepository webhookOutboxRepository,
+                             WebhookClient webhookClient,
+                             TransactionTemplate transactionTemplate,
+                             WebhookBatchingProperties batchingProperties,
+                             WebhookSubscriptionIndex subscriptionIndex,
+                             @Value("${webhooks.dispatcher.batch-size:100}") int batchSize,
+                             @Value("${webhooks.dispatcher.max-attempts:8}") int maxAttempts,
+                             @Value("${webhooks.dispatcher.lease-ms:60000}") long leaseMs,
+                             @Value("${webhooks.dispatcher.backoff-base-ms:1000}") long backoffBaseMs,
+                             @Value("${webhooks.dispatcher.backoff-max-ms:600000}") long backoffMaxMs) {
+        this.webhookOutboxRepository = webhookOutboxRepository;
+        this.webhookClient = webhookClient;
+        this.transactionTemplate = transactionTemplate;
+        this.batchingProperties = batchingProperties;
+        this.subscriptionIndex = subscriptionIndex;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseMs = leaseMs;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("webhooks.outbox.pending", webhookOutboxRepository,
+                        repository -> repository.countByStatus(WebhookOutboxStatus.PENDING))
+                .description("Eventos de webhook aguardando entrega")
+                .register(registry);
+        deliveredCounter = Counter.builder("webhooks.deliveries").tag("result", "delivered").register(registry);
+        retriedCounter = Counter.builder("webhooks.deliveries").tag("result", "retry").register(registry);
+        deadCounter = Counter.builder("webhooks.deliveries").tag("result", "dead").register(registry);
+        deferredCounter = Counter.builder("webhooks.deliveries").tag("result", "deferred").register(registry);
+    }
+
+    /**
+     * Reivindica e entrega um lote de eventos vencidos.
+     *
+     * @return quantidade de eventos processados no ciclo
+     */
+    public int dispatchPending() {
+        List<WebhookOutboxEntity> batch = claimBatch();
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(batch.size());
+        Map<BatchKey, List<WebhookOutboxEntity>> byBatch = new LinkedHashMap<>();
+
+        for (WebhookOutboxEntity event : batch) {
+            WebhookSubscriptionIndex.Status subscription = subscriptionIndex.status(event.getSubscriptionId());
+            if (subscription == WebhookSubscriptionIndex.Status.INACTIVE) {
+                discard(event);
+            } else if (subscription == WebhookSubscriptionIndex.Status.UNKNOWN) {
+                defer(event);
+            } else if (batchingProperties.endpointFor(event.getUrl()) == null) {
+                deliveries.add(deliver(event));
+            } else {
+                byBatch.computeIfAbsent(new BatchKey(event.getUrl(), event.getSubscriptionId()),
+                        key -> new ArrayList<>()).add(event);
+            }
+        }
+        byBatch.forEach((key, events) -> {
+            WebhookBatchingProperties.Endpoint endpoint = batchingProperties.endpointFor(key.url());
+            int chunkSize = Math.max(1, endpoint.getMaxEvents());
+            for (int from = 0; from < events.size(); from += chunkSize) {
+                deliveries.add(deliverBatch(endpoint, key.subscriptionId(),
+                        events.subList(from, Math.min(from + chunkSize, events.size()))));
+            }
+        });
+
+        CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).join();
+        return batch.size();
+    }
+
+    /** Remove eventos entregues mais antigos que a retenção; DEAD fica para inspeção. */
+    public int cleanupDelivered(int retentionDays) {
+        int deleted = webhookOutboxRepository.deleteByStatusAndCreatedAtBefore(
+                WebhookOutboxStatus.DELIVERED, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("{} eventos de webhook entregues removidos do outbox", deleted);
+        }
+        return deleted;
+    }
+
+    private List<WebhookOutboxEntity> claimBatch() {
+        List<WebhookOutboxEntity> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WebhookOutboxEntity> due = webhookOutboxRepository.lockDue(now, PageRequest.of(0, batchSize));
+            // Entidades gerenciadas: o flush no commit grava o lease
+            due.forEach(event -> event.setNextAttemptAt(now.plusNanos(leaseMs * 1_000_000)));
+            return due;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    CompletableFuture<Void> deliver(WebhookOutboxEntity event) {
+        CompletableFuture<Void> sent;
+        try {
+            sent = webhookClient.send(event.getUrl(), event.getEventType(), event.getId(), event.getPayload(),
+                    subscriptionIndex.secretFor(event.getSubscriptionId()));
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((ignored, error) -> {
+            try {
+                if (error == null) {
+                    webhookOutboxRepository.markDelivered(event.getId(), LocalDateTime.now());
+                    increment(deliveredCounter);
+                    log.debug("Evento {} entregue para {}", event.getEventType(), event.getUrl());
+                } else {
+                    handleFailure(event, unwrap(error));
+                }
+            } catch (Exception e) {
+                // O lease vence e o evento é reenviado
+                log.error("Falha ao registrar resultado do evento {}: {}", event.getId(), e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    CompletableFuture<Void> deliverBatch(WebhookBatchingProperties.Endpoint endpoint, Long subscriptionId,
+                                         List<WebhookOutboxEntity> events) {
+        List<Long> ids = events.stream().map(WebhookOutboxEntity::getId).toList();
+        CompletableFuture<Void> sent;
+        try {
+            sent = webhookClient.sendBatch(endpoint.getUrl(), ids,
+                    events.stream().map(WebhookOutboxEntity::getPayload).toList(), endpoint.isGzip(),
+                    subscriptionIndex.secretFor(subscriptionId));
+        } catch (Exception e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((ignored, error) -> {
+            try {
+                if (error == null) {
+                    webhookOutboxRepository.markAllDelivered(ids, LocalDateTime.now());
+                    increment(deliveredCounter, ids.size());
+                    log.debug("Lote de {} eventos entregue para {}", ids.size(), endpoint.getUrl());
+                } else {
+                    Throwable cause = unwrap(error);
+                    int attempts = events.stream().mapToInt(WebhookOutboxEntity::getAttempts).max().orElse(0) + 1;
+                    LocalDateTime retryAt = endpoint.windowEnd(retryAt(cause, attempts));
+                    events.forEach(event -> handleFailure(event, cause, retryAt));
+                }
+            } catch (Exception e) {
+                log.error("Falha ao registrar resultado do lote para {}: {}", endpoint.getUrl(), e.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /** Assinatura não confirmada (banco indisponível): tenta de novo depois, sem gastar tentativa. */
+    private void defer(WebhookOutboxEntity event) {
+        webhookOutboxRepository.markFailed(event.getId(), WebhookOutboxStatus.PENDING, event.getAttempts(),
+                LocalDateTime.now().plusNanos(backoffMillis(1) * 1_000_000), "Assinatura nao confirmada");
+        increment(deferredCounter);
+    }
+
+    /** Assinatura removida ou desativada (confirmado no banco): o evento não é mais entregue. */
+    private void discard(WebhookOutboxEntity event) {
+        webhookOutboxRepository.markFailed(event.getId(), WebhookOutboxStatus.DEAD, event.getAttempts(),
+                event.getNextAttemptAt(), "Assinatura removida ou desativada");
+        increment(deadCounter);
+    }
+
+    private void handleFailure(WebhookOutboxEntity event, Throwable error) {
+        handleFailure(event, error, retryAt(error, event.getAttempts() + 1));
+    }
+
+    private void handleFailure(WebhookOutboxEntity event, Throwable error, LocalDateTime retryAt) {
+        if (error instanceof WebhookClient.EndpointUnavailableException) {
+            webhookOutboxRepository.markFailed(event.getId(), WebhookOutboxStatus.PENDING, event.getAttempts(),
+                    retryAt, truncate(error.getMessage()));
+            increment(deferredCounter);
+            return;
+        }
+
+        int attempts = event.getAttempts() + 1;
+        String message = truncate(error.getClass().getSimpleName() + ": " + error.getMessage());
+
+        if (attempts >= maxAttempts) {
+            webhookOutboxRepository.markFailed(event.getId(), WebhookOutboxStatus.DEAD, attempts,
+                    event.getNextAttemptAt(), message);
+            increment(deadCounter);
+            log.error("Evento {} para {} descartado apos {} tentativas: {}",
+                    event.getEventType(), event.getUrl(), attempts, message);
+            return;
+        }
+
+        webhookOutboxRepository.markFailed(event.getId(), WebhookOutboxStatus.PENDING, attempts, retryAt, message);
+        increment(retriedCounter);
+        log.warn("Falha ao enviar evento {} para {} (tentativa {}): {}",
+                event.getEventType(), event.getUrl(), attempts, message);
+    }
+
+    /** Próxima tentativa: quando o circuito permitir, ou backoff exponencial a partir de agora. */
+    private LocalDateTime retryAt(Throwable error, int attempts) {
+        if (error instanceof WebhookClient.EndpointUnavailableException unavailable) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(unavailable.getRetryAtMillis()), ZoneId.systemDefault());
+        }
+        return LocalDateTime.now().plusNanos(backoffMillis(attempts) * 1_000_000);
+    }
+
+    /** base * 2^(tentativas-1), limitado a backoff-max-ms, com jitter de até 20%. */
+    long backoffMillis(int attempts) {
+        long exponential = backoffBaseMs << Math.min(attempts - 1, 30);
+        long capped = exponential <= 0 ? backoffMaxMs : Math.min(exponential, backoffMaxMs);
+        return capped + ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+    }
+
+    private record BatchKey(String url, Long subscriptionId) {
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static void increment(Counter counter) {
+        increment(counter, 1);
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
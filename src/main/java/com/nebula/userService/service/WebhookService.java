@@ -1,76 +1,87 @@
 package com.nebula.userService.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
+import com.nebula.userService.configs.WebhookBatchingProperties;
+import com.nebula.userService.entities.WebhookOutboxEntity;
+import com.nebula.userService.enums.WebhookOutboxStatus;
+import com.nebula.userService.repository.WebhookOutboxRepository;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Publicação de eventos de webhook via outbox transacional.
+ *
+ * {@link #publishEvent} não faz I/O de rede: grava uma linha por assinatura interessada no tipo
+ * do evento ({@link WebhookSubscriptionIndex}, em memória) em {@code webhook_outbox}
+ * na transação do chamador (cadastro, login, revogação), então o evento só existe se a operação
+ * for confirmada. A entrega, com retentativas e backoff, é do {@link WebhookDispatcher}.
+ * Para endpoints com entrega em lote, a primeira tentativa fica para o fim da janela do lote.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
+@EnableConfigurationProperties(WebhookBatchingProperties.class)
 public class WebhookService {
 
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final WebhookOutboxRepository webhookOutboxRepository;
+    private final WebhookBatchingProperties batchingProperties;
+    private final WebhookSubscriptionIndex subscriptionIndex;
 
-    private final List<String> webhookUrls;
-
-    private final int timeoutMs;
-
-    public WebhookService(@Value("${webhooks.urls:}") String webhookUrlsConfig,
-                          @Value("${webhooks.timeout-ms:2000}") int timeoutMs,
-                          ObjectMapper objectMapper) {
+    public WebhookService(ObjectMapper objectMapper,
+                          WebhookOutboxRepository webhookOutboxRepository,
+                          WebhookBatchingProperties batchingProperties,
+                          WebhookSubscriptionIndex subscriptionIndex) {
         this.objectMapper = objectMapper;
-        this.webhookUrls = Arrays.stream(webhookUrlsConfig.split(","))
-                .map(String::trim)
-                .filter(url -> !url.isBlank())
-                .toList();
-        this.timeoutMs = timeoutMs;
-    }
-
-    @PostConstruct
-    public void configureTimeout() {
-        restTemplate.setRequestFactory(new org.springframework.http.client.SimpleClientHttpRequestFactory() {{
-            setConnectTimeout(timeoutMs);
-            setReadTimeout(timeoutMs);
-        }});
+        this.webhookOutboxRepository = webhookOutboxRepository;
+        this.batchingProperties = batchingProperties;
+        this.subscriptionIndex = subscriptionIndex;
     }
 
+    @Transactional
     public void publishEvent(String eventType, EventPayload payload) {
-        if (webhookUrls.isEmpty()) {
+        List<WebhookSubscriptionIndex.Target> targets = subscriptionIndex.targetsFor(eventType);
+        if (targets.isEmpty()) {
             return;
         }
 
+        LocalDateTime now = LocalDateTime.now();
         payload.setEventType(eventType);
-        payload.setTimestamp(LocalDateTime.now().toString());
+        payload.setTimestamp(now.toString());
 
-        for (String url : webhookUrls) {
-            try {
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                String body = objectMapper.writeValueAsString(payload);
-                HttpEntity<String> request = new HttpEntity<>(body, headers);
-                restTemplate.postForEntity(url, request, Void.class);
-                log.info("Evento enviado para webhook {}: {}", url, eventType);
-            } catch (Exception e) {
-                log.error("Falha ao enviar evento para webhook {}: {}", url, e.getMessage());
-            }
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Falha ao serializar evento {}: {}", eventType, e.getMessage());
+            return;
         }
+
+        webhookOutboxRepository.saveAll(targets.stream()
+                .map(target -> WebhookOutboxEntity.builder()
+                        .eventType(eventType)
+                        .subscriptionId(target.subscriptionId())
+                        .url(target.url())
+                        .payload(body)
+                        .status(WebhookOutboxStatus.PENDING)
+                        .createdAt(now)
+                        .nextAttemptAt(firstAttemptAt(target.url(), now))
+                        .build())
+                .toList());
+        log.debug("Evento {} enfileirado para {} webhook(s)", eventType, targets.size());
+    }
+
+    private LocalDateTime firstAttemptAt(String url, LocalDateTime now) {
+        WebhookBatchingProperties.Endpoint batching = batchingProperties.endpointFor(url);
+        return batching == null ? now : batching.windowEnd(now);
     }
 
     @Data
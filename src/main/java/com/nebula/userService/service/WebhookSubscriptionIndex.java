@@ -0,0 +1,189 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.entities.WebhookSubscriptionEntity;
+import com.nebula.userService.repository.WebhookSubscriptionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice em memória (por nó) das assinaturas de webhook ativas, por tipo de evento.
+ *
+ * {@link #targetsFor(String)} é uma leitura de mapa, sem banco no caminho da requisição.
+ * O índice é recarregado inteiro a cada alteração feita pela API administrativa — no nó que
+ * alterou, após o commit, e nos demais via canal {@value #CHANNEL} — e periodicamente, como
+ * rede de segurança para mensagens de pub/sub perdidas.
+ *
+ * As URLs de {@code webhooks.urls} continuam valendo como assinaturas de todos os eventos,
+ * sem segredo, para compatibilidade.
+ */
+@Slf4j
+@Component
+public class WebhookSubscriptionIndex implements MessageListener, MeterBinder {
+
+    static final String CHANNEL = "webhooks:subscriptions";
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final List<Target> staticTargets;
+
+    private volatile Snapshot snapshot;
+
+    /** Destino de um evento; {@code subscriptionId} é null para as URLs estáticas. */
+    public record Target(Long subscriptionId, String url) {
+    }
+
+    private record Snapshot(Map<String, List<Target>> byEventType,
+                            List<Target> allEvents,
+                            Map<Long, String> secrets) {
+    }
+
+    public WebhookSubscriptionIndex(WebhookSubscriptionRepository subscriptionRepository,
+                                    StringRedisTemplate redisTemplate,
+                                    RedisMessageListenerContainer listenerContainer,
+                                    @Value("${webhooks.urls:}") String webhookUrlsConfig) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.staticTargets = Arrays.stream(webhookUrlsConfig.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isBlank())
+                .map(url -> new Target(null, url))
+                .toList();
+        this.snapshot = new Snapshot(Map.of(), staticTargets, Map.of());
+    }
+
+    @PostConstruct
+    void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Falha ao carregar assinaturas de webhook; nova tentativa no proximo refresh: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("webhooks.subscriptions", this, index -> index.snapshot.secrets().size())
+                .description("Assinaturas de webhook ativas no índice local")
+                .register(registry);
+    }
+
+    /** Destinos interessados no tipo de evento (assinantes do tipo + curingas). */
+    public List<Target> targetsFor(String eventType) {
+        Snapshot current = snapshot;
+        return current.byEventType().getOrDefault(eventType, current.allEvents());
+    }
+
+    /** Situação de uma assinatura para o dispatcher decidir entre entregar, descartar ou adiar. */
+    public enum Status {
+        ACTIVE,
+        /** Confirmado no banco: removida ou desativada. */
+        INACTIVE,
+        /** Fora do índice e o banco não pôde confirmar; o evento deve esperar. */
+        UNKNOWN
+    }
+
+    /**
+     * Situação da assinatura; URLs estáticas (id null) são sempre ativas.
+     *
+     * Uma assinatura fora do índice local não é dada como removida: o índice pode estar
+     * desatualizado (aviso de pub/sub perdido, carga inicial com o banco fora). O banco é
+     * consultado; se ela existir e estiver ativa, o índice é recarregado antes da entrega.
+     */
+    public Status status(Long subscriptionId) {
+        if (subscriptionId == null || snapshot.secrets().containsKey(subscriptionId)) {
+            return Status.ACTIVE;
+        }
+        try {
+            boolean enabled = subscriptionRepository.findById(subscriptionId)
+                    .map(WebhookSubscriptionEntity::isEnabled)
+                    .orElse(false);
+            if (!enabled) {
+                return Status.INACTIVE;
+            }
+            refresh();
+            return snapshot.secrets().containsKey(subscriptionId) ? Status.ACTIVE : Status.UNKNOWN;
+        } catch (Exception e) {
+            log.warn("Falha ao confirmar assinatura de webhook {}: {}", subscriptionId, e.getMessage());
+            return Status.UNKNOWN;
+        }
+    }
+
+    /** Segredo HMAC da assinatura, ou null se ela não assina as entregas. */
+    public String secretFor(Long subscriptionId) {
+        if (subscriptionId == null) {
+            return null;
+        }
+        String secret = snapshot.secrets().get(subscriptionId);
+        return secret == null || secret.isEmpty() ? null : secret;
+    }
+
+    /** Recarrega as assinaturas ativas do banco e troca o índice de uma vez. */
+    public void refresh() {
+        List<WebhookSubscriptionEntity> subscriptions = subscriptionRepository.findByEnabledTrue();
+
+        List<Target> allEvents = new ArrayList<>(staticTargets);
+        Map<String, List<Target>> byEventType = new HashMap<>();
+        Map<Long, String> secrets = new HashMap<>();
+
+        for (WebhookSubscriptionEntity subscription : subscriptions) {
+            Target target = new Target(subscription.getId(), subscription.getUrl());
+            secrets.put(subscription.getId(), subscription.getSecret() == null ? "" : subscription.getSecret());
+            for (String eventType : subscription.eventTypeList()) {
+                if (WebhookSubscriptionEntity.ALL_EVENTS.equals(eventType)) {
+                    allEvents.add(target);
+                } else {
+                    byEventType.computeIfAbsent(eventType, type -> new ArrayList<>()).add(target);
+                }
+            }
+        }
+        // Cada tipo já inclui os curingas: targetsFor é um único get
+        byEventType.replaceAll((type, targets) -> {
+            List<Target> merged = new ArrayList<>(allEvents);
+            targets.stream().filter(target -> !merged.contains(target)).forEach(merged::add);
+            return List.copyOf(merged);
+        });
+
+        snapshot = new Snapshot(Map.copyOf(byEventType), List.copyOf(allEvents), Map.copyOf(secrets));
+        log.debug("Indice de webhooks recarregado: {} assinaturas ativas", subscriptions.size());
+    }
+
+    /** Após o commit da alteração: recarrega localmente e avisa os demais nós. */
+    public void publishChange() {
+        TransactionHooks.afterCommit(() -> {
+            refresh();
+            try {
+                redisTemplate.convertAndSend(CHANNEL, "refresh");
+            } catch (Exception e) {
+                log.warn("Falha ao propagar alteracao de assinaturas de webhook: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Falha ao recarregar assinaturas de webhook: {}", e.getMessage());
+        }
+    }
+}
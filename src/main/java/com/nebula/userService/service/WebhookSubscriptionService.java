@@ -0,0 +1,79 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.dto.WebhookSubscriptionRequestDTO;
+import com.nebula.userService.dto.WebhookSubscriptionResponseDTO;
+import com.nebula.userService.entities.WebhookSubscriptionEntity;
+import com.nebula.userService.exception.WebhookSubscriptionNotFoundException;
+import com.nebula.userService.repository.WebhookSubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookSubscriptionService {
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final WebhookSubscriptionIndex subscriptionIndex;
+
+    @Transactional(readOnly = true)
+    public List<WebhookSubscriptionResponseDTO> listSubscriptions() {
+        return subscriptionRepository.findAll().stream()
+                .map(WebhookSubscriptionResponseDTO::fromEntity)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public WebhookSubscriptionResponseDTO getSubscription(Long id) {
+        return WebhookSubscriptionResponseDTO.fromEntity(findOrThrow(id));
+    }
+
+    @Transactional
+    public WebhookSubscriptionResponseDTO createSubscription(WebhookSubscriptionRequestDTO request) {
+        WebhookSubscriptionEntity subscription = new WebhookSubscriptionEntity();
+        apply(subscription, request);
+        WebhookSubscriptionEntity saved = subscriptionRepository.save(subscription);
+        subscriptionIndex.publishChange();
+        log.info("Assinatura de webhook {} criada para {}", saved.getId(), saved.getUrl());
+        return WebhookSubscriptionResponseDTO.fromEntity(saved);
+    }
+
+    @Transactional
+    public WebhookSubscriptionResponseDTO updateSubscription(Long id, WebhookSubscriptionRequestDTO request) {
+        WebhookSubscriptionEntity subscription = findOrThrow(id);
+        apply(subscription, request);
+        WebhookSubscriptionEntity saved = subscriptionRepository.save(subscription);
+        subscriptionIndex.publishChange();
+        log.info("Assinatura de webhook {} atualizada", id);
+        return WebhookSubscriptionResponseDTO.fromEntity(saved);
+    }
+
+    @Transactional
+    public void deleteSubscription(Long id) {
+        subscriptionRepository.delete(findOrThrow(id));
+        subscriptionIndex.publishChange();
+        log.info("Assinatura de webhook {} removida", id);
+    }
+
+    private WebhookSubscriptionEntity findOrThrow(Long id) {
+        return subscriptionRepository.findById(id)
+                .orElseThrow(() -> new WebhookSubscriptionNotFoundException(id));
+    }
+
+    private static void apply(WebhookSubscriptionEntity subscription, WebhookSubscriptionRequestDTO request) {
+        subscription.setUrl(request.getUrl().trim());
+        subscription.setEventTypes(String.join(",", request.getEventTypes().stream()
+                .map(String::trim)
+                .distinct()
+                .toList()));
+        // Segredo omitido na atualização mantém o atual
+        if (request.getSecret() != null) {
+            subscription.setSecret(request.getSecret());
+        }
+        subscription.setEnabled(request.getEnabled() == null || request.getEnabled());
+    }
+}
@@ -0,0 +1,27 @@
+-- V10__create_login_stats_hourly.sql
+-- Rollup de logins por hora e por role, mantido incrementalmente pelo AuditLogWriter
+-- (upsert somando os contadores). Dashboards leem esta tabela em vez de agrupar o audit_log.
+-- role = 'UNKNOWN' para tentativas com username inexistente.
+-- ─────────────────────────────────────────────────────────────
+
+CREATE TABLE IF NOT EXISTS login_stats_hourly (
+    bucket_start TIMESTAMP    NOT NULL,
+    role         VARCHAR(20)  NOT NULL,
+    succeeded    BIGINT       NOT NULL DEFAULT 0,
+    failed       BIGINT       NOT NULL DEFAULT 0,
+    locked       BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, role)
+);
+
+-- Carga inicial a partir do histórico. A role é a atual do usuário (o audit_log não a guarda).
+INSERT INTO login_stats_hourly (bucket_start, role, succeeded, failed, locked)
+SELECT date_trunc('hour', a.created_at),
+       COALESCE(u.role, 'UNKNOWN'),
+       COALESCE(SUM(a.occurrences) FILTER (WHERE a.action = 'LOGIN_SUCCESS'), 0),
+       COALESCE(SUM(a.occurrences) FILTER (WHERE a.action = 'LOGIN_FAILED'), 0),
+       COALESCE(SUM(a.occurrences) FILTER (WHERE a.action = 'ACCOUNT_LOCKED'), 0)
+  FROM audit_log a
+  LEFT JOIN users u ON u.id = a.user_id
+ WHERE a.action IN ('LOGIN_SUCCESS', 'LOGIN_FAILED', 'ACCOUNT_LOCKED')
+ GROUP BY 1, 2
+ON CONFLICT (bucket_start, role) DO NOTHING;
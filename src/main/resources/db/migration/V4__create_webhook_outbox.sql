@@ -0,0 +1,22 @@
+-- V4__create_webhook_outbox.sql
+-- Outbox transacional de webhooks: eventos gravados na mesma transação da operação
+-- e entregues em segundo plano pelo WebhookDispatcher.
+-- ─────────────────────────────────────────────────────────────
+
+CREATE TABLE IF NOT EXISTS webhook_outbox (
+    id              BIGSERIAL     PRIMARY KEY,
+    event_type      VARCHAR(50)   NOT NULL,
+    url             VARCHAR(2048) NOT NULL,
+    payload         TEXT          NOT NULL,
+    status          VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts        INT           NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP     NOT NULL DEFAULT NOW(),
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP     NOT NULL DEFAULT NOW(),
+    delivered_at    TIMESTAMP
+);
+
+-- Só as linhas pendentes são varridas pelo dispatcher
+CREATE INDEX IF NOT EXISTS idx_webhook_outbox_pending
+    ON webhook_outbox(next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_webhook_outbox_status_created ON webhook_outbox(status, created_at);
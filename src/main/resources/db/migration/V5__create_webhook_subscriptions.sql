@@ -0,0 +1,16 @@
+-- V5__create_webhook_subscriptions.sql
+-- Assinaturas de webhook por tipo de evento, gerenciadas pela API administrativa.
+-- ─────────────────────────────────────────────────────────────
+
+CREATE TABLE IF NOT EXISTS webhook_subscriptions (
+    id          BIGSERIAL     PRIMARY KEY,
+    url         VARCHAR(2048) NOT NULL,
+    event_types VARCHAR(1000) NOT NULL,
+    secret      VARCHAR(255),
+    enabled     BOOLEAN       NOT NULL DEFAULT TRUE,
+    created_at  TIMESTAMP     NOT NULL DEFAULT NOW(),
+    updated_at  TIMESTAMP     NOT NULL DEFAULT NOW()
+);
+
+-- Sem FK: eventos de uma assinatura removida são descartados pelo dispatcher
+ALTER TABLE webhook_outbox ADD COLUMN IF NOT EXISTS subscription_id BIGINT;
@@ -0,0 +1,65 @@
+-- V7__partition_audit_log.sql
+-- Converte audit_log em tabela particionada por mês (RANGE em created_at).
+-- Novas partições são criadas e as antigas removidas pelo AuditPartitionService;
+-- retenção passa a ser um DETACH/DROP de partição em vez de DELETE.
+--
+-- O histórico não é copiado: a tabela antiga vira uma partição limitada
+-- (MINVALUE até o início do mês corrente), batizada com o mês anterior — a retenção
+-- a remove quando esse mês sair da janela. Só as linhas do mês corrente são movidas.
+-- Um CHECK com o mesmo limite, validado antes, evita a varredura no ATTACH.
+-- Os índices simples da V2 ficam na partição antiga; a V8 os substitui.
+-- ─────────────────────────────────────────────────────────────
+
+ALTER TABLE audit_log RENAME TO audit_log_legacy;
+ALTER TABLE audit_log_legacy RENAME CONSTRAINT audit_log_pkey TO audit_log_legacy_pkey;
+
+-- A sequência do BIGSERIAL é reaproveitada: os ids continuam crescendo de onde pararam
+ALTER SEQUENCE audit_log_id_seq OWNED BY NONE;
+
+-- A chave primária precisa conter a coluna de particionamento
+CREATE TABLE audit_log (
+    id          BIGINT        NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    user_id     BIGINT        REFERENCES users(id) ON DELETE SET NULL,
+    action      VARCHAR(100)  NOT NULL,
+    entity      VARCHAR(100),
+    entity_id   BIGINT,
+    detail      TEXT,
+    ip_address  VARCHAR(50),
+    created_at  TIMESTAMP     NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+
+DO $$
+DECLARE
+    current_month DATE := date_trunc('month', NOW())::DATE;
+    month_start   DATE := current_month;
+    last_month    DATE := (current_month + INTERVAL '3 months')::DATE;
+BEGIN
+    -- Partições mensais do mês corrente até 3 meses à frente
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+            'audit_log_p' || to_char(month_start, 'YYYYMM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    -- Apenas o mês corrente (e eventuais datas futuras) sai da tabela antiga
+    INSERT INTO audit_log (id, user_id, action, entity, entity_id, detail, ip_address, created_at)
+    SELECT id, user_id, action, entity, entity_id, detail, ip_address, created_at
+      FROM audit_log_legacy
+     WHERE created_at >= current_month;
+    DELETE FROM audit_log_legacy WHERE created_at >= current_month;
+
+    EXECUTE format('ALTER TABLE audit_log_legacy ADD CONSTRAINT audit_log_legacy_bound CHECK (created_at < %L)',
+                   current_month);
+
+    EXECUTE format('ALTER TABLE audit_log_legacy RENAME TO %I',
+                   'audit_log_p' || to_char(current_month - INTERVAL '1 month', 'YYYYMM'));
+    EXECUTE format('ALTER TABLE audit_log ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)',
+                   'audit_log_p' || to_char(current_month - INTERVAL '1 month', 'YYYYMM'),
+                   current_month);
+END $$;
@@ -0,0 +1,21 @@
+-- V8__audit_log_keyset_indexes.sql
+-- Índices compostos para a consulta paginada por cursor do log de auditoria (/api/admin/audit).
+-- Cada filtro termina em (created_at DESC, id DESC), a ordem do cursor: a página é lida
+-- direto do índice, sem ordenação. Substituem os índices simples da V2.
+-- ─────────────────────────────────────────────────────────────
+
+DROP INDEX IF EXISTS idx_audit_user_id;
+DROP INDEX IF EXISTS idx_audit_action;
+DROP INDEX IF EXISTS idx_audit_entity;
+DROP INDEX IF EXISTS idx_audit_created;
+
+CREATE INDEX IF NOT EXISTS idx_audit_created_id
+    ON audit_log(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_user_created
+    ON audit_log(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_action_created
+    ON audit_log(action, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_entity_created
+    ON audit_log(entity, entity_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_ip_created
+    ON audit_log(ip_address, created_at DESC, id DESC);
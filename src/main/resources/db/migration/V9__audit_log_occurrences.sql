@@ -0,0 +1,9 @@
+-- V9__audit_log_occurrences.sql
+-- Falhas de login repetidas (mesma ação, username e IP) são agregadas em memória e gravadas
+-- como uma única linha por janela: occurrences = quantidade, first_occurred_at = primeira
+-- ocorrência, created_at = última. Eventos comuns continuam com occurrences = 1.
+-- ─────────────────────────────────────────────────────────────
+
+ALTER TABLE audit_log
+    ADD COLUMN IF NOT EXISTS occurrences       INT        NOT NULL DEFAULT 1,
+    ADD COLUMN IF NOT EXISTS first_occurred_at TIMESTAMP;
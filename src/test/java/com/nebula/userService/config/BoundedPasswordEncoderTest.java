@@ -0,0 +1,109 @@
+package com.nebula.userService.config;
+
+import com.nebula.userService.configs.BoundedPasswordEncoder;
+import com.nebula.userService.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("encode/matches - delega ao BCrypt no pool dedicado")
+    void encodeAndMatches_DelegatesToBcrypt() {
+        encoder = new BoundedPasswordEncoder(2, 8, 5000, 1);
+        encoder.bindTo(new SimpleMeterRegistry());
+
+        String hash = encoder.encode("Senha@123");
+
+        assertThat(hash).startsWith("$2");
+        assertThat(encoder.matches("Senha@123", hash)).isTrue();
+        assertThat(encoder.matches("errada", hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("fila cheia - falha rapido com ServiceOverloadedException")
+    void fullQueue_ThrowsServiceOverloaded() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(release), 1, 1, 5000, 2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        waitUntil(() -> registry.get("password.hashing.active").gauge().value() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitUntil(() -> registry.get("password.hashing.queue.depth").gauge().value() == 1);
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+        assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("hash");
+        assertThat(queued.join()).isEqualTo("hash");
+    }
+
+    @Test
+    @DisplayName("timeout - a thread chamadora espera no maximo timeout-ms e recebe 503")
+    void slowHash_ReleasesCallerAfterTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(release), 1, 1, 50, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        long startedAt = System.nanoTime();
+        assertThatThrownBy(() -> encoder.encode("a")).isInstanceOf(ServiceOverloadedException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(2000);
+        assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condicao nao atingida a tempo").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
@@ -2,8 +2,10 @@ package com.nebula.userService.config;
 
 import com.nebula.userService.configs.JwtAuthenticationFilter;
 import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.VerifiedToken;
+import com.nebula.userService.service.AuthEpochService;
+import com.nebula.userService.service.SessionService;
 import com.nebula.userService.service.TokenBlacklistService;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,13 +14,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,7 +41,12 @@ class JwtAuthenticationFilterTest {
     @Mock
     private TokenBlacklistService tokenBlacklistService;
 
-    @InjectMocks
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private AuthEpochService authEpochService;
+
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Mock
@@ -52,12 +61,11 @@ class JwtAuthenticationFilterTest {
     @Mock
     private UserDetails userDetails;
 
-    @Mock
-    private Claims claims;
-
     @BeforeEach
     void setUp() {
         SecurityContextHolder.clearContext();
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(
+                jwtConfig, userDetailsService, tokenBlacklistService, sessionService, authEpochService, false);
     }
 
     @Test
@@ -68,7 +76,7 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verify(jwtConfig, never()).extractClaims(any());
+        verify(jwtConfig, never()).parseToken(any());
     }
 
     @Test
@@ -79,32 +87,33 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verify(jwtConfig, never()).extractClaims(any());
+        verify(jwtConfig, never()).parseToken(any());
     }
 
     @Test
     @DisplayName("Token valido - autentica e continua chain")
     void doFilter_ValidToken_AuthenticatesAndContinues() throws Exception {
         when(request.getHeader("Authorization")).thenReturn("Bearer valid.jwt.token");
-        when(tokenBlacklistService.isBlacklisted("valid.jwt.token")).thenReturn(false);
-        when(jwtConfig.extractClaims("valid.jwt.token")).thenReturn(claims);
-        when(jwtConfig.isTokenType("valid.jwt.token", "access")).thenReturn(true);
-        when(claims.getSubject()).thenReturn("joao.silva");
-        when(claims.get("roles", List.class)).thenReturn(List.of("ROLE_USER"));
+        when(jwtConfig.parseToken("valid.jwt.token")).thenReturn(accessToken(List.of("ROLE_USER")));
+        when(tokenBlacklistService.isBlacklisted(eq("valid.jwt.token"), any(VerifiedToken.class))).thenReturn(false);
+        when(sessionService.isSessionActive("session-1", "joao.silva")).thenReturn(true);
         when(userDetailsService.loadUserByUsername("joao.silva")).thenReturn(userDetails);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
+        verify(jwtConfig, times(1)).parseToken("valid.jwt.token");
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(Object::toString)
+                .containsExactly("ROLE_USER");
     }
 
     @Test
     @DisplayName("Token expirado - retorna 401")
     void doFilter_ExpiredToken_Returns401() throws Exception {
         when(request.getHeader("Authorization")).thenReturn("Bearer expired.token");
-        when(tokenBlacklistService.isBlacklisted("expired.token")).thenReturn(false);
-        when(jwtConfig.extractClaims("expired.token")).thenThrow(mock(ExpiredJwtException.class));
+        when(jwtConfig.parseToken("expired.token")).thenThrow(mock(ExpiredJwtException.class));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -116,8 +125,7 @@ class JwtAuthenticationFilterTest {
     @DisplayName("Token invalido - retorna 401")
     void doFilter_InvalidToken_Returns401() throws Exception {
         when(request.getHeader("Authorization")).thenReturn("Bearer invalid.token");
-        when(tokenBlacklistService.isBlacklisted("invalid.token")).thenReturn(false);
-        when(jwtConfig.extractClaims("invalid.token")).thenThrow(new RuntimeException("Token parse error"));
+        when(jwtConfig.parseToken("invalid.token")).thenThrow(new RuntimeException("Token parse error"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -129,11 +137,9 @@ class JwtAuthenticationFilterTest {
     @DisplayName("Token com roles nulas - autentica com sucesso")
     void doFilter_NullRolesInToken_AuthenticatesSuccessfully() throws Exception {
         when(request.getHeader("Authorization")).thenReturn("Bearer valid.jwt.token");
-        when(tokenBlacklistService.isBlacklisted("valid.jwt.token")).thenReturn(false);
-        when(jwtConfig.extractClaims("valid.jwt.token")).thenReturn(claims);
-        when(jwtConfig.isTokenType("valid.jwt.token", "access")).thenReturn(true);
-        when(claims.getSubject()).thenReturn("joao.silva");
-        when(claims.get("roles", List.class)).thenReturn(null);
+        when(jwtConfig.parseToken("valid.jwt.token")).thenReturn(accessToken(List.of()));
+        when(tokenBlacklistService.isBlacklisted(eq("valid.jwt.token"), any(VerifiedToken.class))).thenReturn(false);
+        when(sessionService.isSessionActive("session-1", "joao.silva")).thenReturn(true);
         when(userDetailsService.loadUserByUsername("joao.silva")).thenReturn(userDetails);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -141,4 +147,61 @@ class JwtAuthenticationFilterTest {
         verify(filterChain).doFilter(request, response);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Refresh token em endpoint protegido - retorna 401 sem consultar blacklist")
+    void doFilter_RefreshToken_Returns401() throws Exception {
+        when(request.getHeader("Authorization")).thenReturn("Bearer refresh.token");
+        when(jwtConfig.parseToken("refresh.token")).thenReturn(new VerifiedToken(
+                "joao.silva", VerifiedToken.REFRESH, "session-1", "refresh-jti", List.of(), List.of(),
+                Instant.now().plusSeconds(60), 0L, List.of()));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_UNAUTHORIZED), anyString());
+        verify(tokenBlacklistService, never()).isBlacklisted(any(), any());
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Modo stateless - principal vem das claims, sem consultar UserDetailsService")
+    void doFilter_StatelessPrincipal_SkipsUserLookup() throws Exception {
+        JwtAuthenticationFilter statelessFilter = new JwtAuthenticationFilter(
+                jwtConfig, userDetailsService, tokenBlacklistService, sessionService, authEpochService, true);
+        when(request.getHeader("Authorization")).thenReturn("Bearer valid.jwt.token");
+        when(jwtConfig.parseToken("valid.jwt.token")).thenReturn(accessToken(List.of("ROLE_USER")));
+        when(tokenBlacklistService.isBlacklisted(eq("valid.jwt.token"), any(VerifiedToken.class))).thenReturn(false);
+        when(sessionService.isSessionActive("session-1", "joao.silva")).thenReturn(true);
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userDetailsService);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("joao.silva");
+    }
+
+    @Test
+    @DisplayName("Token com epoca anterior a atual do usuario - retorna 401")
+    void doFilter_StaleAuthEpoch_Returns401() throws Exception {
+        when(request.getHeader("Authorization")).thenReturn("Bearer valid.jwt.token");
+        when(jwtConfig.parseToken("valid.jwt.token")).thenReturn(accessToken(List.of("ROLE_USER"), 1L));
+        when(tokenBlacklistService.isBlacklisted(eq("valid.jwt.token"), any(VerifiedToken.class))).thenReturn(false);
+        when(authEpochService.currentEpoch("joao.silva")).thenReturn(2L);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(response).sendError(eq(HttpServletResponse.SC_UNAUTHORIZED), anyString());
+        verifyNoInteractions(sessionService);
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    private VerifiedToken accessToken(List<String> roles) {
+        return accessToken(roles, 0L);
+    }
+
+    private VerifiedToken accessToken(List<String> roles, long authEpoch) {
+        return new VerifiedToken("joao.silva", VerifiedToken.ACCESS, "session-1", "access-jti", roles, List.of(),
+                Instant.now().plusSeconds(60), authEpoch,
+                roles.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList());
+    }
+}
@@ -1,12 +1,15 @@
 package com.nebula.userService.config;
 
 import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.VerifiedToken;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -95,4 +98,90 @@ class JwtConfigTest {
         String token2 = jwtConfig.generateToken("user2");
         assertThat(token1).isNotEqualTo(token2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("parseToken - expoe claims tipadas do access token")
+    void parseToken_ReturnsTypedView() {
+        String token = jwtConfig.generateToken("joao.silva", List.of("ROLE_USER"), List.of("USER_VIEW"), "session-1");
+        VerifiedToken verified = jwtConfig.parseToken(token);
+        assertThat(verified.subject()).isEqualTo("joao.silva");
+        assertThat(verified.isAccessToken()).isTrue();
+        assertThat(verified.sessionId()).isEqualTo("session-1");
+        assertThat(verified.roles()).containsExactly("ROLE_USER");
+        assertThat(verified.permissions()).containsExactly("USER_VIEW");
+        assertThat(verified.authorities()).extracting(Object::toString)
+                .containsExactly("ROLE_USER", "USER_VIEW");
+        assertThat(verified.remainingMillis()).isPositive();
+    }
+
+    @Test
+    @DisplayName("isTokenType - refresh token nao e access")
+    void isTokenType_RefreshToken() {
+        String token = jwtConfig.generateRefreshToken("joao.silva", "session-1");
+        assertThat(jwtConfig.isTokenType(token, "refresh")).isTrue();
+        assertThat(jwtConfig.isTokenType(token, "access")).isFalse();
+    }
+
+    @Test
+    @DisplayName("parseToken - segunda chamada reaproveita o token verificado em cache")
+    void parseToken_RepeatedCall_ServedFromCache() {
+        String token = jwtConfig.generateToken("joao.silva", List.of("ROLE_USER"));
+        VerifiedToken first = jwtConfig.parseToken(token);
+        assertThat(jwtConfig.parseToken(token)).isSameAs(first);
+        assertThat(jwtConfig.extractClaims(token)).isSameAs(jwtConfig.extractClaims(token));
+    }
+
+    @Test
+    @DisplayName("parseTokenUncached - verifica o token sem ler nem preencher o cache")
+    void parseTokenUncached_BypassesCache() {
+        String token = jwtConfig.generateToken("joao.silva", List.of("ROLE_USER"));
+        VerifiedToken uncached = jwtConfig.parseTokenUncached(token);
+        VerifiedToken cached = jwtConfig.parseToken(token);
+
+        assertThat(cached).isNotSameAs(uncached).isEqualTo(uncached);
+        assertThat(jwtConfig.parseTokenUncached(token)).isNotSameAs(cached);
+    }
+
+    @Test
+    @DisplayName("evictVerified - remove o token do cache")
+    void evictVerified_RemovesCachedToken() {
+        String token = jwtConfig.generateToken("joao.silva", List.of("ROLE_USER"));
+        VerifiedToken first = jwtConfig.parseToken(token);
+        jwtConfig.evictVerified(token);
+        VerifiedToken second = jwtConfig.parseToken(token);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("generateToken - epoca de autenticacao vai para a claim epoch")
+    void generateToken_WithAuthEpoch_ExposedInView() {
+        String token = jwtConfig.generateToken("joao.silva", List.of("ROLE_USER"), List.of(), "session-1", 3L);
+        assertThat(jwtConfig.parseToken(token).authEpoch()).isEqualTo(3L);
+        assertThat(jwtConfig.parseToken(jwtConfig.generateToken("joao.silva")).authEpoch()).isZero();
+    }
+
+    @Test
+    @DisplayName("generateToken - cada token recebe um jti compacto distinto")
+    void generateToken_AssignsCompactTokenId() {
+        VerifiedToken access = jwtConfig.parseToken(jwtConfig.generateToken("joao.silva"));
+        VerifiedToken refresh = jwtConfig.parseToken(jwtConfig.generateRefreshToken("joao.silva", "session-1"));
+        assertThat(access.revocationId()).hasSize(22);
+        assertThat(refresh.revocationId()).hasSize(22);
+        assertThat(access.revocationId()).isNotEqualTo(refresh.revocationId());
+    }
+
+    @Test
+    @DisplayName("parseToken - token sem jti usa digest de 16 bytes como chave de revogacao")
+    void parseToken_LegacyTokenWithoutJti_UsesDigest() {
+        String legacy = Jwts.builder()
+                .subject("joao.silva")
+                .claim("type", "access")
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
+                .signWith(jwtConfig.getSecretKey())
+                .compact();
+        assertThat(jwtConfig.parseToken(legacy).revocationId())
+                .isEqualTo(VerifiedToken.digestId(legacy))
+                .hasSize(22);
+    }
+}
@@ -0,0 +1,176 @@
+package com.nebula.userService.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nebula.userService.configs.RateLimitFilter;
+import com.nebula.userService.configs.RateLimitProperties;
+import com.nebula.userService.service.RateLimitDecision;
+import com.nebula.userService.service.RateLimitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    private RateLimitProperties properties;
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setPolicies(List.of(
+                policy("login-ip", "/api/auth/login", RateLimitProperties.KeyType.IP, 30),
+                policy("login-username", "/api/auth/login", RateLimitProperties.KeyType.USERNAME, 10)));
+        rateLimitFilter = new RateLimitFilter(rateLimitService, properties,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    @DisplayName("Requisicao permitida segue a cadeia com cabecalhos da politica mais restritiva")
+    void allowedRequest_SetsRateLimitHeaders() throws Exception {
+        when(rateLimitService.tryConsume(argThat(p -> p != null && p.getName().equals("login-ip")), eq("10.0.0.1")))
+                .thenReturn(new RateLimitDecision(true, 30, 29, 2 * SECOND, 0));
+        when(rateLimitService.tryConsume(argThat(p -> p != null && p.getName().equals("login-username")), eq("joao.silva")))
+                .thenReturn(new RateLimitDecision(true, 10, 4, 30 * SECOND, 0));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(loginRequest("{\"username\":\"Joao.Silva\",\"password\":\"x\"}"), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("10");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("4");
+        assertThat(response.getHeader("RateLimit-Reset")).isEqualTo("30");
+    }
+
+    @Test
+    @DisplayName("Corpo lido para extrair o username continua disponivel para o controller")
+    void usernamePolicy_KeepsBodyReadable() throws Exception {
+        when(rateLimitService.tryConsume(any(), any()))
+                .thenReturn(new RateLimitDecision(true, 10, 9, SECOND, 0));
+        String body = "{\"username\":\"joao.silva\",\"password\":\"x\"}";
+
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(loginRequest(body), new MockHttpServletResponse(), chain);
+
+        String forwarded = StreamUtils.copyToString(chain.getRequest().getInputStream(), StandardCharsets.UTF_8);
+        assertThat(forwarded).isEqualTo(body);
+    }
+
+    @Test
+    @DisplayName("Corpo acima de max-body-bytes com politica por username responde 413 sem consumir nem chamar o controller")
+    void oversizedBody_WithBodyPolicy_Returns413() throws Exception {
+        properties.setMaxBodyBytes(16);
+        String body = "{\"username\":\"joao.silva\",\"password\":\"x\"}";
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(loginRequest(body), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+        verifyNoInteractions(rateLimitService);
+    }
+
+    @Test
+    @DisplayName("Corpo grande em rota so com politica por IP nao e lido e segue inteiro para o controller")
+    void oversizedBody_IpOnlyPolicy_PassesThrough() throws Exception {
+        properties.setMaxBodyBytes(16);
+        properties.setPolicies(List.of(policy("login-ip", "/api/auth/login", RateLimitProperties.KeyType.IP, 30)));
+        when(rateLimitService.tryConsume(any(), eq("10.0.0.1")))
+                .thenReturn(new RateLimitDecision(true, 30, 29, SECOND, 0));
+        MockHttpServletRequest request = loginRequest("{\"username\":\"joao.silva\",\"password\":\"x\"}");
+
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    @Test
+    @DisplayName("X-Forwarded-For cru e ignorado: a chave por IP vem do remoteAddr")
+    void ipPolicy_IgnoresRawForwardedHeader() throws Exception {
+        when(rateLimitService.tryConsume(any(), any()))
+                .thenReturn(new RateLimitDecision(true, 10, 9, SECOND, 0));
+        MockHttpServletRequest request = loginRequest("{}");
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(rateLimitService).tryConsume(argThat(p -> p != null && p.getName().equals("login-ip")), eq("10.0.0.1"));
+        verify(rateLimitService, never()).tryConsume(any(), eq("1.2.3.4"));
+    }
+
+    @Test
+    @DisplayName("Limite excedido responde 429 com Retry-After sem chamar o controller")
+    void rejectedRequest_Returns429() throws Exception {
+        when(rateLimitService.tryConsume(any(), eq("10.0.0.1")))
+                .thenReturn(new RateLimitDecision(false, 30, 0, 40 * SECOND, 2_500_000_000L));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(loginRequest("{\"username\":\"joao.silva\"}"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(response.getContentAsString()).contains("Limite de requisicoes excedido");
+        assertThat(chain.getRequest()).isNull();
+        verify(rateLimitService, times(1)).tryConsume(any(), any());
+    }
+
+    @Test
+    @DisplayName("Rota sem politica passa direto")
+    void unmatchedPath_PassesThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        MockFilterChain chain = new MockFilterChain();
+
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        verifyNoInteractions(rateLimitService);
+    }
+
+    private static MockHttpServletRequest loginRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String path,
+                                                     RateLimitProperties.KeyType key, long capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setPath(path);
+        policy.setKey(key);
+        policy.setCapacity(capacity);
+        policy.setRefillTokens(capacity);
+        policy.setRefillSeconds(60);
+        return policy;
+    }
+}
@@ -0,0 +1,50 @@
+package com.nebula.userService.config;
+
+import com.nebula.userService.configs.RateLimitProperties;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitProperties Tests")
+class RateLimitPropertiesTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    @DisplayName("validacao - capacity, refill-tokens e refill-seconds zerados sao recusados")
+    void validation_RejectsNonPositiveValues() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName("login-ip");
+        policy.setPath("/api/auth/login");
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(policy));
+
+        Set<ConstraintViolation<RateLimitProperties>> violations = validator.validate(properties);
+
+        assertThat(violations).extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("policies[0].capacity", "policies[0].refillTokens",
+                        "policies[0].refillSeconds");
+    }
+
+    @Test
+    @DisplayName("validacao - politica completa e aceita")
+    void validation_AcceptsValidPolicy() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName("login-ip");
+        policy.setPath("/api/auth/login");
+        policy.setCapacity(30);
+        policy.setRefillTokens(30);
+        policy.setRefillSeconds(60);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(policy));
+
+        assertThat(validator.validate(properties)).isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.nebula.userService.config;
+
+import com.nebula.userService.configs.WebhookBatchingProperties;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WebhookBatchingProperties Tests")
+class WebhookBatchingPropertiesTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    @DisplayName("validacao - window-ms e max-events zerados sao recusados")
+    void validation_RejectsNonPositiveValues() {
+        WebhookBatchingProperties.Endpoint endpoint = endpoint(0);
+        endpoint.setMaxEvents(0);
+        WebhookBatchingProperties properties = new WebhookBatchingProperties();
+        properties.setEndpoints(List.of(endpoint));
+
+        Set<ConstraintViolation<WebhookBatchingProperties>> violations = validator.validate(properties);
+
+        assertThat(violations).extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("endpoints[0].windowMs", "endpoints[0].maxEvents");
+    }
+
+    @Test
+    @DisplayName("windowEnd - fim da janela fixa, sempre depois do instante informado")
+    void windowEnd_AlignsToWindow() {
+        WebhookBatchingProperties.Endpoint endpoint = endpoint(1000);
+        LocalDateTime now = LocalDateTime.of(2026, 1, 10, 12, 0, 0, 400_000_000);
+
+        assertThat(endpoint.windowEnd(now)).isEqualTo(LocalDateTime.of(2026, 1, 10, 12, 0, 1));
+        assertThat(endpoint.windowEnd(LocalDateTime.of(2026, 1, 10, 12, 0, 1)))
+                .isEqualTo(LocalDateTime.of(2026, 1, 10, 12, 0, 2));
+    }
+
+    private static WebhookBatchingProperties.Endpoint endpoint(long windowMs) {
+        WebhookBatchingProperties.Endpoint endpoint = new WebhookBatchingProperties.Endpoint();
+        endpoint.setUrl("https://hooks.example.com/batch");
+        endpoint.setWindowMs(windowMs);
+        return endpoint;
+    }
+}
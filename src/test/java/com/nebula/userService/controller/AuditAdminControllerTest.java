@@ -0,0 +1,155 @@
+package com.nebula.userService.controller;
+
+import com.nebula.userService.configs.JwtAuthenticationFilter;
+import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.RateLimitFilter;
+import com.nebula.userService.configs.SecurityConfig;
+import com.nebula.userService.dto.AuditLogPageDTO;
+import com.nebula.userService.dto.AuditLogResponseDTO;
+import com.nebula.userService.dto.LoginStatsHourlyDTO;
+import com.nebula.userService.service.AuditLogQueryService;
+import com.nebula.userService.service.LoginStatsQueryService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(
+        controllers = AuditAdminController.class,
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.ASSIGNABLE_TYPE,
+                classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}
+        )
+)
+// Regras por URL (/api/admin/** exige ADMIN) ficam no SecurityConfig, que o @WebMvcTest não carrega sozinho
+@Import(SecurityConfig.class)
+@DisplayName("AuditAdminController Tests")
+class AuditAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuditLogQueryService auditLogQueryService;
+
+    @MockitoBean
+    private LoginStatsQueryService loginStatsQueryService;
+
+    @MockitoBean
+    private JwtConfig jwtConfig;
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // O filtro JWT mockado só repassa; a autenticação vem do @WithMockUser
+        doAnswer(invocation -> {
+            invocation.getArgument(2, FilterChain.class)
+                    .doFilter(invocation.getArgument(0, ServletRequest.class), invocation.getArgument(1, ServletResponse.class));
+            return null;
+        }).when(jwtAuthenticationFilter).doFilter(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("GET audit - ADMIN recebe a pagina com nextCursor e os filtros chegam ao servico")
+    void searchAuditLog_Admin_Returns200() throws Exception {
+        AuditLogResponseDTO row = new AuditLogResponseDTO(10L, 7L, "joao.silva", "LOGIN_FAILED", null, null,
+                "Tentativa 1 de 5", "10.0.0.1", LocalDateTime.of(2026, 3, 15, 10, 0), 1, null);
+        when(auditLogQueryService.search(any(), eq("abc"), eq(20)))
+                .thenReturn(new AuditLogPageDTO(List.of(row), "proximo"));
+
+        mockMvc.perform(get("/api/admin/audit")
+                        .param("action", "LOGIN_FAILED")
+                        .param("ip", "10.0.0.1")
+                        .param("from", "2026-03-01T00:00:00")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(10))
+                .andExpect(jsonPath("$.items[0].username").value("joao.silva"))
+                .andExpect(jsonPath("$.nextCursor").value("proximo"));
+
+        verify(auditLogQueryService).search(argThat(filter ->
+                "LOGIN_FAILED".equals(filter.getAction())
+                        && "10.0.0.1".equals(filter.getIpAddress())
+                        && LocalDateTime.of(2026, 3, 1, 0, 0).equals(filter.getFrom())
+                        && filter.getTo() == null), eq("abc"), eq(20));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("GET audit - cursor invalido retorna 400")
+    void searchAuditLog_InvalidCursor_Returns400() throws Exception {
+        when(auditLogQueryService.search(any(), eq("lixo"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Cursor invalido"));
+
+        mockMvc.perform(get("/api/admin/audit").param("cursor", "lixo"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor invalido"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("GET login-stats - ADMIN recebe as linhas do rollup")
+    void loginStats_Admin_Returns200() throws Exception {
+        LocalDateTime hour = LocalDateTime.of(2026, 3, 15, 10, 0);
+        when(loginStatsQueryService.hourly(hour, null, "USER"))
+                .thenReturn(List.of(new LoginStatsHourlyDTO(hour, "USER", 1280, 37, 2)));
+
+        mockMvc.perform(get("/api/admin/audit/login-stats")
+                        .param("from", "2026-03-15T10:00:00")
+                        .param("role", "USER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].role").value("USER"))
+                .andExpect(jsonPath("$[0].succeeded").value(1280))
+                .andExpect(jsonPath("$[0].failed").value(37))
+                .andExpect(jsonPath("$[0].locked").value(2));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET login-stats - USER recebe 403 do SecurityConfig")
+    void loginStats_User_Returns403() throws Exception {
+        mockMvc.perform(get("/api/admin/audit/login-stats"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Access Denied"))
+                .andExpect(jsonPath("$.path").value("/api/admin/audit/login-stats"));
+
+        verifyNoInteractions(loginStatsQueryService);
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET audit - USER recebe 403")
+    void searchAuditLog_User_Returns403() throws Exception {
+        mockMvc.perform(get("/api/admin/audit"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(auditLogQueryService);
+    }
+}
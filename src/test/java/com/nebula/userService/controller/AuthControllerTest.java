@@ -2,6 +2,7 @@ package com.nebula.userService.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nebula.userService.configs.JwtAuthenticationFilter;
+import com.nebula.userService.configs.RateLimitFilter;
 import com.nebula.userService.configs.JwtConfig;
 import com.nebula.userService.dto.JwtResponse;
 import com.nebula.userService.dto.LoginRequest;
@@ -31,7 +32,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         controllers = AuthController.class,
         excludeFilters = @ComponentScan.Filter(
                 type = FilterType.ASSIGNABLE_TYPE,
-                classes = {JwtAuthenticationFilter.class}
+                classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}
         )
 )
 @DisplayName("AuthController Tests")
@@ -2,6 +2,7 @@ package com.nebula.userService.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nebula.userService.configs.JwtAuthenticationFilter;
+import com.nebula.userService.configs.RateLimitFilter;
 import com.nebula.userService.dto.CurrentUserUpdateDTO;
 import com.nebula.userService.configs.JwtConfig;
 import com.nebula.userService.dto.PasswordChangeDTO;
@@ -11,7 +12,6 @@ import com.nebula.userService.dto.UserUpdateDTO;
 import com.nebula.userService.enums.Role;
 import com.nebula.userService.exception.DuplicateEmailException;
 import com.nebula.userService.exception.UserNotFoundException;
-import com.nebula.userService.service.RateLimitService;
 import com.nebula.userService.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -40,7 +40,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         controllers = UserController.class,
         excludeFilters = @ComponentScan.Filter(
                 type = FilterType.ASSIGNABLE_TYPE,
-                classes = {JwtAuthenticationFilter.class}
+                classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}
         )
 )
 @DisplayName("UserController Tests")
@@ -55,9 +55,6 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
-    @MockitoBean
-    private RateLimitService rateLimitService;
-
     @MockitoBean
     private JwtConfig jwtConfig;
 
@@ -71,7 +68,6 @@ class UserControllerTest {
     void setUp() {
         userResponseDTO = new UserResponseDTO(1L, "Joao Silva", Role.USER, "joao.silva", "joao@empresa.com", true);
         userRequestDTO = new UserRequestDTO("Joao Silva", "joao.silva", "joao@empresa.com", "Senha@123", Role.USER);
-        when(rateLimitService.tryConsume(any())).thenReturn(true);
     }
 
     @Test
@@ -127,20 +123,6 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
-    @Test
-    @WithMockUser
-    @DisplayName("POST createUser - rate limit excedido retorna 429 com payload")
-    void createUser_RateLimitExceeded_Returns429() throws Exception {
-        when(rateLimitService.tryConsume(any())).thenReturn(false);
-
-        mockMvc.perform(post("/api/users/createUser").with(csrf())
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(userRequestDTO)))
-                .andExpect(status().isTooManyRequests())
-                .andExpect(jsonPath("$.status").value(429))
-                .andExpect(jsonPath("$.error").value("Too Many Requests"));
-    }
-
     @Test
     @WithMockUser(roles = "ADMIN")
     @DisplayName("PUT updateUser - retorna 200")
@@ -0,0 +1,146 @@
+package com.nebula.userService.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nebula.userService.configs.JwtAuthenticationFilter;
+import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.RateLimitFilter;
+import com.nebula.userService.configs.SecurityConfig;
+import com.nebula.userService.dto.WebhookSubscriptionRequestDTO;
+import com.nebula.userService.dto.WebhookSubscriptionResponseDTO;
+import com.nebula.userService.exception.WebhookSubscriptionNotFoundException;
+import com.nebula.userService.service.WebhookSubscriptionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(
+        controllers = WebhookAdminController.class,
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.ASSIGNABLE_TYPE,
+                classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}
+        )
+)
+// Regras por URL (/api/admin/** exige ADMIN) ficam no SecurityConfig, que o @WebMvcTest não carrega sozinho
+@Import(SecurityConfig.class)
+@DisplayName("WebhookAdminController Tests")
+class WebhookAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private WebhookSubscriptionService webhookSubscriptionService;
+
+    @MockitoBean
+    private JwtConfig jwtConfig;
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    private WebhookSubscriptionRequestDTO request;
+    private WebhookSubscriptionResponseDTO response;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // O filtro JWT mockado só repassa; a autenticação vem do @WithMockUser
+        doAnswer(invocation -> {
+            invocation.getArgument(2, FilterChain.class)
+                    .doFilter(invocation.getArgument(0, ServletRequest.class), invocation.getArgument(1, ServletResponse.class));
+            return null;
+        }).when(jwtAuthenticationFilter).doFilter(any(), any(), any());
+        request = new WebhookSubscriptionRequestDTO("https://hooks.empresa.com/usuarios",
+                List.of("USER_CREATED", "USER_DELETED"), "segredo-compartilhado-123", true);
+        response = new WebhookSubscriptionResponseDTO(1L, "https://hooks.empresa.com/usuarios",
+                List.of("USER_CREATED", "USER_DELETED"), true, true, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("GET webhooks - ADMIN lista assinaturas sem expor o segredo")
+    void listSubscriptions_Admin_Returns200() throws Exception {
+        when(webhookSubscriptionService.listSubscriptions()).thenReturn(List.of(response));
+
+        mockMvc.perform(get("/api/admin/webhooks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].url").value("https://hooks.empresa.com/usuarios"))
+                .andExpect(jsonPath("$[0].signed").value(true))
+                .andExpect(jsonPath("$[0].secret").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET webhooks - USER recebe 403")
+    void listSubscriptions_User_Returns403() throws Exception {
+        mockMvc.perform(get("/api/admin/webhooks"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(webhookSubscriptionService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST webhooks - cria assinatura e retorna 201")
+    void createSubscription_Returns201() throws Exception {
+        when(webhookSubscriptionService.createSubscription(any())).thenReturn(response);
+
+        mockMvc.perform(post("/api/admin/webhooks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.eventTypes[0]").value("USER_CREATED"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST webhooks - URL e tipo de evento invalidos retornam 400")
+    void createSubscription_InvalidData_Returns400() throws Exception {
+        WebhookSubscriptionRequestDTO invalid = new WebhookSubscriptionRequestDTO(
+                "ftp://hooks.empresa.com", List.of("user created"), null, true);
+
+        mockMvc.perform(post("/api/admin/webhooks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(webhookSubscriptionService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("DELETE webhooks - assinatura inexistente retorna 404")
+    void deleteSubscription_NotFound_Returns404() throws Exception {
+        doThrow(new WebhookSubscriptionNotFoundException(99L)).when(webhookSubscriptionService).deleteSubscription(99L);
+
+        mockMvc.perform(delete("/api/admin/webhooks/99").with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -4,6 +4,7 @@ import com.nebula.userService.dto.ErrorResponseDTO;
 import com.nebula.userService.exception.DatabaseIntegrityException;
 import com.nebula.userService.exception.DuplicateEmailException;
 import com.nebula.userService.exception.DuplicateUsernameException;
+import com.nebula.userService.exception.ServiceOverloadedException;
 import com.nebula.userService.exception.UserNotFoundException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationServiceException;
@@ -70,6 +72,16 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
     }
 
+    @Test
+    @DisplayName("ServiceOverloadedException retorna 503 com Retry-After")
+    void handleServiceOverloadedException_Returns503WithRetryAfter() {
+        ServiceOverloadedException ex = new ServiceOverloadedException("Sobrecarregado", 3);
+        ResponseEntity<ErrorResponseDTO> response = handler.handleServiceOverloadedException(ex, request);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(response.getBody().getMessage()).isEqualTo("Sobrecarregado");
+    }
+
     @Test
     @DisplayName("EntityNotFoundException retorna 404")
     void handleEntityNotFoundException_Returns404() {
@@ -0,0 +1,122 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.dto.AuditLogFilterDTO;
+import com.nebula.userService.dto.AuditLogPageDTO;
+import com.nebula.userService.dto.AuditLogResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogQueryService Tests")
+class AuditLogQueryServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 15, 10, 0, 0, 123_456_000);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AuditLogQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AuditLogQueryService(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("search - pagina cheia devolve cursor do ultimo item sem COUNT")
+    void search_FullPage_ReturnsNextCursor() {
+        mockRows(rows(3));
+
+        AuditLogPageDTO page = service.search(AuditLogFilterDTO.builder().build(), null, 2);
+
+        assertThat(page.getItems()).extracting(AuditLogResponseDTO::getId).containsExactly(3L, 2L);
+        assertThat(page.getNextCursor()).isEqualTo(AuditLogQueryService.encodeCursor(BASE.minusSeconds(1), 2L));
+    }
+
+    @Test
+    @DisplayName("search - ultima pagina nao tem cursor")
+    void search_LastPage_NoCursor() {
+        mockRows(rows(1));
+
+        AuditLogPageDTO page = service.search(AuditLogFilterDTO.builder().build(), null, 2);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("search - filtros e cursor viram condicoes parametrizadas na ordem do indice")
+    void search_FiltersAndCursor_BuildKeysetQuery() {
+        mockRows(List.of());
+        String cursor = AuditLogQueryService.encodeCursor(BASE, 42L);
+        AuditLogFilterDTO filter = AuditLogFilterDTO.builder()
+                .userId(7L)
+                .action("LOGIN_FAILED")
+                .ipAddress(" ")
+                .to(BASE.plusDays(1))
+                .build();
+
+        service.search(filter, cursor, 500);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getValue())
+                .contains("a.user_id = ?", "a.action = ?", "a.created_at < ?", "(a.created_at, a.id) < (?, ?)")
+                .doesNotContain("a.ip_address = ?", "OFFSET", "COUNT")
+                .endsWith("ORDER BY a.created_at DESC, a.id DESC\n LIMIT ?");
+        assertThat(args.getValue()).containsExactly(7L, "LOGIN_FAILED", Timestamp.valueOf(BASE.plusDays(1)),
+                Timestamp.valueOf(BASE), 42L, AuditLogQueryService.MAX_LIMIT + 1);
+    }
+
+    @Test
+    @DisplayName("cursor - ida e volta preserva created_at com microssegundos e id")
+    void cursor_RoundTrip() {
+        AuditLogQueryService.Cursor decoded =
+                AuditLogQueryService.decodeCursor(AuditLogQueryService.encodeCursor(BASE, 99L));
+
+        assertThat(decoded.createdAt()).isEqualTo(BASE);
+        assertThat(decoded.id()).isEqualTo(99L);
+    }
+
+    @Test
+    @DisplayName("search - cursor invalido lanca IllegalArgumentException")
+    void search_InvalidCursor_Throws() {
+        assertThatThrownBy(() -> service.search(AuditLogFilterDTO.builder().build(), "nao-e-um-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor invalido");
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockRows(List<AuditLogResponseDTO> rows) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(rows);
+    }
+
+    private static List<AuditLogResponseDTO> rows(int count) {
+        return LongStream.rangeClosed(1, count)
+                .map(i -> count - i + 1)
+                .mapToObj(id -> new AuditLogResponseDTO(id, null, null, "LOGIN_SUCCESS", null, null, null,
+                        "10.0.0.1", BASE.minusSeconds(count - id), 1, null))
+                .toList();
+    }
+}
@@ -0,0 +1,291 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogWriter Tests")
+class AuditLogWriterTest {
+
+    private static final String ONE_ROW =
+            "INSERT INTO audit_log (user_id, action, entity, entity_id, detail, ip_address, created_at, "
+                    + "occurrences, first_occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LoginStatsRollup loginStatsRollup;
+
+    @TempDir
+    private Path spillDir;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("flush - grava a fila em INSERTs de varias linhas limitados ao batch-size")
+    void flush_WritesMultiRowInserts() {
+        AuditLogWriter writer = writer(16, AuditLogWriter.OverflowPolicy.DROP, 4);
+        for (int i = 0; i < 6; i++) {
+            writer.enqueue(event(i));
+        }
+
+        int written = writer.flush();
+
+        assertThat(written).isEqualTo(6);
+        verify(jdbcTemplate).update(eq(ONE_ROW + ", (?, ?, ?, ?, ?, ?, ?, ?, ?)".repeat(3)), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate).update(eq(ONE_ROW + ", (?, ?, ?, ?, ?, ?, ?, ?, ?)"), any(PreparedStatementSetter.class));
+        assertThat(registry.get("audit.events.written").functionCounter().count()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("enqueue - politica DROP descarta com a fila cheia e conta o descarte")
+    void enqueue_DropPolicy_CountsOverflow() {
+        AuditLogWriter writer = writer(2, AuditLogWriter.OverflowPolicy.DROP, 10);
+
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+        writer.enqueue(event(3));
+
+        assertThat(registry.get("audit.buffer.size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("audit.events.dropped").tag("reason", "overflow").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(writer.flush()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("enqueue - politica BLOCK sem thread gravadora descarta apos o timeout")
+    void enqueue_BlockPolicy_DropsAfterTimeout() {
+        AuditLogWriter writer = writer(2, AuditLogWriter.OverflowPolicy.BLOCK, 10);
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+
+        long start = System.nanoTime();
+        writer.enqueue(event(3));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(20);
+        assertThat(registry.get("audit.events.dropped").tag("reason", "overflow").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("flush - violacao de integridade no lote regrava linha a linha")
+    void flush_IntegrityViolation_FallsBackToSingleRows() {
+        AuditLogWriter writer = writer(16, AuditLogWriter.OverflowPolicy.DROP, 10);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(1);
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+        writer.enqueue(event(3));
+
+        assertThat(writer.flush()).isEqualTo(2);
+        // A linha rejeitada é tentada mais uma vez no ciclo seguinte
+        assertThat(writer.flush()).isEqualTo(1);
+        verify(jdbcTemplate, times(5)).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("flush - banco indisponivel tenta o lote mais uma vez e depois descarta")
+    void flush_DatabaseDown_RetriesOnceThenDrops() {
+        AuditLogWriter writer = writer(16, AuditLogWriter.OverflowPolicy.DROP, 10);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+
+        assertThat(writer.flush()).isZero();
+        assertThat(writer.flush()).isZero();
+        assertThat(writer.flush()).isZero();
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO audit_log"), any(PreparedStatementSetter.class));
+        assertThat(registry.get("audit.events.dropped").tag("reason", "error").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("enqueue - politica SPILL: o excedente vai ao disco pela thread gravadora, nunca por quem chama")
+    void enqueue_SpillPolicy_AppendsToSpill() {
+        AuditSpillLog spillLog = spillLog();
+        AuditLogWriter writer = writer(spillLog, 2, AuditLogWriter.OverflowPolicy.SPILL, 10, 0);
+
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+        writer.enqueue(event(3));
+
+        assertThat(registry.get("audit.events.dropped").tag("reason", "overflow").functionCounter().count()).isZero();
+        assertThat(registry.get("audit.buffer.overflow.size").gauge().value()).isEqualTo(1);
+        assertThat(spillLog.hasPending()).isFalse();
+        // Fila primeiro, depois o excedente passa pelo spill
+        assertThat(writer.flush()).isEqualTo(3);
+        assertThat(spillLog.hasPending()).isFalse();
+    }
+
+    @Test
+    @DisplayName("enqueue - politica SPILL descarta com as duas filas cheias ou sem espaco no spill")
+    void enqueue_SpillPolicy_DropsWhenOverflowFullOrSpillRefuses() {
+        AuditLogWriter writer = writer(2, AuditLogWriter.OverflowPolicy.SPILL, 10);
+
+        for (int i = 1; i <= 5; i++) {
+            writer.enqueue(event(i));
+        }
+        assertThat(registry.get("audit.events.dropped").tag("reason", "overflow").functionCounter().count())
+                .isEqualTo(1);
+
+        // Spill desligado: o excedente não tem para onde ir
+        assertThat(writer.flush()).isEqualTo(2);
+        assertThat(registry.get("audit.events.dropped").tag("reason", "overflow").functionCounter().count())
+                .isEqualTo(3);
+        assertThat(registry.get("audit.buffer.overflow.size").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("flush - banco fora envia o lote ao spill e regrava quando o banco volta")
+    void flush_DatabaseDown_SpillsAndReplaysAfterRecovery() throws InterruptedException {
+        AuditSpillLog spillLog = spillLog();
+        AuditLogWriter writer = writer(spillLog, 16, AuditLogWriter.OverflowPolicy.DROP, 10, 50);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(2);
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+
+        assertThat(writer.flush()).isZero();
+        assertThat(spillLog.hasPending()).isTrue();
+        // Dentro do intervalo de nova tentativa o banco nem é consultado
+        writer.enqueue(event(3));
+        assertThat(writer.flush()).isZero();
+        verify(jdbcTemplate, times(1)).update(anyString(), any(PreparedStatementSetter.class));
+
+        Thread.sleep(60);
+        assertThat(writer.flush()).isEqualTo(3);
+        assertThat(spillLog.hasPending()).isFalse();
+        assertThat(registry.get("audit.events.dropped").tag("reason", "error").functionCounter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("flush - so os lotes gravados alimentam o rollup, aplicado no fim do ciclo")
+    @SuppressWarnings("unchecked")
+    void flush_FeedsLoginStatsRollupWithWrittenBatches() {
+        AuditLogWriter writer = writer(16, AuditLogWriter.OverflowPolicy.DROP, 10);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("fk"));
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+
+        writer.flush();
+
+        ArgumentCaptor<List<AuditEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginStatsRollup).add(captor.capture());
+        assertThat(captor.getValue()).extracting(AuditEvent::userId).containsExactly(1L);
+        verify(loginStatsRollup).flush();
+    }
+
+    @Test
+    @DisplayName("AuditRingBuffer - produtores concorrentes nao perdem nem duplicam eventos")
+    void ringBuffer_ConcurrentProducers() throws InterruptedException {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(1 << 16);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(base + i);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        Set<Integer> unique = new HashSet<>(drained);
+
+        assertThat(drained).hasSize(producers * perProducer);
+        assertThat(unique).hasSize(producers * perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("AuditRingBuffer - cheia recusa a insercao e libera espaco apos o drain")
+    void ringBuffer_FullRejectsUntilDrained() {
+        AuditRingBuffer<String> buffer = new AuditRingBuffer<>(3);
+
+        assertThat(buffer.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer("e" + i)).isTrue();
+        }
+        assertThat(buffer.offer("e4")).isFalse();
+
+        List<String> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(buffer.offer("e4")).isTrue();
+        buffer.drainTo(drained, 10);
+        assertThat(drained).containsExactly("e0", "e1", "e2", "e3", "e4");
+    }
+
+    private AuditLogWriter writer(int capacity, AuditLogWriter.OverflowPolicy policy, int batchSize) {
+        return writer(new AuditSpillLog(false, spillDir.toString(), 0, 1), capacity, policy, batchSize, 0);
+    }
+
+    private AuditLogWriter writer(AuditSpillLog spillLog, int capacity, AuditLogWriter.OverflowPolicy policy,
+                                  int batchSize, long databaseRetryIntervalMs) {
+        // Sem start(): o teste controla quando a fila é esvaziada
+        AuditLogWriter writer = new AuditLogWriter(jdbcTemplate, spillLog, loginStatsRollup, capacity, policy, 20,
+                batchSize, 200, databaseRetryIntervalMs);
+        writer.bindTo(registry);
+        return writer;
+    }
+
+    private AuditSpillLog spillLog() {
+        return new AuditSpillLog(true, spillDir.toString(), 64 * 1024, 4);
+    }
+
+    private static AuditEvent event(long userId) {
+        return new AuditEvent(AuditLogService.LOGIN_SUCCESS, userId, "USER", null, null,
+                "Login bem-sucedido", "10.0.0.1", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,82 @@
+package com.nebula.userService.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditPartitionService Tests")
+class AuditPartitionServiceTest {
+
+    private static final Clock MARCH_2026 = Clock.fixed(Instant.parse("2026-03-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("maintainPartitions - cria o mes corrente e os meses seguintes")
+    void maintainPartitions_CreatesFuturePartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        service(2, 12, AuditPartitionService.RetentionMode.DROP).maintainPartitions();
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_log_p202603 PARTITION OF audit_log "
+                + "FOR VALUES FROM ('2026-03-01') TO ('2026-04-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_log_p202604 PARTITION OF audit_log "
+                + "FOR VALUES FROM ('2026-04-01') TO ('2026-05-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_log_p202605 PARTITION OF audit_log "
+                + "FOR VALUES FROM ('2026-05-01') TO ('2026-06-01')");
+        verify(jdbcTemplate, times(3)).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    @DisplayName("maintainPartitions - desanexa e apaga apenas particoes fora da retencao")
+    void maintainPartitions_DropsExpiredPartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "audit_log_p202502", "audit_log_p202503", "audit_log_p202601", "audit_log_archive"));
+
+        service(0, 12, AuditPartitionService.RetentionMode.DROP).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_p202502");
+        verify(jdbcTemplate).execute("DROP TABLE audit_log_p202502");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_p202503");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_archive");
+    }
+
+    @Test
+    @DisplayName("maintainPartitions - modo DETACH preserva a tabela desanexada")
+    void maintainPartitions_DetachModeKeepsTable() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("audit_log_p202401"));
+
+        service(0, 12, AuditPartitionService.RetentionMode.DETACH).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_p202401");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    @DisplayName("maintainPartitions - desligado nao executa SQL")
+    void maintainPartitions_Disabled() {
+        new AuditPartitionService(jdbcTemplate, MARCH_2026, false, 3, 12,
+                AuditPartitionService.RetentionMode.DROP).maintainPartitions();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private AuditPartitionService service(int monthsAhead, int retentionMonths,
+                                          AuditPartitionService.RetentionMode mode) {
+        return new AuditPartitionService(jdbcTemplate, MARCH_2026, true, monthsAhead, retentionMonths, mode);
+    }
+}
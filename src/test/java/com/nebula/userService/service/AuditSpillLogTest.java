@@ -0,0 +1,129 @@
+package com.nebula.userService.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuditSpillLog Tests")
+class AuditSpillLogTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    @DisplayName("append/replay - eventos voltam na ordem, com todos os campos, e o segmento e apagado")
+    void appendAndReplay_RoundTrip() throws IOException {
+        AuditSpillLog spillLog = spillLog(4);
+        List<AuditEvent> events = events(120, 10);
+        spillLog.append(events);
+
+        List<AuditEvent> replayed = new ArrayList<>();
+        int count = spillLog.replay(50, 10, replayed::addAll);
+
+        assertThat(count).isEqualTo(120);
+        assertThat(replayed).isEqualTo(events);
+        assertThat(spillLog.hasPending()).isFalse();
+        assertThat(segmentFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("replay - lote recusado fica no disco e o progresso sobrevive a reabertura")
+    void replay_CheckpointSurvivesRestart() {
+        AuditSpillLog spillLog = spillLog(4);
+        List<AuditEvent> events = events(100, 10);
+        spillLog.append(events);
+        spillLog.replay(40, 1, batch -> true);
+        spillLog.replay(40, 1, batch -> false);
+        spillLog.close();
+
+        List<AuditEvent> replayed = new ArrayList<>();
+        AuditSpillLog reopened = spillLog(4);
+        reopened.replay(40, 10, replayed::addAll);
+
+        assertThat(replayed).isEqualTo(events.subList(40, 100));
+    }
+
+    @Test
+    @DisplayName("append - limite de segmentos recusa o lote inteiro")
+    void append_SegmentLimit_RejectsWholeBatch() {
+        AuditSpillLog spillLog = spillLog(2);
+        // ~52 KB por lote: cabem dois lotes em dois segmentos de 64 KB
+        List<AuditEvent> batch = events(100, 500);
+
+        assertThat(spillLog.append(batch)).isTrue();
+        assertThat(spillLog.append(batch)).isTrue();
+        assertThat(spillLog.append(batch)).isFalse();
+
+        List<AuditEvent> replayed = new ArrayList<>();
+        spillLog.replay(1000, 10, replayed::addAll);
+        assertThat(replayed).hasSize(200);
+    }
+
+    @Test
+    @DisplayName("replay - registro corrompido encerra a leitura do segmento")
+    void replay_CorruptRecord_StopsSegment() throws IOException {
+        AuditSpillLog spillLog = spillLog(4);
+        spillLog.append(events(3, 10));
+        spillLog.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // Corrompe o corpo do segundo registro (o CRC deixa de bater)
+        int firstRecordLength = AuditSpillLog.encode(events(1, 10).get(0)).length;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(Long.BYTES + 8 + firstRecordLength + 8 + 2);
+            file.write(0x7f);
+        }
+
+        List<AuditEvent> replayed = new ArrayList<>();
+        spillLog(4).replay(10, 10, replayed::addAll);
+
+        assertThat(replayed).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("desligado - nao grava nada nem cria diretorio")
+    void disabled_NoOp() throws IOException {
+        Path target = dir.resolve("spill");
+        AuditSpillLog spillLog = new AuditSpillLog(false, target.toString(), SEGMENT_SIZE, 4);
+
+        assertThat(spillLog.append(events(1, 10))).isFalse();
+        assertThat(spillLog.replay(10, 10, batch -> true)).isZero();
+        assertThat(Files.exists(target)).isFalse();
+    }
+
+    private AuditSpillLog spillLog(int maxSegments) {
+        return new AuditSpillLog(true, dir.toString(), SEGMENT_SIZE, maxSegments);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static List<AuditEvent> events(int count, int detailLength) {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 15, 10, 0, 0, 123_456_000);
+        return IntStream.range(0, count)
+                .mapToObj(i -> new AuditEvent(AuditLogService.LOGIN_FAILED, i % 2 == 0 ? (long) i : null,
+                        i % 2 == 0 ? "USER" : null, i % 3 == 0 ? "User" : null, i % 3 == 0 ? (long) i : null,
+                        "d".repeat(detailLength), "10.0.0." + (i % 255), base.plusSeconds(i),
+                        i % 5 == 0 ? 1 + i : 1, i % 5 == 0 ? base.minusSeconds(i) : null))
+                .toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthEpochService Tests")
+class AuthEpochServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @InjectMocks
+    private AuthEpochService authEpochService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    @DisplayName("init - carrega o hash e responde da memoria; usuario ausente tem epoca 0")
+    void init_LoadsHash() {
+        when(hashOperations.entries(AuthEpochService.EPOCH_KEY)).thenReturn(Map.of("joao.silva", "3"));
+
+        authEpochService.init();
+
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(3);
+        assertThat(authEpochService.currentEpoch("maria")).isZero();
+        verify(hashOperations, never()).get(any(), any());
+    }
+
+    @Test
+    @DisplayName("resync - incremento cujo aviso de pub/sub se perdeu passa a valer")
+    void resync_RecoversLostBump() {
+        when(hashOperations.entries(AuthEpochService.EPOCH_KEY))
+                .thenReturn(Map.of("joao.silva", "3"))
+                .thenReturn(Map.of("joao.silva", "4"));
+        authEpochService.init();
+
+        assertThat(authEpochService.resync()).isTrue();
+
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("onChannelSubscribed - reassinatura apos reconexao recarrega as epocas")
+    void onChannelSubscribed_Resyncs() {
+        when(hashOperations.entries(AuthEpochService.EPOCH_KEY))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of("joao.silva", "2"));
+        authEpochService.init();
+
+        authEpochService.onChannelSubscribed(AuthEpochService.CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("onMessage - a epoca so avanca, mensagens atrasadas sao ignoradas")
+    void onMessage_OnlyAdvances() {
+        when(hashOperations.entries(AuthEpochService.EPOCH_KEY)).thenReturn(Map.of());
+        authEpochService.init();
+
+        authEpochService.onMessage(message("joao.silva:5"), null);
+        authEpochService.onMessage(message("joao.silva:4"), null);
+
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Redis fora na subida - consulta sob demanda ate o primeiro resync bem-sucedido")
+    void init_RedisDown_FallsBackToLookups() {
+        when(hashOperations.entries(AuthEpochService.EPOCH_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(Map.of("maria", "1"));
+        when(hashOperations.get(AuthEpochService.EPOCH_KEY, "joao.silva")).thenReturn("7");
+
+        authEpochService.init();
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(7);
+
+        assertThat(authEpochService.resync()).isTrue();
+        assertThat(authEpochService.currentEpoch("ana")).isZero();
+        verify(hashOperations, never()).get(AuthEpochService.EPOCH_KEY, "ana");
+    }
+
+    @Test
+    @DisplayName("Redis fora antes da primeira carga - consulta falha assume epoca 0, conta a falha e tenta de novo")
+    void currentEpoch_RedisDownBeforeLoad_FallsBackToZero() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        authEpochService.bindTo(registry);
+        when(hashOperations.entries(AuthEpochService.EPOCH_KEY)).thenThrow(new RedisConnectionFailureException("down"));
+        when(hashOperations.get(AuthEpochService.EPOCH_KEY, "joao.silva"))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn("7");
+
+        authEpochService.init();
+
+        assertThat(authEpochService.currentEpoch("joao.silva")).isZero();
+        assertThat(registry.get("auth.epoch.lookup.failures").functionCounter().count()).isEqualTo(1);
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("bump - incrementa no Redis, aplica localmente e publica")
+    void bump_IncrementsAndPublishes() {
+        when(hashOperations.increment(AuthEpochService.EPOCH_KEY, "joao.silva", 1)).thenReturn(2L);
+
+        authEpochService.bump("joao.silva");
+
+        assertThat(authEpochService.currentEpoch("joao.silva")).isEqualTo(2);
+        verify(redisTemplate).convertAndSend(AuthEpochService.CHANNEL, "joao.silva:2");
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(AuthEpochService.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
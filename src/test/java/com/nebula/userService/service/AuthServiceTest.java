@@ -4,6 +4,7 @@ import com.nebula.userService.configs.JwtConfig;
 import com.nebula.userService.dto.JwtResponse;
 import com.nebula.userService.dto.LoginRequest;
 import com.nebula.userService.entities.UserEntity;
+import com.nebula.userService.entities.UserSessionEntity;
 import com.nebula.userService.enums.Role;
 import com.nebula.userService.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,18 +14,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationServiceException;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -32,21 +32,30 @@ import static org.mockito.Mockito.*;
 @DisplayName("AuthService Tests")
 class AuthServiceTest {
 
-    @Mock
-    private AuthenticationManager authenticationManager;
-
     @Mock
     private JwtConfig jwtConfig;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
     @Mock
     private TokenBlacklistService tokenBlacklistService;
 
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private AuthEpochService authEpochService;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -67,90 +76,135 @@ class AuthServiceTest {
     }
 
     @Test
-    @DisplayName("authenticateUser - sucesso retorna token JWT")
+    @DisplayName("authenticateUser - sucesso retorna access e refresh token")
     void authenticateUser_Success() {
-        Authentication auth = new UsernamePasswordAuthenticationToken("joao.silva", null);
-        when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByUsername("joao.silva")).thenReturn(Optional.of(userEntity));
-        when(jwtConfig.generateToken(anyString(), anyList())).thenReturn("mocked.jwt.token");
-        when(jwtConfig.generateRefreshToken(anyString())).thenReturn("mocked.refresh.token");
+        mockSuccessfulLogin();
+        when(jwtConfig.generateToken(anyString(), anyList(), anyList(), anyString(), anyLong()))
+                .thenReturn("mocked.jwt.token");
+        when(jwtConfig.generateRefreshToken(anyString(), anyString())).thenReturn("mocked.refresh.token");
 
         JwtResponse result = authService.authenticateUser(loginRequest);
 
         assertThat(result).isNotNull();
         assertThat(result.getToken()).isEqualTo("mocked.jwt.token");
         assertThat(result.getRefreshToken()).isEqualTo("mocked.refresh.token");
-        verify(jwtConfig).generateToken(eq("joao.silva"), anyList());
-        verify(jwtConfig).generateRefreshToken("joao.silva");
+        verify(jwtConfig).generateRefreshToken("joao.silva", "session-1");
     }
 
     @Test
-    @DisplayName("authenticateUser - gera token com ROLE_USER")
+    @DisplayName("authenticateUser - carrega o usuario uma unica vez e grava sucesso em um UPDATE")
+    void authenticateUser_SingleLookupAndSingleUpdate() {
+        mockSuccessfulLogin();
+
+        authService.authenticateUser(loginRequest);
+
+        verify(userRepository, times(1)).findForLogin("joao.silva");
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository).registerSuccessfulLogin(eq(1L), any(LocalDateTime.class));
+        verify(userRepository, never()).save(any());
+        verify(loginAttemptService).recordSuccess("joao.silva");
+    }
+
+    @Test
+    @DisplayName("authenticateUser - gera token com ROLE_USER e epoca atual")
     void authenticateUser_GeneratesCorrectRole() {
-        Authentication auth = new UsernamePasswordAuthenticationToken("joao.silva", null);
-        when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByUsername("joao.silva")).thenReturn(Optional.of(userEntity));
-        when(jwtConfig.generateToken(anyString(), anyList())).thenReturn("mocked.jwt.token");
-        when(jwtConfig.generateRefreshToken(anyString())).thenReturn("mocked.refresh.token");
+        mockSuccessfulLogin();
+        when(authEpochService.currentEpoch("joao.silva")).thenReturn(4L);
 
         authService.authenticateUser(loginRequest);
 
         verify(jwtConfig).generateToken(eq("joao.silva"), argThat(roles ->
-                roles.size() == 1 && roles.get(0).equals("ROLE_USER")));
+                roles.size() == 1 && roles.get(0).equals("ROLE_USER")), anyList(), eq("session-1"), eq(4L));
     }
 
     @Test
     @DisplayName("authenticateUser - role nula usa USER como padrao")
     void authenticateUser_NullRole_DefaultsToUser() {
         userEntity.setRole(null);
-        Authentication auth = new UsernamePasswordAuthenticationToken("joao.silva", null);
-        when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByUsername("joao.silva")).thenReturn(Optional.of(userEntity));
-        when(jwtConfig.generateToken(anyString(), anyList())).thenReturn("mocked.jwt.token");
-        when(jwtConfig.generateRefreshToken(anyString())).thenReturn("mocked.refresh.token");
+        mockSuccessfulLogin();
 
         authService.authenticateUser(loginRequest);
 
         verify(jwtConfig).generateToken(eq("joao.silva"), argThat(roles ->
-                roles.size() == 1 && roles.get(0).equals("ROLE_USER")));
+                roles.size() == 1 && roles.get(0).equals("ROLE_USER")), anyList(), anyString(), anyLong());
     }
 
     @Test
     @DisplayName("authenticateUser - role ADMIN gera ROLE_ADMIN no token")
     void authenticateUser_AdminRole_Success() {
         userEntity.setRole(Role.ADMIN);
-        Authentication auth = new UsernamePasswordAuthenticationToken("joao.silva", null);
-        when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByUsername("joao.silva")).thenReturn(Optional.of(userEntity));
-        when(jwtConfig.generateToken(anyString(), anyList())).thenReturn("admin.jwt.token");
-        when(jwtConfig.generateRefreshToken(anyString())).thenReturn("admin.refresh.token");
+        mockSuccessfulLogin();
 
-        JwtResponse result = authService.authenticateUser(loginRequest);
+        authService.authenticateUser(loginRequest);
 
-        assertThat(result.getToken()).isEqualTo("admin.jwt.token");
         verify(jwtConfig).generateToken(eq("joao.silva"), argThat(roles ->
-                roles.get(0).equals("ROLE_ADMIN")));
+                roles.get(0).equals("ROLE_ADMIN")), anyList(), anyString(), anyLong());
     }
 
     @Test
-    @DisplayName("authenticateUser - credenciais invalidas lanca AuthenticationServiceException")
+    @DisplayName("authenticateUser - senha errada incrementa falhas e lanca AuthenticationServiceException")
     void authenticateUser_BadCredentials_ThrowsException() {
-        when(authenticationManager.authenticate(any()))
-                .thenThrow(new BadCredentialsException("Bad credentials"));
+        when(userRepository.findForLogin("joao.silva")).thenReturn(Optional.of(userEntity));
+        when(passwordEncoder.matches("Senha@123", "$2a$encoded")).thenReturn(false);
+        when(loginAttemptService.recordFailure(userEntity)).thenReturn(new LoginAttemptService.FailedLogin(1, false));
 
         assertThatThrownBy(() -> authService.authenticateUser(loginRequest))
                 .isInstanceOf(AuthenticationServiceException.class)
                 .hasMessageContaining("Invalid credentials");
+
+        verify(loginAttemptService).recordFailure(userEntity);
+        verify(userRepository, never()).registerFailedAttempt(anyLong(), anyInt(), any());
+        verify(auditLogService).logLoginFailure("joao.silva", userEntity, "Tentativa 1 de 5", "unknown");
+        verifyNoInteractions(sessionService);
     }
 
     @Test
-    @DisplayName("authenticateUser - usuario nao no repositorio lanca excecao")
-    void authenticateUser_UserNotInRepository_ThrowsException() {
-        Authentication auth = new UsernamePasswordAuthenticationToken("joao.silva", null);
-        when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(userRepository.findByUsername("joao.silva")).thenReturn(Optional.empty());
+    @DisplayName("authenticateUser - ultima tentativa permitida registra bloqueio da conta")
+    void authenticateUser_LastAttempt_LogsAccountLocked() {
+        when(userRepository.findForLogin("joao.silva")).thenReturn(Optional.of(userEntity));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+        when(loginAttemptService.recordFailure(userEntity))
+                .thenReturn(new LoginAttemptService.FailedLogin(UserEntity.MAX_FAILED_ATTEMPTS, true));
 
         assertThatThrownBy(() -> authService.authenticateUser(loginRequest))
-                .isInstanceOf(Exception.class);
+                .isInstanceOf(AuthenticationServiceException.class);
+
+        verify(auditLogService).log(eq(AuditLogService.ACCOUNT_LOCKED), eq(userEntity), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("authenticateUser - usuario inexistente ainda executa o BCrypt e lanca excecao")
+    void authenticateUser_UnknownUser_ThrowsException() {
+        when(userRepository.findForLogin("joao.silva")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("$2a$dummy");
+        when(passwordEncoder.matches("Senha@123", "$2a$dummy")).thenReturn(true);
+
+        assertThatThrownBy(() -> authService.authenticateUser(loginRequest))
+                .isInstanceOf(AuthenticationServiceException.class)
+                .hasMessageContaining("Invalid credentials");
+
+        verify(passwordEncoder).matches("Senha@123", "$2a$dummy");
+        verifyNoInteractions(loginAttemptService);
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    @DisplayName("authenticateUser - conta bloqueada nao verifica a senha")
+    void authenticateUser_LockedAccount_ThrowsException() {
+        userEntity.setLockedUntil(LocalDateTime.now().plusMinutes(10));
+        when(userRepository.findForLogin("joao.silva")).thenReturn(Optional.of(userEntity));
+
+        assertThatThrownBy(() -> authService.authenticateUser(loginRequest))
+                .isInstanceOf(AuthenticationServiceException.class)
+                .hasMessageContaining("bloqueada");
+
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    private void mockSuccessfulLogin() {
+        when(userRepository.findForLogin("joao.silva")).thenReturn(Optional.of(userEntity));
+        when(passwordEncoder.matches("Senha@123", "$2a$encoded")).thenReturn(true);
+        when(sessionService.createSession(eq(userEntity), anyString(), anyString()))
+                .thenReturn(UserSessionEntity.builder().sessionId("session-1").build());
     }
-}
\ No newline at end of file
+}
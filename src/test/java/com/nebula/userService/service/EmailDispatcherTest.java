@@ -0,0 +1,130 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.entities.EmailOutboxEntity;
+import com.nebula.userService.enums.EmailOutboxStatus;
+import com.nebula.userService.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailDispatcher Tests")
+class EmailDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EmailDispatcher emailDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // 1 worker, lotes de 10, 4 mensagens por conexão, 3 tentativas, 5 e-mails/minuto
+        emailDispatcher = new EmailDispatcher(emailOutboxRepository, emailService, transactionTemplate,
+                1, 10, 4, 3, 300_000, 5_000, 3_600_000, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailDispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("dispatchPending - divide o lote em blocos por conexao e marca enviados")
+    void dispatchPending_SendsChunksPerConnection() {
+        mockClaim(emails(5));
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of());
+
+        int processed = emailDispatcher.dispatchPending();
+
+        assertThat(processed).isEqualTo(5);
+        verify(emailService).sendBatch(argThat(chunk -> chunk.size() == 4));
+        verify(emailService).sendBatch(argThat(chunk -> chunk.size() == 1));
+        verify(emailOutboxRepository).markSent(eq(List.of(1L, 2L, 3L, 4L)), any(LocalDateTime.class));
+        verify(emailOutboxRepository).markSent(eq(List.of(5L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("dispatchPending - throttle do provedor limita o lote reivindicado")
+    void dispatchPending_ThrottleLimitsClaim() {
+        mockClaim(emails(5));
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of());
+        emailDispatcher.dispatchPending();
+
+        int processed = emailDispatcher.dispatchPending();
+
+        assertThat(processed).isZero();
+        verify(emailOutboxRepository, times(1)).lockDue(any(), argThat(page -> page.getPageSize() == 5));
+    }
+
+    @Test
+    @DisplayName("sendChunk - falha de uma mensagem reagenda so ela")
+    void sendChunk_PartialFailure_RetriesOnlyFailed() {
+        List<EmailOutboxEntity> chunk = emails(2);
+        when(emailService.sendBatch(chunk)).thenReturn(Map.of(2L, new RuntimeException("550")));
+
+        emailDispatcher.sendChunk(chunk);
+
+        verify(emailOutboxRepository).markSent(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(emailOutboxRepository).markFailed(eq(2L), eq(EmailOutboxStatus.PENDING), eq(1),
+                argThat(next -> next.isAfter(LocalDateTime.now())), anyString());
+    }
+
+    @Test
+    @DisplayName("sendChunk - falha de autenticacao SMTP na ultima tentativa move o bloco para DEAD")
+    void sendChunk_ConnectionFailure_LastAttempt_MarksDead() {
+        List<EmailOutboxEntity> chunk = emails(2);
+        chunk.forEach(email -> email.setAttempts(2));
+        when(emailService.sendBatch(chunk)).thenThrow(new MailAuthenticationException("535 auth failed"));
+
+        emailDispatcher.sendChunk(chunk);
+
+        verify(emailOutboxRepository, times(2)).markFailed(any(), eq(EmailOutboxStatus.DEAD), eq(3), any(), anyString());
+        verify(emailOutboxRepository, never()).markSent(anyList(), any());
+    }
+
+    private static List<EmailOutboxEntity> emails(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> EmailOutboxEntity.builder()
+                        .id(id)
+                        .recipient("dest" + id + "@email.com")
+                        .subject("Assunto")
+                        .body("Corpo")
+                        .status(EmailOutboxStatus.PENDING)
+                        .nextAttemptAt(LocalDateTime.now())
+                        .build())
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockClaim(List<EmailOutboxEntity> due) {
+        when(emailOutboxRepository.lockDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(due);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+}
@@ -1,15 +1,26 @@
 package com.nebula.userService.service;
 
+import com.nebula.userService.entities.EmailOutboxEntity;
+import com.nebula.userService.enums.EmailOutboxStatus;
+import com.nebula.userService.repository.EmailOutboxRepository;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -21,9 +32,16 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
-    @InjectMocks
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
     private EmailService emailService;
 
+    @BeforeEach
+    void setUp() {
+        emailService = new EmailService(mailSender, "noreply@empresa.com", emailOutboxRepository);
+    }
+
     @Test
     @DisplayName("sendEmail - sucesso")
     void sendEmail_Success() {
@@ -83,4 +101,54 @@ class EmailServiceTest {
                 .isInstanceOf(EmailService.EmailServiceException.class)
                 .hasMessageContaining("Falha ao enviar e-mail");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("queueEmail - grava no outbox sem abrir conexao SMTP")
+    void queueEmail_SavesToOutbox() {
+        when(emailOutboxRepository.save(any(EmailOutboxEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        emailService.queueEmail("dest@email.com", "Assunto", "Corpo");
+
+        verify(emailOutboxRepository).save(argThat(email -> email.getRecipient().equals("dest@email.com")
+                && email.getStatus() == EmailOutboxStatus.PENDING));
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    @DisplayName("queueEmail - email invalido nao e enfileirado")
+    void queueEmail_InvalidEmail_ThrowsException() {
+        assertThatThrownBy(() -> emailService.queueEmail("email-invalido", "Assunto", "Corpo"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(emailOutboxRepository);
+    }
+
+    @Test
+    @DisplayName("sendBatch - envia todas as mensagens numa unica chamada e mapeia falhas por id")
+    void sendBatch_SingleSendCall_MapsFailures() {
+        Session session = Session.getInstance(new Properties());
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(session));
+        List<Object> sent = new ArrayList<>();
+        doAnswer(invocation -> {
+            // O Mockito expande o varargs: cada mensagem é um argumento
+            Object[] messages = invocation.getArguments();
+            sent.addAll(List.of(messages));
+            throw new MailSendException(Map.of(messages[1], new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        Map<Long, Exception> failures = emailService.sendBatch(List.of(outboxEmail(1L), outboxEmail(2L)));
+
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+        assertThat(sent).hasSize(2);
+        assertThat(failures).containsOnlyKeys(2L);
+    }
+
+    private static EmailOutboxEntity outboxEmail(Long id) {
+        return EmailOutboxEntity.builder()
+                .id(id)
+                .recipient("dest" + id + "@email.com")
+                .subject("Assunto")
+                .body("Corpo")
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GcraRateLimiter Tests")
+class GcraRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @InjectMocks
+    private GcraRateLimiter gcraRateLimiter;
+
+    private RateLimitProperties.Policy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new RateLimitProperties.Policy();
+        policy.setName("login-ip");
+        policy.setAlgorithm(RateLimitProperties.Algorithm.GCRA);
+        policy.setCapacity(30);
+        policy.setRefillTokens(30);
+        policy.setRefillSeconds(60);
+    }
+
+    @Test
+    @DisplayName("tryConsume - uma chamada ao script com intervalo de emissao e tolerancia em microssegundos")
+    @SuppressWarnings("unchecked")
+    void tryConsume_SingleScriptCall() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn(List.of(1L, 29L, 0L, 2_000_000L));
+
+        RateLimitDecision decision = gcraRateLimiter.tryConsume(policy, "rate_limit:gcra:login-ip:10.0.0.1");
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.limit()).isEqualTo(30);
+        assertThat(decision.remaining()).isEqualTo(29);
+        assertThat(decision.resetSeconds()).isEqualTo(2);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+                eq(List.of("rate_limit:gcra:login-ip:10.0.0.1")), eq("2000000"), eq("60000000"));
+    }
+
+    @Test
+    @DisplayName("tryConsume - negado devolve Retry-After arredondado para cima")
+    @SuppressWarnings("unchecked")
+    void tryConsume_Rejected() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn(List.of(0L, 0L, 1_500_000L, 59_000_000L));
+
+        RateLimitDecision decision = gcraRateLimiter.tryConsume(policy, "rate_limit:gcra:login-ip:10.0.0.1");
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.remaining()).isZero();
+        assertThat(decision.retryAfterSeconds()).isEqualTo(2);
+        assertThat(decision.resetSeconds()).isEqualTo(59);
+    }
+}
@@ -0,0 +1,90 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.entities.UserEntity;
+import com.nebula.userService.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoginAttemptService Tests")
+class LoginAttemptServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private LoginAttemptService loginAttemptService;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        user = UserEntity.builder().id(1L).username("joao.silva").failedAttempts(0).build();
+    }
+
+    @Test
+    @DisplayName("recordFailure - falha abaixo do limite nao escreve no banco")
+    void recordFailure_BelowLimit_NoDatabaseWrite() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(2L);
+
+        LoginAttemptService.FailedLogin result = loginAttemptService.recordFailure(user);
+
+        assertThat(result.attempts()).isEqualTo(2);
+        assertThat(result.lockedNow()).isFalse();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("recordFailure - falha que atinge o limite grava locked_until uma vez")
+    void recordFailure_ReachesLimit_LocksInDatabase() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenReturn((long) UserEntity.MAX_FAILED_ATTEMPTS);
+
+        LoginAttemptService.FailedLogin result = loginAttemptService.recordFailure(user);
+
+        assertThat(result.lockedNow()).isTrue();
+        verify(userRepository).lockUntil(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("recordFailure - conta ja bloqueada no Redis nao gera nova transicao")
+    void recordFailure_AlreadyLocked_NoTransition() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(-1L);
+
+        LoginAttemptService.FailedLogin result = loginAttemptService.recordFailure(user);
+
+        assertThat(result.lockedNow()).isFalse();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("recordFailure - Redis indisponivel usa incremento atomico no banco")
+    void recordFailure_RedisDown_FallsBackToDatabase() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        LoginAttemptService.FailedLogin result = loginAttemptService.recordFailure(user);
+
+        assertThat(result.attempts()).isEqualTo(1);
+        verify(userRepository).registerFailedAttempt(eq(1L), eq(UserEntity.MAX_FAILED_ATTEMPTS),
+                any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,109 @@
+package com.nebula.userService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoginFailureAggregator Tests")
+class LoginFailureAggregatorTest {
+
+    private static final String FAILED = AuditLogService.LOGIN_FAILED;
+
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("flush - falhas repetidas da mesma chave viram uma linha com contagem e primeira/ultima ocorrencia")
+    void flush_CollapsesRepeatedFailures() {
+        LoginFailureAggregator aggregator = aggregator(true, 100);
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 1 de 5", "10.0.0.1");
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 2 de 5", "10.0.0.1");
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 3 de 5", "10.0.0.1");
+        verifyNoInteractions(auditLogWriter);
+
+        assertThat(aggregator.flush()).isEqualTo(1);
+
+        AuditEvent event = captureEvents(1).get(0);
+        assertThat(event.action()).isEqualTo(FAILED);
+        assertThat(event.userId()).isEqualTo(7L);
+        assertThat(event.detail()).isEqualTo("Tentativa 3 de 5");
+        assertThat(event.occurrences()).isEqualTo(3);
+        assertThat(event.firstOccurredAt()).isNotNull().isBeforeOrEqualTo(event.createdAt());
+        assertThat(registry.get("audit.aggregation.collapsed").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("flush - username ou IP diferentes ficam em linhas separadas; falha unica nao tem firstOccurredAt")
+    void flush_KeepsDistinctKeysApart() {
+        LoginFailureAggregator aggregator = aggregator(true, 100);
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 1 de 5", "10.0.0.1");
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 2 de 5", "10.0.0.2");
+        aggregator.record(FAILED, "maria", null, null, "Username nao encontrado: maria", "10.0.0.1");
+
+        assertThat(registry.get("audit.aggregation.keys").gauge().value()).isEqualTo(3);
+        assertThat(aggregator.flush()).isEqualTo(3);
+
+        assertThat(captureEvents(3)).allSatisfy(event -> {
+            assertThat(event.occurrences()).isEqualTo(1);
+            assertThat(event.firstOccurredAt()).isNull();
+        });
+        assertThat(registry.get("audit.aggregation.keys").gauge().value()).isZero();
+        // Janela fechada: nada mais a gravar
+        assertThat(aggregator.flush()).isZero();
+    }
+
+    @Test
+    @DisplayName("record - acima de max-keys as chaves novas vao direto para o writer")
+    void record_MaxKeys_BypassesAggregation() {
+        LoginFailureAggregator aggregator = aggregator(true, 1);
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 1 de 5", "10.0.0.1");
+        aggregator.record(FAILED, "maria", null, null, "Username nao encontrado: maria", "10.0.0.9");
+        // Chave já aberta continua agregando
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 2 de 5", "10.0.0.1");
+
+        AuditEvent bypassed = captureEvents(1).get(0);
+        assertThat(bypassed.ipAddress()).isEqualTo("10.0.0.9");
+        assertThat(aggregator.flush()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("desligado - cada falha e enviada ao writer na hora")
+    void disabled_PassesThrough() {
+        LoginFailureAggregator aggregator = aggregator(false, 100);
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 1 de 5", "10.0.0.1");
+        aggregator.record(FAILED, "joao.silva", 7L, "USER", "Tentativa 2 de 5", "10.0.0.1");
+
+        verify(auditLogWriter, times(2)).enqueue(any());
+        assertThat(aggregator.flush()).isZero();
+    }
+
+    private LoginFailureAggregator aggregator(boolean enabled, int maxKeys) {
+        LoginFailureAggregator aggregator = new LoginFailureAggregator(auditLogWriter, enabled, maxKeys);
+        aggregator.bindTo(registry);
+        return aggregator;
+    }
+
+    private List<AuditEvent> captureEvents(int expected) {
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditLogWriter, times(expected)).enqueue(captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,108 @@
+package com.nebula.userService.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoginStatsRollup Tests")
+class LoginStatsRollupTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2026, 3, 15, 10, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("flush - soma os eventos de login por hora e role num unico upsert")
+    void flush_UpsertsCountsPerHourAndRole() throws SQLException {
+        LoginStatsRollup rollup = new LoginStatsRollup(jdbcTemplate, true);
+        rollup.add(List.of(
+                event(AuditLogService.LOGIN_SUCCESS, "USER", HOUR.plusMinutes(5), 1),
+                event(AuditLogService.LOGIN_SUCCESS, "USER", HOUR.plusMinutes(59), 1),
+                event(AuditLogService.LOGIN_FAILED, "USER", HOUR.plusMinutes(30), 40),
+                event(AuditLogService.ACCOUNT_LOCKED, "USER", HOUR.plusMinutes(31), 1),
+                event(AuditLogService.USER_UPDATED, "USER", HOUR.plusMinutes(31), 1)));
+
+        assertThat(rollup.flush()).isEqualTo(1);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(sql.capture(), setter.capture());
+        assertThat(sql.getValue()).startsWith("INSERT INTO login_stats_hourly").contains("ON CONFLICT (bucket_start, role)");
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps);
+        verify(ps).setTimestamp(1, Timestamp.valueOf(HOUR));
+        verify(ps).setString(2, "USER");
+        verify(ps).setLong(3, 2);
+        verify(ps).setLong(4, 40);
+        verify(ps).setLong(5, 1);
+    }
+
+    @Test
+    @DisplayName("add - horas e roles distintas viram linhas separadas; sem role conta como UNKNOWN")
+    void add_SeparatesBuckets() throws SQLException {
+        LoginStatsRollup rollup = new LoginStatsRollup(jdbcTemplate, true);
+        rollup.add(List.of(
+                event(AuditLogService.LOGIN_SUCCESS, "USER", HOUR, 1),
+                event(AuditLogService.LOGIN_SUCCESS, "ADMIN", HOUR, 1),
+                event(AuditLogService.LOGIN_FAILED, null, HOUR.plusHours(1), 1)));
+
+        assertThat(rollup.flush()).isEqualTo(3);
+
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(anyString(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps);
+        verify(ps).setString(anyInt(), eq(LoginStatsRollup.NO_ROLE));
+    }
+
+    @Test
+    @DisplayName("flush - falha no upsert mantem os deltas para o proximo ciclo")
+    void flush_Failure_KeepsDeltas() {
+        LoginStatsRollup rollup = new LoginStatsRollup(jdbcTemplate, true);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+        rollup.add(List.of(event(AuditLogService.LOGIN_SUCCESS, "USER", HOUR, 1)));
+
+        assertThat(rollup.flush()).isZero();
+        assertThat(rollup.flush()).isEqualTo(1);
+        assertThat(rollup.flush()).isZero();
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO login_stats_hourly"), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("desligado - nao acumula nem grava nada")
+    void disabled_NoOp() {
+        LoginStatsRollup rollup = new LoginStatsRollup(jdbcTemplate, false);
+        rollup.add(List.of(event(AuditLogService.LOGIN_SUCCESS, "USER", HOUR, 1)));
+
+        assertThat(rollup.flush()).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static AuditEvent event(String action, String role, LocalDateTime at, int occurrences) {
+        return new AuditEvent(action, 7L, role, null, null, null, "10.0.0.1", at,
+                occurrences, occurrences > 1 ? at.minusMinutes(1) : null);
+    }
+}
@@ -0,0 +1,250 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.RateLimitProperties;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.NopeOptimizationListener;
+import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
+import io.lettuce.core.RedisConnectionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Caminho BUCKET4J com lote local ("delaying"). O Redis é substituído por um ProxyManager em
+ * memória que conta as idas ao servidor; o relógio é manual para controlar a janela de
+ * sincronização, a expiração do cache e evitar refill durante o teste.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitService Tests")
+class RateLimitServiceTest {
+
+    private static final long CAPACITY = 10;
+    private static final long MAX_UNSYNCHRONIZED_TOKENS = 5;
+    private static final long MAX_UNSYNCHRONIZED_MS = 500;
+    private static final long EXPIRE_AFTER_ACCESS_MS = 60_000;
+
+    @Mock
+    private GcraRateLimiter gcraRateLimiter;
+
+    private ManualClock clock;
+    private InMemoryProxyManager redis;
+    private RateLimitProperties.Policy policy;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock();
+        redis = new InMemoryProxyManager(clock);
+        policy = new RateLimitProperties.Policy();
+        policy.setName("login-ip");
+        policy.setAlgorithm(RateLimitProperties.Algorithm.BUCKET4J);
+        policy.setCapacity(CAPACITY);
+        // Refill desprezível dentro do teste: só o lote local muda o saldo
+        policy.setRefillTokens(1);
+        policy.setRefillSeconds(86_400);
+    }
+
+    @Test
+    @DisplayName("lote local - sincroniza com o Redis a cada max-unsynchronized-tokens consumos")
+    void tryConsume_SyncsEveryMaxUnsynchronizedTokens() {
+        RateLimitService service = node();
+
+        // 1ª decisão carrega o estado; as 5 seguintes ficam locais; a 7ª sincroniza
+        assertThat(service.tryConsume(policy, "10.0.0.1").allowed()).isTrue();
+        int loaded = redis.remoteCalls();
+        for (int i = 0; i < MAX_UNSYNCHRONIZED_TOKENS; i++) {
+            assertThat(service.tryConsume(policy, "10.0.0.1").allowed()).isTrue();
+        }
+        assertThat(redis.remoteCalls()).isEqualTo(loaded);
+
+        assertThat(service.tryConsume(policy, "10.0.0.1").allowed()).isTrue();
+        assertThat(redis.remoteCalls()).isEqualTo(loaded + 1);
+    }
+
+    @Test
+    @DisplayName("lote local - sincroniza quando max-unsynchronized-ms passa, mesmo abaixo do limite de tokens")
+    void tryConsume_SyncsAfterMaxUnsynchronizedMs() {
+        RateLimitService service = node();
+        service.tryConsume(policy, "10.0.0.1");
+        int loaded = redis.remoteCalls();
+        service.tryConsume(policy, "10.0.0.1");
+        assertThat(redis.remoteCalls()).isEqualTo(loaded);
+
+        clock.advance(Duration.ofMillis(MAX_UNSYNCHRONIZED_MS + 1));
+        service.tryConsume(policy, "10.0.0.1");
+
+        assertThat(redis.remoteCalls()).isEqualTo(loaded + 1);
+    }
+
+    @Test
+    @DisplayName("dois nos - o total liberado excede a capacidade em no maximo max-unsynchronized-tokens por no")
+    void tryConsume_TwoNodes_DriftBounded() {
+        RateLimitService nodeA = node();
+        RateLimitService nodeB = node();
+
+        int allowed = 0;
+        for (int i = 0; i < 50; i++) {
+            allowed += nodeA.tryConsume(policy, "10.0.0.1").allowed() ? 1 : 0;
+            allowed += nodeB.tryConsume(policy, "10.0.0.1").allowed() ? 1 : 0;
+        }
+
+        assertThat(allowed).isBetween((int) CAPACITY, (int) (CAPACITY + 2 * MAX_UNSYNCHRONIZED_TOKENS));
+        assertThat(nodeA.tryConsume(policy, "10.0.0.1").allowed()).isFalse();
+        assertThat(nodeB.tryConsume(policy, "10.0.0.1").allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("eviction - proxy ocioso sai do cache e o novo recarrega o saldo do Redis")
+    void tryConsume_EvictedProxy_ReloadsFromRedis() {
+        RateLimitService service = node();
+        service.tryConsume(policy, "10.0.0.1");
+        int loaded = redis.remoteCalls();
+        service.tryConsume(policy, "10.0.0.1");
+        service.tryConsume(policy, "10.0.0.1");
+
+        clock.advance(Duration.ofMillis(EXPIRE_AFTER_ACCESS_MS + 1));
+        RateLimitDecision decision = service.tryConsume(policy, "10.0.0.1");
+
+        // Estado já existe no Redis: o proxy novo carrega com uma única ida
+        assertThat(redis.remoteCalls()).isEqualTo(loaded + 1);
+        // Os 2 consumos locais não sincronizados se perderam com o proxy (nunca mais que o lote)
+        assertThat(decision.remaining()).isEqualTo(CAPACITY - 2);
+    }
+
+    @Test
+    @DisplayName("chaves e politicas diferentes tem buckets independentes")
+    void tryConsume_KeysAreIsolated() {
+        RateLimitService service = node();
+        for (int i = 0; i < CAPACITY; i++) {
+            service.tryConsume(policy, "10.0.0.1");
+        }
+
+        assertThat(service.tryConsume(policy, "10.0.0.1").allowed()).isFalse();
+        assertThat(service.tryConsume(policy, "10.0.0.2").allowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Redis fora - consumos dentro do lote seguem locais; a sincronizacao falha e volta com o Redis")
+    void tryConsume_RedisOutage() {
+        RateLimitService service = node();
+        service.tryConsume(policy, "10.0.0.1");
+
+        redis.setAvailable(false);
+        for (int i = 0; i < MAX_UNSYNCHRONIZED_TOKENS; i++) {
+            assertThat(service.tryConsume(policy, "10.0.0.1").allowed()).isTrue();
+        }
+        assertThatThrownBy(() -> service.tryConsume(policy, "10.0.0.1"))
+                .isInstanceOf(RedisConnectionException.class);
+        // Chave nova precisa do Redis já na primeira decisão
+        assertThatThrownBy(() -> service.tryConsume(policy, "10.0.0.2"))
+                .isInstanceOf(RedisConnectionException.class);
+
+        redis.setAvailable(true);
+        assertThat(service.tryConsume(policy, "10.0.0.1").allowed()).isTrue();
+        assertThat(service.tryConsume(policy, "10.0.0.2").allowed()).isTrue();
+    }
+
+    private RateLimitService node() {
+        DelayOptimization optimization = new DelayOptimization(
+                new DelayParameters(MAX_UNSYNCHRONIZED_TOKENS, Duration.ofMillis(MAX_UNSYNCHRONIZED_MS)),
+                NopeOptimizationListener.INSTANCE, clock);
+        return new RateLimitService(redis, gcraRateLimiter, optimization, 1000, EXPIRE_AFTER_ACCESS_MS,
+                clock::currentTimeNanos);
+    }
+
+    private static final class ManualClock implements TimeMeter {
+
+        private final AtomicLong nanos = new AtomicLong(System.nanoTime());
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long currentTimeNanos() {
+            return nanos.get();
+        }
+
+        @Override
+        public boolean isWallClockBased() {
+            return false;
+        }
+    }
+
+    /** "Redis" compartilhado pelos nós: estado por chave, copiado a cada comando como na rede. */
+    private static final class InMemoryProxyManager extends AbstractProxyManager<String> {
+
+        private final ManualClock clock;
+        private final Map<String, RemoteBucketState> states = new ConcurrentHashMap<>();
+        private final AtomicInteger remoteCalls = new AtomicInteger();
+        private volatile boolean available = true;
+
+        InMemoryProxyManager(ManualClock clock) {
+            super(ClientSideConfig.getDefault().withClientClock(clock));
+            this.clock = clock;
+        }
+
+        int remoteCalls() {
+            return remoteCalls.get();
+        }
+
+        void setAvailable(boolean available) {
+            this.available = available;
+        }
+
+        @Override
+        protected synchronized <T> CommandResult<T> execute(String key, Request<T> request) {
+            if (!available) {
+                throw new RedisConnectionException("Redis fora");
+            }
+            remoteCalls.incrementAndGet();
+            RemoteBucketState stored = states.get(key);
+            MutableBucketEntry entry = new MutableBucketEntry(stored != null ? stored.copy() : null);
+            CommandResult<T> result = request.getCommand().execute(entry, clock.currentTimeNanos());
+            if (entry.isStateModified()) {
+                states.put(key, entry.get().copy());
+            }
+            return result;
+        }
+
+        @Override
+        protected <T> CompletableFuture<CommandResult<T>> executeAsync(String key, Request<T> request) {
+            return CompletableFuture.completedFuture(execute(key, request));
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            states.remove(key);
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            states.remove(key);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+    }
+}
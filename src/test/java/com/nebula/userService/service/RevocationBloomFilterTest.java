@@ -0,0 +1,45 @@
+package com.nebula.userService.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RevocationBloomFilter Tests")
+class RevocationBloomFilterTest {
+
+    @Test
+    @DisplayName("mightContain - ids inseridos nunca geram falso negativo")
+    void mightContain_InsertedIds_AlwaysTrue() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(10_000, 0.001);
+        var ids = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        ids.forEach(filter::put);
+
+        assertThat(ids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    @DisplayName("mightContain - taxa de falso positivo fica perto da configurada")
+    void mightContain_UnknownIds_LowFalsePositiveRate() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(10_000, 0.001);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("revoked-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("active-" + i))
+                .count();
+
+        assertThat(falsePositives).isLessThan(500);
+    }
+
+    @Test
+    @DisplayName("mightContain - filtro vazio responde false")
+    void mightContain_EmptyFilter_False() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(1_000, 0.01);
+        assertThat(filter.mightContain("qualquer-id")).isFalse();
+        assertThat(filter.fillRatio()).isZero();
+    }
+}
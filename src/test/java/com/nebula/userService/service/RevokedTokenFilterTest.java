@@ -0,0 +1,185 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dois nós (filtro + blacklist) sobre o mesmo "Redis" em memória; o pub/sub é entregue
+ * manualmente, o que permite simular mensagens perdidas.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevokedTokenFilter Tests")
+class RevokedTokenFilterTest {
+
+    private static final String PREFIX = "blacklist:jti:";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private JwtConfig jwtConfig;
+
+    /** Chaves gravadas no Redis compartilhado. */
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    /** Nós que recebem o pub/sub; um nó "desconectado" sai desta lista. */
+    private final List<RevokedTokenFilter> subscribers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(redisTemplate.hasKey(anyString())).thenAnswer(inv -> redis.containsKey(inv.<String>getArgument(0)));
+        lenient().when(redisTemplate.convertAndSend(eq(RevokedTokenFilter.CHANNEL), anyString())).thenAnswer(inv -> {
+            DefaultMessage message = new DefaultMessage(RevokedTokenFilter.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    inv.<String>getArgument(1).getBytes(StandardCharsets.UTF_8));
+            List.copyOf(subscribers).forEach(node -> node.onMessage(message, null));
+            return 1L;
+        });
+        lenient().when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(inv -> cursor(List.copyOf(redis.keySet()), () -> { }));
+    }
+
+    @Test
+    @DisplayName("revogacao em um no e vista no outro pelo pub/sub")
+    void revokeOnOneNode_SeenOnOther() {
+        RevokedTokenFilter filterA = node();
+        RevokedTokenFilter filterB = node();
+        TokenBlacklistService nodeA = service(filterA);
+        TokenBlacklistService nodeB = service(filterB);
+        nodeA.rebuildFilter();
+        nodeB.rebuildFilter();
+
+        assertThat(nodeB.isBlacklisted("raw", token("jti-1"))).isFalse();
+        nodeA.blacklist(token("jti-1"));
+
+        assertThat(filterB.mightBeRevoked("jti-1")).isTrue();
+        assertThat(nodeB.isBlacklisted("raw", token("jti-1"))).isTrue();
+        assertThat(nodeB.isBlacklisted("raw", token("jti-2"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("mensagem perdida durante a reconexao e recuperada pela reconstrucao ao reassinar o canal")
+    void lostMessage_RecoveredOnResubscribe() {
+        RevokedTokenFilter filterA = node();
+        RevokedTokenFilter filterB = node();
+        TokenBlacklistService nodeA = service(filterA);
+        TokenBlacklistService nodeB = service(filterB);
+        nodeA.rebuildFilter();
+        nodeB.rebuildFilter();
+
+        subscribers.remove(filterB);
+        nodeA.blacklist(token("jti-1"));
+        assertThat(nodeB.isBlacklisted("raw", token("jti-1"))).isFalse();
+
+        subscribers.add(filterB);
+        filterB.onChannelSubscribed(RevokedTokenFilter.CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        assertThat(nodeB.isBlacklisted("raw", token("jti-1"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("primeira assinatura (antes da carga inicial) nao dispara reconstrucao")
+    void firstSubscribe_BeforeInitialLoad_NoRebuild() {
+        RevokedTokenFilter filter = node();
+
+        filter.onChannelSubscribed(RevokedTokenFilter.CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+        assertThat(filter.mightBeRevoked("qualquer")).isTrue();
+    }
+
+    @Test
+    @DisplayName("revogacao que chega durante o SCAN entra no filtro novo")
+    void rebuild_RacingWithAdd_KeepsConcurrentRevocation() {
+        RevokedTokenFilter filterA = node();
+        RevokedTokenFilter filterB = node();
+        TokenBlacklistService nodeA = service(filterA);
+        nodeA.rebuildFilter();
+        redis.put(PREFIX + "antigo", "1");
+        // O SCAN de B ainda não viu a chave nova quando o aviso de A chega
+        doAnswer(inv -> cursor(List.of(PREFIX + "antigo"), () -> nodeA.blacklist(token("durante-scan"))))
+                .when(redisTemplate).scan(any(ScanOptions.class));
+
+        filterB.rebuild(PREFIX);
+
+        assertThat(filterB.mightBeRevoked("antigo")).isTrue();
+        assertThat(filterB.mightBeRevoked("durante-scan")).isTrue();
+    }
+
+    @Test
+    @DisplayName("falha na reconstrucao mantem o filtro atual")
+    void rebuild_Failure_KeepsCurrentFilter() {
+        RevokedTokenFilter filter = node();
+        redis.put(PREFIX + "jti-1", "1");
+        filter.rebuild(PREFIX);
+        doThrow(new IllegalStateException("Redis fora")).when(redisTemplate).scan(any(ScanOptions.class));
+
+        filter.rebuild(PREFIX);
+
+        assertThat(filter.mightBeRevoked("jti-1")).isTrue();
+        assertThat(filter.mightBeRevoked("jti-2")).isFalse();
+    }
+
+    private RevokedTokenFilter node() {
+        RevokedTokenFilter filter = new RevokedTokenFilter(redisTemplate, listenerContainer, 1000, 0.001, Runnable::run);
+        subscribers.add(filter);
+        return filter;
+    }
+
+    private TokenBlacklistService service(RevokedTokenFilter filter) {
+        return new TokenBlacklistService(redisTemplate, filter, jwtConfig, false, 60_000);
+    }
+
+    private static VerifiedToken token(String revocationId) {
+        return new VerifiedToken("joao.silva", VerifiedToken.ACCESS, "session-1", revocationId, List.of(), List.of(),
+                Instant.now().plusSeconds(600), 0, List.of());
+    }
+
+    /** Cursor sobre as chaves; {@code duringScan} roda depois da primeira chave lida. */
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(List<String> keys, Runnable duringScan) {
+        Iterator<String> iterator = keys.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        lenient().when(cursor.hasNext()).thenAnswer(inv -> iterator.hasNext());
+        lenient().when(cursor.next()).thenAnswer(inv -> {
+            String key = iterator.next();
+            duringScan.run();
+            return key;
+        });
+        return cursor;
+    }
+}
@@ -0,0 +1,101 @@
+package com.nebula.userService.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SessionActivityBuffer Tests")
+class SessionActivityBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SessionActivityBuffer buffer;
+
+    @Test
+    @DisplayName("flush - varios touch da mesma sessao viram um unico UPDATE com o horario mais recente")
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesTouchesPerSession() {
+        buffer.touch("s1");
+        LocalDateTime afterFirst = LocalDateTime.now();
+        buffer.touch("s1");
+        buffer.touch("s2");
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Map.Entry<String, LocalDateTime>>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(batch.getValue()).extracting(Map.Entry::getKey).containsExactlyInAnyOrder("s1", "s2");
+        assertThat(batch.getValue()).filteredOn(entry -> entry.getKey().equals("s1"))
+                .allSatisfy(entry -> assertThat(entry.getValue()).isAfterOrEqualTo(afterFirst));
+    }
+
+    @Test
+    @DisplayName("flush - sem pendencias nao acessa o banco; depois do flush o buffer fica vazio")
+    void flush_EmptyBuffer_NoDatabaseAccess() {
+        buffer.flush();
+        buffer.touch("s1");
+        buffer.flush();
+        buffer.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("flush - falha no banco devolve as entradas ao buffer para o proximo ciclo")
+    void flush_Failure_RequeuesEntries() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[][]{{1}});
+        buffer.touch("s1");
+
+        buffer.flush();
+        assertThat(buffer.lastSeen("s1", null)).isNotNull();
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(buffer.lastSeen("s1", null)).isNull();
+    }
+
+    @Test
+    @DisplayName("lastSeen - retorna o mais recente entre o persistido e o pendente")
+    void lastSeen_PrefersNewest() {
+        LocalDateTime old = LocalDateTime.now().minusHours(1);
+        LocalDateTime future = LocalDateTime.now().plusHours(1);
+        buffer.touch("s1");
+
+        assertThat(buffer.lastSeen("s1", old)).isAfter(old);
+        assertThat(buffer.lastSeen("s1", future)).isEqualTo(future);
+        assertThat(buffer.lastSeen("s2", old)).isEqualTo(old);
+    }
+
+    @Test
+    @DisplayName("flushOnShutdown - grava o que estiver pendente")
+    void flushOnShutdown_WritesPending() {
+        buffer.touch("s1");
+
+        buffer.flushOnShutdown();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), eq(1), any(ParameterizedPreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,122 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.dto.SessionStateDTO;
+import com.nebula.userService.repository.UserSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SessionStateCache Tests")
+class SessionStateCacheTest {
+
+    @Mock
+    private UserSessionRepository userSessionRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private SessionStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SessionStateCache(userSessionRepository, redisTemplate, listenerContainer, 1000, 60_000);
+    }
+
+    @Test
+    @DisplayName("isActive - hit serve da memoria; so o primeiro acesso consulta o banco")
+    void isActive_HitServedFromMemory() {
+        when(userSessionRepository.findStateBySessionId("s1")).thenReturn(Optional.of(active("joao.silva")));
+
+        assertThat(cache.isActive("s1", "joao.silva")).isTrue();
+        assertThat(cache.isActive("s1", "joao.silva")).isTrue();
+        assertThat(cache.isActive("s1", "maria")).isFalse();
+
+        verify(userSessionRepository, times(1)).findStateBySessionId("s1");
+    }
+
+    @Test
+    @DisplayName("isActive - sessao inexistente fica em cache negativo")
+    void isActive_MissIsCachedNegatively() {
+        when(userSessionRepository.findStateBySessionId("ghost")).thenReturn(Optional.empty());
+
+        assertThat(cache.isActive("ghost", "joao.silva")).isFalse();
+        assertThat(cache.isActive("ghost", "joao.silva")).isFalse();
+
+        verify(userSessionRepository, times(1)).findStateBySessionId("ghost");
+    }
+
+    @Test
+    @DisplayName("invalidateSession - remove a entrada local e publica no canal")
+    void invalidateSession_EvictsAndPublishes() {
+        when(userSessionRepository.findStateBySessionId("s1")).thenReturn(Optional.of(active("joao.silva")));
+        cache.isActive("s1", "joao.silva");
+
+        cache.invalidateSession("s1");
+        cache.isActive("s1", "joao.silva");
+
+        verify(redisTemplate).convertAndSend(SessionStateCache.CHANNEL, "s:s1");
+        verify(userSessionRepository, times(2)).findStateBySessionId("s1");
+    }
+
+    @Test
+    @DisplayName("invalidateUser - remove so as sessoes do usuario, pelo indice")
+    void invalidateUser_EvictsOnlyThatUsersSessions() {
+        when(userSessionRepository.findStateBySessionId("s1")).thenReturn(Optional.of(active("joao.silva")));
+        when(userSessionRepository.findStateBySessionId("s2")).thenReturn(Optional.of(active("joao.silva")));
+        when(userSessionRepository.findStateBySessionId("s3")).thenReturn(Optional.of(active("maria")));
+        cache.isActive("s1", "joao.silva");
+        cache.isActive("s2", "joao.silva");
+        cache.isActive("s3", "maria");
+
+        cache.invalidateUser("joao.silva");
+        cache.isActive("s1", "joao.silva");
+        cache.isActive("s2", "joao.silva");
+        cache.isActive("s3", "maria");
+
+        verify(userSessionRepository, times(2)).findStateBySessionId("s1");
+        verify(userSessionRepository, times(2)).findStateBySessionId("s2");
+        verify(userSessionRepository, times(1)).findStateBySessionId("s3");
+    }
+
+    @Test
+    @DisplayName("onMessage - invalidacao vinda de outro no remove as sessoes do usuario, inclusive apos reindexar")
+    void onMessage_RemoteUserInvalidation() {
+        when(userSessionRepository.findStateBySessionId("s1")).thenReturn(Optional.of(active("joao.silva")));
+        cache.isActive("s1", "joao.silva");
+
+        cache.onMessage(message("u:joao.silva"), null);
+        cache.isActive("s1", "joao.silva");
+        // Recarregada depois da invalidação, a sessão volta para o índice
+        cache.onMessage(message("u:joao.silva"), null);
+        cache.isActive("s1", "joao.silva");
+
+        verify(userSessionRepository, times(3)).findStateBySessionId("s1");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private static SessionStateDTO active(String username) {
+        return new SessionStateDTO(false, username, LocalDateTime.now().plusHours(1));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(SessionStateCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
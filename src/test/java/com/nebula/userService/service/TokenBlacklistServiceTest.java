@@ -0,0 +1,173 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.JwtConfig;
+import com.nebula.userService.configs.VerifiedToken;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenBlacklistService Tests")
+class TokenBlacklistServiceTest {
+
+    private static final String RAW = "header.payload.signature";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RevokedTokenFilter revokedTokenFilter;
+
+    @Mock
+    private JwtConfig jwtConfig;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    @Test
+    @DisplayName("isBlacklisted - jti fora do filtro local nao consulta o Redis")
+    void isBlacklisted_JtiFilterNegative_SkipsRedis() {
+        when(revokedTokenFilter.mightBeRevoked("jti-1")).thenReturn(false);
+
+        assertThat(service(false).isBlacklisted(RAW, token("jti-1", VerifiedToken.ACCESS))).isFalse();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("isBlacklisted - possivel revogacao confirma a chave compacta no Redis")
+    void isBlacklisted_JtiFilterPositive_ChecksCompactKey() {
+        when(revokedTokenFilter.mightBeRevoked("jti-1")).thenReturn(true);
+        when(redisTemplate.hasKey("blacklist:jti:jti-1")).thenReturn(true);
+
+        assertThat(service(false).isBlacklisted(RAW, token("jti-1", VerifiedToken.ACCESS))).isTrue();
+    }
+
+    @Test
+    @DisplayName("isBlacklisted - refresh token sempre confirma no Redis")
+    void isBlacklisted_RefreshToken_AlwaysChecksRedis() {
+        when(redisTemplate.hasKey("blacklist:jti:jti-1")).thenReturn(false);
+
+        assertThat(service(false).isBlacklisted(RAW, token("jti-1", VerifiedToken.REFRESH))).isFalse();
+
+        verify(redisTemplate).hasKey("blacklist:jti:jti-1");
+        verifyNoInteractions(revokedTokenFilter);
+    }
+
+    @Test
+    @DisplayName("isBlacklisted - legacy-lookup ligado com filtro negativo tambem nao consulta o Redis")
+    void isBlacklisted_LegacyLookup_FilterNegative_SkipsRedis() {
+        when(revokedTokenFilter.mightBeRevoked("jti-1")).thenReturn(false);
+
+        assertThat(service(true).isBlacklisted(RAW, token("jti-1", VerifiedToken.ACCESS))).isFalse();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("isBlacklisted - legacy-lookup ligado encontra revogacao gravada por no antigo")
+    void isBlacklisted_LegacyLookup_FindsOldNodeRevocation() {
+        when(revokedTokenFilter.mightBeRevoked("jti-1")).thenReturn(true);
+        when(redisTemplate.countExistingKeys(List.of("blacklist:jti:jti-1", "blacklist:token:" + RAW))).thenReturn(1L);
+
+        assertThat(service(true).isBlacklisted(RAW, token("jti-1", VerifiedToken.ACCESS))).isTrue();
+    }
+
+    @Test
+    @DisplayName("isBlacklisted - legacy-lookup com filtro positivo consulta as duas chaves num unico EXISTS")
+    void isBlacklisted_LegacyLookup_ChecksBothKeys() {
+        when(revokedTokenFilter.mightBeRevoked("jti-1")).thenReturn(true);
+        when(redisTemplate.countExistingKeys(List.of("blacklist:jti:jti-1", "blacklist:token:" + RAW))).thenReturn(0L);
+
+        assertThat(service(true).isBlacklisted(RAW, token("jti-1", VerifiedToken.ACCESS))).isFalse();
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    @DisplayName("migrateLegacyKeys - reescreve com o id que o filtro JWT vera, preserva o TTL e propaga")
+    void migrateLegacyKeys_RewritesWithRevocationId() {
+        String withJti = "jwt.com.jti";
+        String withoutJti = "jwt.sem.jti";
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, true, true, false);
+        when(cursor.next()).thenReturn("blacklist:token:" + withJti, "blacklist:token:" + withoutJti,
+                "blacklist:token:expirado");
+        when(redisTemplate.getExpire("blacklist:token:" + withJti, TimeUnit.MILLISECONDS)).thenReturn(5000L);
+        when(redisTemplate.getExpire("blacklist:token:" + withoutJti, TimeUnit.MILLISECONDS)).thenReturn(7000L);
+        when(redisTemplate.getExpire("blacklist:token:expirado", TimeUnit.MILLISECONDS)).thenReturn(-2L);
+        when(jwtConfig.parseTokenUncached(withJti)).thenReturn(token("jti-9", VerifiedToken.ACCESS));
+        when(jwtConfig.parseTokenUncached(withoutJti)).thenThrow(new IllegalArgumentException("assinatura antiga"));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent("blacklist:migration:lock", "1", Duration.ofMillis(60_000))).thenReturn(true);
+
+        service(true).migrateLegacyKeys();
+
+        String digest = VerifiedToken.digestId(withoutJti);
+        verify(valueOperations).set("blacklist:jti:jti-9", "1", Duration.ofMillis(5000));
+        verify(valueOperations).set("blacklist:jti:" + digest, "1", Duration.ofMillis(7000));
+        verify(revokedTokenFilter).publish("jti-9");
+        verify(revokedTokenFilter).publish(digest);
+        verify(redisTemplate).delete("blacklist:token:" + withJti);
+        verify(redisTemplate).delete("blacklist:token:" + withoutJti);
+        verify(redisTemplate).delete("blacklist:token:expirado");
+        verify(jwtConfig, never()).parseToken(anyString());
+    }
+
+    @Test
+    @DisplayName("migrateLegacyKeys - outro no com o lock no intervalo: nao varre o Redis")
+    void migrateLegacyKeys_LockHeldElsewhere_NoScan() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("blacklist:migration:lock"), eq("1"), any(Duration.class))).thenReturn(false);
+
+        service(true).migrateLegacyKeys();
+
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+    }
+
+    @Test
+    @DisplayName("migrateLegacyKeys - legacy-lookup desligado nao varre o Redis")
+    void migrateLegacyKeys_Disabled_NoScan() {
+        service(false).migrateLegacyKeys();
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("blacklist - grava a chave compacta pelo tempo restante e propaga aos filtros")
+    void blacklist_WritesCompactKeyAndPublishes() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        service(false).blacklist(token("jti-1", VerifiedToken.ACCESS));
+
+        verify(valueOperations).set(eq("blacklist:jti:jti-1"), eq("1"), any(Duration.class));
+        verify(revokedTokenFilter).publish("jti-1");
+    }
+
+    private TokenBlacklistService service(boolean legacyLookup) {
+        return new TokenBlacklistService(redisTemplate, revokedTokenFilter, jwtConfig, legacyLookup, 60_000);
+    }
+
+    private static VerifiedToken token(String revocationId, String type) {
+        return new VerifiedToken("joao.silva", type, "session-1", revocationId, List.of(), List.of(),
+                Instant.now().plusSeconds(600), 0, List.of());
+    }
+}
@@ -52,6 +52,15 @@ class UserServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    private AuthEpochService authEpochService;
+
+    @Mock
+    private LoginAttemptService loginAttemptService;
+
     @InjectMocks
     private UserService userService;
 
@@ -85,7 +94,7 @@ class UserServiceTest {
         when(userRepository.existsByUsername(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("$2a$10$encoded");
         when(userRepository.save(any(UserEntity.class))).thenReturn(userEntity);
-        doNothing().when(emailService).sendEmail(anyString(), anyString(), anyString());
+        doNothing().when(emailService).queueEmail(anyString(), anyString(), anyString());
 
         UserResponseDTO result = userService.createUser(userRequestDTO);
 
@@ -150,8 +159,8 @@ class UserServiceTest {
         when(userRepository.existsByUsername(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded");
         when(userRepository.save(any(UserEntity.class))).thenReturn(userEntity);
-        doThrow(new EmailService.EmailServiceException("erro email", new RuntimeException()))
-                .when(emailService).sendEmail(anyString(), anyString(), anyString());
+        doThrow(new IllegalArgumentException("Endereço de e-mail do destinatário é inválido"))
+                .when(emailService).queueEmail(anyString(), anyString(), anyString());
 
         UserResponseDTO result = userService.createUser(userRequestDTO);
 
@@ -247,6 +256,8 @@ class UserServiceTest {
 
         verify(userRepository).save(any(UserEntity.class));
         verify(passwordEncoder).encode("NovaSenha@456");
+        verify(authEpochService).bump("joao.silva");
+        verify(loginAttemptService).reset("joao.silva");
     }
 
     @Test
@@ -371,20 +382,20 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("sendConfirmationEmail - sucesso")
+    @DisplayName("sendConfirmationEmail - enfileira o e-mail sem enviar via SMTP")
     void sendConfirmationEmail_Success() {
-        doNothing().when(emailService).sendEmail(anyString(), anyString(), anyString());
+        doNothing().when(emailService).queueEmail(anyString(), anyString(), anyString());
 
         userService.sendConfirmationEmail(userEntity);
 
-        verify(emailService).sendEmail(eq("joao@empresa.com"), anyString(), anyString());
+        verify(emailService).queueEmail(eq("joao@empresa.com"), anyString(), anyString());
     }
 
     @Test
     @DisplayName("sendConfirmationEmail - falha no email nao propaga excecao")
     void sendConfirmationEmail_EmailFails_LogsError() {
-        doThrow(new EmailService.EmailServiceException("erro", new RuntimeException()))
-                .when(emailService).sendEmail(anyString(), anyString(), anyString());
+        doThrow(new IllegalArgumentException("Endereço de e-mail do destinatário é inválido"))
+                .when(emailService).queueEmail(anyString(), anyString(), anyString());
 
         userService.sendConfirmationEmail(userEntity);
     }
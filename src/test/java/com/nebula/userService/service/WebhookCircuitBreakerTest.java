@@ -0,0 +1,69 @@
+package com.nebula.userService.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WebhookCircuitBreaker Tests")
+class WebhookCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private WebhookCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new WebhookCircuitBreaker(3, 10_000, now::get);
+    }
+
+    @Test
+    @DisplayName("Abre apos falhas consecutivas e bloqueia ate o prazo")
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.CLOSED);
+
+        breaker.onFailure();
+
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.DENIED);
+        assertThat(breaker.retryAt()).isEqualTo(11_000);
+    }
+
+    @Test
+    @DisplayName("Meio-aberto deixa passar uma unica tentativa; sucesso fecha o circuito")
+    void halfOpenAllowsSingleTrial() {
+        openCircuit();
+        now.addAndGet(10_000);
+
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.TRIAL);
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.DENIED);
+
+        breaker.onSuccess();
+
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Falha na tentativa de teste reabre o circuito")
+    void failedTrialReopens() {
+        openCircuit();
+        now.addAndGet(10_000);
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.TRIAL);
+
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isEqualTo(WebhookCircuitBreaker.Permit.DENIED);
+        assertThat(breaker.retryAt()).isEqualTo(now.get() + 10_000);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.nebula.userService.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Limite de concorrência, fila por endpoint e circuit breaker contra um receptor HTTP local.
+ * O receptor pode segurar as respostas ({@link #gate}) para manter envios em andamento.
+ */
+@DisplayName("WebhookClient Tests")
+class WebhookClientTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String url;
+    private SimpleMeterRegistry registry;
+
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/hook", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            received.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                gate.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("acima do limite por endpoint os envios esperam na fila e saem conforme as respostas chegam")
+    void send_OverConcurrencyLimit_QueuesInMemory() throws Exception {
+        WebhookClient client = client(1, 100, 30_000);
+        gate = new CountDownLatch(1);
+
+        List<CompletableFuture<Void>> sends = List.of(send(client, 1), send(client, 2), send(client, 3));
+        awaitReceived(1);
+
+        assertThat(registry.get("webhooks.endpoint.queued").gauge().value()).isEqualTo(2);
+        gate.countDown();
+        for (CompletableFuture<Void> sent : sends) {
+            sent.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        assertThat(received.get()).isEqualTo(3);
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        assertThat(registry.get("webhooks.endpoint.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("respostas de erro e URL invalida nao vazam a vaga do endpoint")
+    void send_Failures_ReleasePermits() throws Exception {
+        WebhookClient client = client(1, 100, 30_000);
+        status.set(500);
+
+        for (long id = 1; id <= 3; id++) {
+            CompletableFuture<Void> failed = send(client, id);
+            assertThatThrownBy(() -> failed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(WebhookClient.WebhookDeliveryException.class);
+        }
+        assertThatThrownBy(() -> client.send("nao e uma url", "USER_CREATED", 4L, "{}", null)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+
+        status.set(200);
+        send(client, 5).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(received.get()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("circuito aberto recusa sem enviar; vencido o prazo, o envio de teste fecha o circuito")
+    void send_OpenCircuit_TrialClosesIt() throws Exception {
+        WebhookClient client = client(8, 1, 200);
+        status.set(500);
+        CompletableFuture<Void> first = send(client, 1);
+        assertThatThrownBy(() -> first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(WebhookClient.WebhookDeliveryException.class);
+
+        CompletableFuture<Void> refused = send(client, 2);
+        assertThatThrownBy(() -> refused.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(WebhookClient.EndpointUnavailableException.class);
+        assertThat(received.get()).isEqualTo(1);
+        assertThat(registry.get("webhooks.circuit.open").gauge().value()).isEqualTo(1);
+
+        Thread.sleep(250);
+        status.set(200);
+        send(client, 3).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        send(client, 4).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertThat(received.get()).isEqualTo(3);
+        assertThat(registry.get("webhooks.circuit.open").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("envio na fila nao sai se o circuito abriu enquanto esperava")
+    void send_CircuitOpensWhileQueued_FailsWithoutSending() throws Exception {
+        WebhookClient client = client(1, 1, 30_000);
+        status.set(500);
+        gate = new CountDownLatch(1);
+
+        CompletableFuture<Void> inFlightSend = send(client, 1);
+        awaitReceived(1);
+        CompletableFuture<Void> queued = send(client, 2);
+        gate.countDown();
+
+        assertThatThrownBy(() -> inFlightSend.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(WebhookClient.WebhookDeliveryException.class);
+        assertThatThrownBy(() -> queued.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(WebhookClient.EndpointUnavailableException.class);
+        assertThat(received.get()).isEqualTo(1);
+        assertThat(registry.get("webhooks.endpoint.queued").gauge().value()).isZero();
+    }
+
+    private WebhookClient client(int maxConcurrency, int failureThreshold, long openMillis) {
+        WebhookClient client = new WebhookClient(2000, maxConcurrency, failureThreshold, openMillis);
+        client.bindTo(registry);
+        return client;
+    }
+
+    private CompletableFuture<Void> send(WebhookClient client, long deliveryId) {
+        return client.send(url, "USER_CREATED", deliveryId, "{\"id\":" + deliveryId + "}", "segredo");
+    }
+
+    private void awaitReceived(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (received.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(received.get()).isEqualTo(expected);
+    }
+}
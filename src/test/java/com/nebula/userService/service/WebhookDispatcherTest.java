@@ -0,0 +1,262 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.configs.WebhookBatchingProperties;
+import com.nebula.userService.entities.WebhookOutboxEntity;
+import com.nebula.userService.enums.WebhookOutboxStatus;
+import com.nebula.userService.repository.WebhookOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.http.HttpTimeoutException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookDispatcher Tests")
+class WebhookDispatcherTest {
+
+    @Mock
+    private WebhookOutboxRepository webhookOutboxRepository;
+
+    @Mock
+    private WebhookClient webhookClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private WebhookSubscriptionIndex subscriptionIndex;
+
+    private WebhookBatchingProperties batchingProperties;
+
+    private WebhookDispatcher webhookDispatcher;
+
+    private WebhookOutboxEntity event;
+
+    @BeforeEach
+    void setUp() {
+        batchingProperties = new WebhookBatchingProperties();
+        webhookDispatcher = new WebhookDispatcher(webhookOutboxRepository, webhookClient, transactionTemplate,
+                batchingProperties, subscriptionIndex, 100, 3, 60_000, 1_000, 600_000);
+        event = WebhookOutboxEntity.builder()
+                .id(7L)
+                .eventType("USER_CREATED")
+                .url("https://hooks.example.com/users")
+                .payload("{\"eventType\":\"USER_CREATED\"}")
+                .status(WebhookOutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("dispatchPending - entrega com sucesso marca DELIVERED")
+    void dispatchPending_Success_MarksDelivered() {
+        mockClaim(List.of(event));
+        when(webhookClient.send(anyString(), anyString(), any(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int processed = webhookDispatcher.dispatchPending();
+
+        assertThat(processed).isEqualTo(1);
+        verify(webhookClient).send("https://hooks.example.com/users", "USER_CREATED", 7L, event.getPayload(), null);
+        verify(webhookOutboxRepository).markDelivered(eq(7L), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("dispatchPending - reivindicar o lote empurra next_attempt_at pelo lease")
+    void dispatchPending_ClaimSetsLease() {
+        mockClaim(List.of(event));
+        when(webhookClient.send(anyString(), anyString(), any(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        webhookDispatcher.dispatchPending();
+
+        assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(50));
+    }
+
+    @Test
+    @DisplayName("dispatchPending - falha reagenda com backoff e mantem PENDING")
+    void dispatchPending_Failure_SchedulesRetry() {
+        mockClaim(List.of(event));
+        when(webhookClient.send(anyString(), anyString(), any(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookOutboxRepository).markFailed(eq(7L), eq(WebhookOutboxStatus.PENDING), eq(1),
+                argThat(next -> next.isAfter(LocalDateTime.now())), contains("timed out"));
+        verify(webhookOutboxRepository, never()).markDelivered(any(), any());
+    }
+
+    @Test
+    @DisplayName("dispatchPending - ultima tentativa falha move o evento para DEAD")
+    void dispatchPending_LastAttempt_MarksDead() {
+        event.setAttempts(2);
+        mockClaim(List.of(event));
+        when(webhookClient.send(anyString(), anyString(), any(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new WebhookClient.WebhookDeliveryException("HTTP 500")));
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookOutboxRepository).markFailed(eq(7L), eq(WebhookOutboxStatus.DEAD), eq(3), any(), anyString());
+    }
+
+    @Test
+    @DisplayName("dispatchPending - circuito aberto reagenda sem gastar tentativa")
+    void dispatchPending_CircuitOpen_DefersWithoutAttempt() {
+        event.setAttempts(1);
+        mockClaim(List.of(event));
+        long retryAt = System.currentTimeMillis() + 30_000;
+        when(webhookClient.send(anyString(), anyString(), any(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new WebhookClient.EndpointUnavailableException("Circuito aberto", retryAt)));
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookOutboxRepository).markFailed(eq(7L), eq(WebhookOutboxStatus.PENDING), eq(1),
+                argThat(next -> next.isAfter(LocalDateTime.now().plusSeconds(20))), anyString());
+    }
+
+    @Test
+    @DisplayName("dispatchPending - endpoint em lote recebe um array por bloco de max-events")
+    void dispatchPending_BatchedEndpoint_SendsChunks() {
+        WebhookBatchingProperties.Endpoint endpoint = new WebhookBatchingProperties.Endpoint();
+        endpoint.setUrl("https://hooks.example.com/batch");
+        endpoint.setMaxEvents(2);
+        endpoint.setGzip(true);
+        batchingProperties.setEndpoints(List.of(endpoint));
+        List<WebhookOutboxEntity> events = List.of(batchEvent(1L), batchEvent(2L), batchEvent(3L));
+        mockClaim(events);
+        when(webhookClient.sendBatch(anyString(), anyList(), anyList(), anyBoolean(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookClient).sendBatch(eq("https://hooks.example.com/batch"), eq(List.of(1L, 2L)), anyList(), eq(true), any());
+        verify(webhookClient).sendBatch(eq("https://hooks.example.com/batch"), eq(List.of(3L)), anyList(), eq(true), any());
+        verify(webhookOutboxRepository).markAllDelivered(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(webhookOutboxRepository).markAllDelivered(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(webhookClient, never()).send(anyString(), anyString(), any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("dispatchPending - lote que falha volta inteiro para o fim de uma mesma janela")
+    void dispatchPending_BatchFailure_RetriesAlignedToWindow() {
+        WebhookBatchingProperties.Endpoint endpoint = new WebhookBatchingProperties.Endpoint();
+        endpoint.setUrl("https://hooks.example.com/batch");
+        endpoint.setWindowMs(1000);
+        batchingProperties.setEndpoints(List.of(endpoint));
+        WebhookOutboxEntity retried = batchEvent(2L);
+        retried.setAttempts(1);
+        mockClaim(List.of(batchEvent(1L), retried));
+        when(webhookClient.sendBatch(anyString(), anyList(), anyList(), anyBoolean(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new WebhookClient.WebhookDeliveryException("HTTP 503")));
+
+        webhookDispatcher.dispatchPending();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(webhookOutboxRepository).markFailed(eq(1L), eq(WebhookOutboxStatus.PENDING), eq(1), retryAt.capture(), anyString());
+        verify(webhookOutboxRepository).markFailed(eq(2L), eq(WebhookOutboxStatus.PENDING), eq(2), retryAt.capture(), anyString());
+        assertThat(retryAt.getAllValues().get(0)).isEqualTo(retryAt.getAllValues().get(1));
+        assertThat(retryAt.getValue().getNano() % 1_000_000_000).isZero();
+        assertThat(retryAt.getValue()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("dispatchPending - assinatura com segredo envia o segredo ao cliente")
+    void dispatchPending_SignedSubscription_PassesSecret() {
+        event.setSubscriptionId(3L);
+        mockClaim(List.of(event));
+        when(subscriptionIndex.secretFor(3L)).thenReturn("segredo-do-receptor-123");
+        when(webhookClient.send(anyString(), anyString(), any(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookClient).send(anyString(), anyString(), eq(7L), anyString(), eq("segredo-do-receptor-123"));
+    }
+
+    @Test
+    @DisplayName("dispatchPending - assinatura removida descarta o evento sem enviar")
+    void dispatchPending_RemovedSubscription_MarksDead() {
+        event.setSubscriptionId(9L);
+        mockClaim(List.of(event));
+        when(subscriptionIndex.status(9L)).thenReturn(WebhookSubscriptionIndex.Status.INACTIVE);
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookOutboxRepository).markFailed(eq(7L), eq(WebhookOutboxStatus.DEAD), eq(0), any(), anyString());
+        verifyNoInteractions(webhookClient);
+    }
+
+    @Test
+    @DisplayName("dispatchPending - assinatura nao confirmada adia o evento sem gastar tentativa")
+    void dispatchPending_UnknownSubscription_Defers() {
+        event.setSubscriptionId(9L);
+        event.setAttempts(1);
+        mockClaim(List.of(event));
+        when(subscriptionIndex.status(9L)).thenReturn(WebhookSubscriptionIndex.Status.UNKNOWN);
+
+        webhookDispatcher.dispatchPending();
+
+        verify(webhookOutboxRepository).markFailed(eq(7L), eq(WebhookOutboxStatus.PENDING), eq(1),
+                argThat(next -> next.isAfter(LocalDateTime.now())), anyString());
+        verify(webhookOutboxRepository, never()).markFailed(any(), eq(WebhookOutboxStatus.DEAD), anyInt(), any(), any());
+        verifyNoInteractions(webhookClient);
+    }
+
+    @Test
+    @DisplayName("hmacSha256Hex - assina timestamp e corpo com o segredo")
+    void hmacSha256Hex_MatchesReference() {
+        String signature = WebhookClient.hmacSha256Hex("segredo", "1700000000", "{}".getBytes());
+
+        assertThat(signature).isEqualTo("28d73844c84580182772a1e98a60aeb8f04184b1bef0d4e147cfa59ebf0bfedc");
+        assertThat(WebhookClient.hmacSha256Hex("segredo", "1700000001", "{}".getBytes())).isNotEqualTo(signature);
+    }
+
+    @Test
+    @DisplayName("backoffMillis - cresce exponencialmente ate o teto")
+    void backoffMillis_ExponentialWithCap() {
+        assertThat(webhookDispatcher.backoffMillis(1)).isBetween(1_000L, 1_200L);
+        assertThat(webhookDispatcher.backoffMillis(4)).isBetween(8_000L, 9_600L);
+        assertThat(webhookDispatcher.backoffMillis(40)).isBetween(600_000L, 720_000L);
+    }
+
+    private static WebhookOutboxEntity batchEvent(Long id) {
+        return WebhookOutboxEntity.builder()
+                .id(id)
+                .eventType("SESSION_CREATED")
+                .url("https://hooks.example.com/batch")
+                .payload("{\"eventType\":\"SESSION_CREATED\"}")
+                .status(WebhookOutboxStatus.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockClaim(List<WebhookOutboxEntity> due) {
+        when(webhookOutboxRepository.lockDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(due);
+        lenient().when(subscriptionIndex.status(any())).thenReturn(WebhookSubscriptionIndex.Status.ACTIVE);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+}
@@ -0,0 +1,130 @@
+package com.nebula.userService.service;
+
+import com.nebula.userService.entities.WebhookSubscriptionEntity;
+import com.nebula.userService.repository.WebhookSubscriptionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookSubscriptionIndex Tests")
+class WebhookSubscriptionIndexTest {
+
+    @Mock
+    private WebhookSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Test
+    @DisplayName("targetsFor - assinantes do tipo mais curingas e URLs estaticas")
+    void targetsFor_MergesWildcardsAndStaticUrls() {
+        when(subscriptionRepository.findByEnabledTrue()).thenReturn(List.of(
+                subscription(1L, "USER_CREATED", null, true),
+                subscription(2L, "*", "segredo", true)));
+        WebhookSubscriptionIndex index = index("https://legado.example.com");
+        index.refresh();
+
+        assertThat(index.targetsFor("USER_CREATED")).extracting(WebhookSubscriptionIndex.Target::subscriptionId)
+                .containsExactly(null, 2L, 1L);
+        assertThat(index.targetsFor("USER_DELETED")).extracting(WebhookSubscriptionIndex.Target::subscriptionId)
+                .containsExactly(null, 2L);
+        assertThat(index.secretFor(1L)).isNull();
+        assertThat(index.secretFor(2L)).isEqualTo("segredo");
+    }
+
+    @Test
+    @DisplayName("status - assinatura no indice e URL estatica sao ativas sem consultar o banco")
+    void status_IndexedSubscription_Active() {
+        when(subscriptionRepository.findByEnabledTrue()).thenReturn(List.of(subscription(1L, "*", null, true)));
+        WebhookSubscriptionIndex index = index("");
+        index.refresh();
+
+        assertThat(index.status(1L)).isEqualTo(WebhookSubscriptionIndex.Status.ACTIVE);
+        assertThat(index.status(null)).isEqualTo(WebhookSubscriptionIndex.Status.ACTIVE);
+        verify(subscriptionRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("status - fora do indice e removida ou desativada no banco e INACTIVE")
+    void status_DeletedOrDisabled_Inactive() {
+        WebhookSubscriptionIndex index = index("");
+        when(subscriptionRepository.findById(8L)).thenReturn(Optional.empty());
+        when(subscriptionRepository.findById(9L)).thenReturn(Optional.of(subscription(9L, "*", null, false)));
+
+        assertThat(index.status(8L)).isEqualTo(WebhookSubscriptionIndex.Status.INACTIVE);
+        assertThat(index.status(9L)).isEqualTo(WebhookSubscriptionIndex.Status.INACTIVE);
+    }
+
+    @Test
+    @DisplayName("status - indice desatualizado: ativa no banco recarrega o indice e entrega com o segredo")
+    void status_StaleIndex_RefreshesAndActive() {
+        WebhookSubscriptionIndex index = index("");
+        WebhookSubscriptionEntity created = subscription(5L, "*", "segredo", true);
+        when(subscriptionRepository.findById(5L)).thenReturn(Optional.of(created));
+        when(subscriptionRepository.findByEnabledTrue()).thenReturn(List.of(created));
+
+        assertThat(index.status(5L)).isEqualTo(WebhookSubscriptionIndex.Status.ACTIVE);
+        assertThat(index.secretFor(5L)).isEqualTo("segredo");
+    }
+
+    @Test
+    @DisplayName("status - banco fora (ex.: carga inicial falhou) nunca descarta: UNKNOWN")
+    void status_DatabaseDown_Unknown() {
+        when(subscriptionRepository.findByEnabledTrue()).thenThrow(new DataAccessResourceFailureException("down"));
+        WebhookSubscriptionIndex index = index("");
+        index.initialize();
+        when(subscriptionRepository.findById(5L)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThat(index.status(5L)).isEqualTo(WebhookSubscriptionIndex.Status.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("status - ativa no banco mas o refresh falha: UNKNOWN (sem entregar sem segredo)")
+    void status_RefreshFails_Unknown() {
+        WebhookSubscriptionIndex index = index("");
+        when(subscriptionRepository.findById(5L)).thenReturn(Optional.of(subscription(5L, "*", "segredo", true)));
+        when(subscriptionRepository.findByEnabledTrue()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThat(index.status(5L)).isEqualTo(WebhookSubscriptionIndex.Status.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("onMessage - aviso de outro no recarrega o indice")
+    void onMessage_Refreshes() {
+        WebhookSubscriptionIndex index = index("");
+        when(subscriptionRepository.findByEnabledTrue()).thenReturn(List.of(subscription(1L, "USER_CREATED", null, true)));
+
+        index.onMessage(null, null);
+
+        assertThat(index.targetsFor("USER_CREATED")).hasSize(1);
+    }
+
+    private WebhookSubscriptionIndex index(String staticUrls) {
+        return new WebhookSubscriptionIndex(subscriptionRepository, redisTemplate, listenerContainer, staticUrls);
+    }
+
+    private static WebhookSubscriptionEntity subscription(Long id, String eventTypes, String secret, boolean enabled) {
+        return WebhookSubscriptionEntity.builder()
+                .id(id)
+                .url("https://hooks.example.com/" + id)
+                .eventTypes(eventTypes)
+                .secret(secret)
+                .enabled(enabled)
+                .build();
+    }
+}